@@ -33,6 +33,7 @@ import java.util.Arrays;
 import org.chocosolver.samples.AbstractProblem;
 import org.chocosolver.solver.ResolutionPolicy;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.nary.contingency.ContingencyDecompositionType;
 import org.chocosolver.solver.constraints.real.Ibex;
 import org.chocosolver.solver.constraints.real.RealConstraint;
 import org.chocosolver.solver.constraints.statistical.chisquare.ChiSquareIndependence;
@@ -80,12 +81,19 @@ public class HotellingTwoWay extends AbstractProblem {
    
    double significance;
    
+   ContingencyDecompositionType decompositionType;
+   
    public HotellingTwoWay(double[][][] observations, double significance) {
+      this(observations, significance, ContingencyDecompositionType.Decomposition);
+   }
+   
+   public HotellingTwoWay(double[][][] observations, double significance, ContingencyDecompositionType decompositionType) {
       this.observations = observations;
       this.A = this.observations.length;
       this.B = this.observations[0].length;
       this.K = this.observations[0][0].length;
       this.significance = significance;
+      this.decompositionType = decompositionType;
    }
    
    @Override
@@ -163,7 +171,7 @@ public class HotellingTwoWay extends AbstractProblem {
       for(int a = 0; a < A; a++) {
          for(int b = 0; b < B; b++) {
             ChiSquareIndependence.decomposition("chiSqConstraint", extract_i(a, error), extract_j(b, error), 
-                  binBounds, VF.real("chiSqStatistics", chiSqStatistic[0], chiSqStatistic[1], precision, solver), precision, false);
+                  binBounds, VF.real("chiSqStatistics", chiSqStatistic[0], chiSqStatistic[1], precision, solver), precision, false, false, decompositionType);
          }
       }
    }
@@ -26,6 +26,7 @@
 
 package org.chocosolver.solver.constraints;
 
+import org.chocosolver.solver.constraints.nary.contingency.ContingencyDecompositionType;
 import org.chocosolver.solver.constraints.nary.contingency.ContingencyDecompositions;
 import org.chocosolver.solver.constraints.nary.bincounts.BincountsDecompositionType;
 import org.chocosolver.solver.constraints.nary.bincounts.BincountsDecompositions;
@@ -76,10 +77,12 @@ public class SyatConstraintFactory extends IntConstraintFactory {
    }
 
    /**
-    * One sample Kolmogorov-Smirnov statistical constraint with parameterised target distribution.
+    * One sample Kolmogorov-Smirnov statistical constraint with parameterised target distribution. 
+    * The distribution parameters are appended to the observations: the empirical distribution 
+    * tested includes their values.
     * 
     * @param observations list of observations
-    * @param distribution parameterised target distribution (one parameter)
+    * @param distribution parameterised target distribution
     * @param op operator that defines the comparison to be performed between the two distributions {@link org.chocosolver.solver.constraints.Operator
 }
     * @param confidence test confidence level
@@ -113,6 +116,12 @@ public class SyatConstraintFactory extends IntConstraintFactory {
       case Agkun2016_2_LE:
          BincountsDecompositions.bincountsDecomposition3(observations, binCounts, binBounds, false);
          break;
+      case Native_EQ:
+         BincountsDecompositions.bincountsPropagator(observations, binCounts, binBounds, true);
+         break;
+      case Native_LE:
+         BincountsDecompositions.bincountsPropagator(observations, binCounts, binBounds, false);
+         break;
       default:
          throw new NullPointerException();
       }
@@ -139,6 +148,12 @@ public class SyatConstraintFactory extends IntConstraintFactory {
       case Agkun2016_2_LE:
          BincountsDecompositions.bincountsDecomposition3(observations, binCounts, binBounds, precision, false);
          break;
+      case Native_EQ:
+         BincountsDecompositions.bincountsPropagator(observations, binCounts, binBounds, true);
+         break;
+      case Native_LE:
+         BincountsDecompositions.bincountsPropagator(observations, binCounts, binBounds, false);
+         break;
       default:
          throw new NullPointerException();
       }
@@ -156,7 +171,32 @@ public class SyatConstraintFactory extends IntConstraintFactory {
     * @param marginalsV contingency table column counts sums
     */
    public static void contingencyDecomposition(IntVar[] observationsA, IntVar[] observationsB, IntVar[][] binVariables, int[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV){
-      ContingencyDecompositions.decompose(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+      contingencyDecomposition(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV, ContingencyDecompositionType.Decomposition);
+   }
+   
+   /**
+    * {@code CONTINGENCY} constraint for integer valued observations.
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    * @param decompositionType contingency table decomposition or native propagator
+    */
+   public static void contingencyDecomposition(IntVar[] observationsA, IntVar[] observationsB, IntVar[][] binVariables, int[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV, ContingencyDecompositionType decompositionType){
+      switch(decompositionType){
+      case Decomposition:
+         ContingencyDecompositions.decompose(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+         break;
+      case Native:
+         ContingencyDecompositions.contingencyPropagator(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+         break;
+      default:
+         throw new NullPointerException();
+      }
    }
    
    /**
@@ -171,6 +211,31 @@ public class SyatConstraintFactory extends IntConstraintFactory {
     * @param marginalsV contingency table column counts sums
     */
    public static void contingencyDecomposition(RealVar[] observationsA, RealVar[] observationsB, IntVar[][] binVariables, double[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV){
-      ContingencyDecompositions.decompose(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+      contingencyDecomposition(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV, ContingencyDecompositionType.Decomposition);
+   }
+   
+   /**
+    * {@code CONTINGENCY} constraint for real valued observations.
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    * @param decompositionType contingency table decomposition or native propagator
+    */
+   public static void contingencyDecomposition(RealVar[] observationsA, RealVar[] observationsB, IntVar[][] binVariables, double[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV, ContingencyDecompositionType decompositionType){
+      switch(decompositionType){
+      case Decomposition:
+         ContingencyDecompositions.decompose(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+         break;
+      case Native:
+         ContingencyDecompositions.contingencyPropagator(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV);
+         break;
+      default:
+         throw new NullPointerException();
+      }
    }
 }
@@ -0,0 +1,342 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.nary.bincounts;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.solver.variables.events.RealEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Propagator of the {@code BINCOUNTS} constraint, independent of the type of the observations.
+ * 
+ * <p>The bounds of each observation are mapped by binary search over the breakpoints to the 
+ * range of bins they span. The propagator maintains backtrackable counters of the observations 
+ * that certainly fall in each bin, and a difference array over the bin ranges from which the 
+ * number of observations that possibly fall in each bin is recovered. An observation event 
+ * therefore costs O(log k) and a filtering of the bin counts O(k).
+ * 
+ * <p>Observations are also pruned from count information alone, as in bound consistent 
+ * {@code GLOBAL_CARDINALITY} over bin intervals: a bin whose upper count is reached by the 
+ * observations certainly falling in it is removed from all other observations, and a bin whose 
+ * lower count equals the number of observations possibly falling in it absorbs all of them.
+ * 
+ * @author Roberto Rossi
+ * @see <a href="https://arxiv.org/abs/1611.08942">Bincounts constraint</a>
+ */
+
+@SuppressWarnings("serial")
+abstract class AbstractPropBincounts extends Propagator<Variable> {
+   
+   protected final int n;
+   protected final int k;
+   protected final IntVar[] binCounts;
+   protected final boolean forceEquality;
+   /* bin range spanned by each observation; -1 and k stand for values below and above the bins */
+   private final IStateInt[] lowestBin;
+   private final IStateInt[] highestBin;
+   /* number of observations certainly falling in each bin */
+   private final IStateInt[] certain;
+   /* difference array of the bin ranges of the observations */
+   private final IStateInt[] spans;
+   /* whether an event was received since the last filtering */
+   private boolean outdated;
+   /* bins that cannot host further observations */
+   private final boolean[] saturated;
+   /* bins that need all the observations that possibly fall in them */
+   private final boolean[] required;
+   /* prefix counts of the saturated or required bins */
+   private final int[] settled;
+   
+   private static Variable[] mergeArrays(Variable[] var1, Variable[] var2){
+      Variable[] var3 = new Variable[var1.length+var2.length];
+      System.arraycopy(var1, 0, var3, 0, var1.length);
+      System.arraycopy(var2, 0, var3, var1.length, var2.length);
+      return var3;
+   }
+   
+   /**
+    * {@code BINCOUNTS} propagator
+    * 
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param forceEquality if true, all observations must fall within the given bins
+    */
+   AbstractPropBincounts(Variable[] observations, IntVar[] binCounts, boolean forceEquality){
+      super(mergeArrays(observations, binCounts), PropagatorPriority.LINEAR, true);
+      this.n = observations.length;
+      this.k = binCounts.length;
+      this.binCounts = binCounts;
+      this.forceEquality = forceEquality;
+      IEnvironment environment = solver.getEnvironment();
+      this.lowestBin = new IStateInt[n];
+      this.highestBin = new IStateInt[n];
+      for(int i = 0; i < n; i++){
+         this.lowestBin[i] = environment.makeInt(-1);
+         this.highestBin[i] = environment.makeInt(-2);
+      }
+      this.certain = new IStateInt[k];
+      for(int j = 0; j < k; j++)
+         this.certain[j] = environment.makeInt(0);
+      this.spans = new IStateInt[k + 1];
+      for(int j = 0; j <= k; j++)
+         this.spans[j] = environment.makeInt(0);
+      this.saturated = new boolean[k];
+      this.required = new boolean[k];
+      this.settled = new int[k + 1];
+   }
+   
+   /**
+    * Index of the bin containing the lower bound of an observation.
+    * 
+    * @param i observation index
+    * @return the bin index, -1 below the first breakpoint, k above the last one
+    */
+   abstract int lowestBin(int i);
+   
+   /**
+    * Index of the bin containing the upper bound of an observation.
+    * 
+    * @param i observation index
+    * @return the bin index, -1 below the first breakpoint, k above the last one
+    */
+   abstract int highestBin(int i);
+   
+   /**
+    * Restricts an observation to the range covered by the bins.
+    * 
+    * @param i observation index
+    * @throws ContradictionException if the observation cannot fall in any bin
+    */
+   abstract void restrictToBins(int i) throws ContradictionException;
+   
+   /**
+    * Restricts an observation to a bin.
+    * 
+    * @param i observation index
+    * @param j bin index
+    * @return {@code true} if the observation was modified
+    * @throws ContradictionException if the observation cannot fall in the bin
+    */
+   abstract boolean restrictToBin(int i, int j) throws ContradictionException;
+   
+   /**
+    * Removes a bin from an observation, as far as its domain representation allows.
+    * 
+    * @param i observation index
+    * @param j bin index
+    * @return {@code true} if the observation was modified
+    * @throws ContradictionException if the observation can only fall in the bin
+    */
+   abstract boolean removeBin(int i, int j) throws ContradictionException;
+   
+   @Override
+   public int getPropagationConditions(int vIdx) {
+      // requested before the fields are set; only bounds matter
+      if((vars[vIdx].getTypeAndKind() & Variable.KIND) == Variable.REAL)
+         return RealEventType.BOUND.getMask();
+      return IntEventType.INSTANTIATE.getMask() + IntEventType.BOUND.getMask();
+   }
+   
+   @Override
+   public void propagate(int evtmask) throws ContradictionException {
+      if(PropagatorEventType.isFullPropagation(evtmask)){
+         if(forceEquality){
+            for(int i = 0; i < n; i++)
+               restrictToBins(i);
+         }
+         for(int j = 0; j < k; j++){
+            certain[j].set(0);
+            spans[j].set(0);
+         }
+         spans[k].set(0);
+         for(int i = 0; i < n; i++){
+            lowestBin[i].set(-1);
+            highestBin[i].set(-2);
+            locate(i);
+         }
+      }
+      outdated = false;
+      do{
+         filter();
+      }while(prune());
+   }
+   
+   @Override
+   public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+      if(idxVarInProp >= n || locate(idxVarInProp))
+         outdated = true;
+      // the engine runs the filtering on the last pending event only
+      if(outdated)
+         forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+   }
+   
+   /**
+    * Filters the bin counts against the counters.
+    */
+   private void filter() throws ContradictionException {
+      int running = 0;
+      for(int j = 0; j < k; j++){
+         running += spans[j].get();
+         binCounts[j].updateLowerBound(certain[j].get(), this);
+         binCounts[j].updateUpperBound(running, this);
+      }
+      if(forceEquality){
+         // bin counts sum up to the number of observations
+         boolean changed;
+         do{
+            int sumLB = 0, sumUB = 0;
+            for(int j = 0; j < k; j++){
+               sumLB += binCounts[j].getLB();
+               sumUB += binCounts[j].getUB();
+            }
+            changed = false;
+            for(int j = 0; j < k; j++){
+               IntVar count = binCounts[j];
+               changed |= count.updateLowerBound(n - sumUB + count.getUB(), this);
+               changed |= count.updateUpperBound(n - sumLB + count.getLB(), this);
+            }
+         }while(changed);
+      }
+   }
+   
+   /**
+    * Prunes the observations against the bins whose count is settled.
+    * 
+    * @return {@code true} if some observation was modified
+    */
+   private boolean prune() throws ContradictionException {
+      int running = 0;
+      for(int j = 0; j < k; j++){
+         running += spans[j].get();
+         int sure = certain[j].get();
+         saturated[j] = running > sure && sure == binCounts[j].getUB();
+         required[j] = running > sure && running == binCounts[j].getLB();
+         settled[j + 1] = settled[j] + (saturated[j] || required[j] ? 1 : 0);
+      }
+      if(settled[k] == 0)
+         return false;
+      boolean changed = false;
+      for(int i = 0; i < n; i++){
+         int lowest = lowestBin[i].get();
+         int highest = highestBin[i].get();
+         if(lowest == highest)
+            continue;
+         int from = Math.max(lowest, 0);
+         int to = Math.min(highest, k - 1);
+         if(from > to || settled[to + 1] == settled[from])
+            continue;
+         boolean modified = false;
+         for(int j = from; j <= to && !modified; j++){
+            if(required[j])
+               modified = restrictToBin(i, j);
+         }
+         for(int j = from; j <= to && !modified; j++){
+            if(saturated[j])
+               modified |= removeBin(i, j);
+         }
+         if(modified && locate(i))
+            changed = true;
+      }
+      return changed;
+   }
+   
+   /**
+    * Updates the counters with the current bin range of observation {@code i}.
+    * 
+    * @param i observation index
+    * @return {@code true} if the bin range of the observation changed
+    */
+   private boolean locate(int i){
+      int lowest = lowestBin(i);
+      int highest = highestBin(i);
+      if(lowest == lowestBin[i].get() && highest == highestBin[i].get())
+         return false;
+      count(lowestBin[i].get(), highestBin[i].get(), -1);
+      count(lowest, highest, 1);
+      lowestBin[i].set(lowest);
+      highestBin[i].set(highest);
+      return true;
+   }
+   
+   /**
+    * Adds an observation spanning bins {@code lowest} to {@code highest} to the counters.
+    */
+   private void count(int lowest, int highest, int delta){
+      if(lowest == highest && lowest >= 0 && lowest < k)
+         certain[lowest].add(delta);
+      int from = Math.max(lowest, 0);
+      int to = Math.min(highest, k - 1);
+      if(from <= to){
+         spans[from].add(delta);
+         spans[to + 1].add(-delta);
+      }
+   }
+   
+   @Override
+   public ESat isEntailed() {
+      int[] lower = new int[k];
+      int[] upper = new int[k + 1];
+      boolean instantiated = true;
+      for(int i = 0; i < n; i++){
+         int lowest = lowestBin(i);
+         int highest = highestBin(i);
+         if(forceEquality && (highest < 0 || lowest >= k))
+            return ESat.FALSE;
+         if(lowest == highest && lowest >= 0 && lowest < k)
+            lower[lowest]++;
+         int from = Math.max(lowest, 0);
+         int to = Math.min(highest, k - 1);
+         if(from <= to){
+            upper[from]++;
+            upper[to + 1]--;
+         }
+         instantiated &= vars[i].isInstantiated();
+      }
+      int running = 0;
+      for(int j = 0; j < k; j++){
+         running += upper[j];
+         IntVar count = binCounts[j];
+         if(lower[j] > count.getUB() || running < count.getLB())
+            return ESat.FALSE;
+         instantiated &= count.isInstantiated();
+      }
+      return instantiated ? ESat.TRUE : ESat.UNDEFINED;
+   }
+   
+   @Override
+   public String toString() {
+      return "BINCOUNTS(" + n + " observations, " + k + " bins)";
+   }
+}
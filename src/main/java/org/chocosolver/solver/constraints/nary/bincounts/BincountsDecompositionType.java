@@ -38,4 +38,6 @@ public enum BincountsDecompositionType {
    Agkun2016_1,
    Agkun2016_2_EQ,
    Agkun2016_2_LE,
+   Native_EQ,
+   Native_LE,
 }
@@ -27,6 +27,7 @@
 package org.chocosolver.solver.constraints.nary.bincounts;
 
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.SyatConstraintFactory;
 import org.chocosolver.solver.constraints.LogicalConstraintFactory;
 import org.chocosolver.solver.constraints.real.Ibex;
@@ -215,4 +216,32 @@ public class BincountsDecompositions {
       if(forceEquality) 
          solver.post(SyatConstraintFactory.sum(binCounts, VariableFactory.fixed(observations.length, solver)));
    }
+   
+   /**
+    * {@code BINCOUNTS} global propagator, integer valued
+    * 
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param forceEquality if true, all observations must fall within the given bins
+    */
+   public static void bincountsPropagator(IntVar[] observations, IntVar[] binCounts, int[] binBounds, boolean forceEquality){
+      Solver solver = observations[0].getSolver();
+      
+      solver.post(new Constraint("Bincounts", new PropBincounts(observations, binCounts, binBounds, forceEquality)));
+   }
+   
+   /**
+    * {@code BINCOUNTS} global propagator, real valued
+    * 
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param forceEquality if true, all observations must fall within the given bins
+    */
+   public static void bincountsPropagator(RealVar[] observations, IntVar[] binCounts, double[] binBounds, boolean forceEquality){
+      Solver solver = observations[0].getSolver();
+      
+      solver.post(new Constraint("Bincounts", new PropBincountsReal(observations, binCounts, binBounds, forceEquality)));
+   }
 }
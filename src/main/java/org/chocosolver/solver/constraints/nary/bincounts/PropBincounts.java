@@ -0,0 +1,102 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.nary.bincounts;
+
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Propagator of the {@code BINCOUNTS} constraint for integer valued observations.
+ * 
+ * @author Roberto Rossi
+ * @see <a href="https://arxiv.org/abs/1611.08942">Bincounts constraint</a>
+ */
+
+@SuppressWarnings("serial")
+public class PropBincounts extends AbstractPropBincounts {
+   
+   private final IntVar[] observations;
+   private final int[] binBounds;
+   
+   /**
+    * {@code BINCOUNTS} propagator
+    * 
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param forceEquality if true, all observations must fall within the given bins
+    */
+   public PropBincounts(IntVar[] observations, IntVar[] binCounts, int[] binBounds, boolean forceEquality){
+      super(observations, binCounts, forceEquality);
+      this.observations = observations;
+      this.binBounds = binBounds.clone();
+   }
+   
+   /**
+    * Index of the bin containing {@code value}.
+    * 
+    * @param value a value
+    * @return the bin index, -1 if {@code value} lies below the first breakpoint, k if it lies above the last one
+    */
+   int bin(int value){
+      int lo = 0, hi = binBounds.length;
+      while(lo < hi){
+         int mid = (lo + hi) >>> 1;
+         if(binBounds[mid] > value)
+            hi = mid;
+         else
+            lo = mid + 1;
+      }
+      return lo - 1;
+   }
+   
+   @Override
+   int lowestBin(int i){
+      return bin(observations[i].getLB());
+   }
+   
+   @Override
+   int highestBin(int i){
+      return bin(observations[i].getUB());
+   }
+   
+   @Override
+   void restrictToBins(int i) throws ContradictionException {
+      observations[i].updateLowerBound(binBounds[0], this);
+      observations[i].updateUpperBound(binBounds[k] - 1, this);
+   }
+   
+   @Override
+   boolean restrictToBin(int i, int j) throws ContradictionException {
+      return observations[i].updateBounds(binBounds[j], binBounds[j + 1] - 1, this);
+   }
+   
+   @Override
+   boolean removeBin(int i, int j) throws ContradictionException {
+      return observations[i].removeInterval(binBounds[j], binBounds[j + 1] - 1, this);
+   }
+}
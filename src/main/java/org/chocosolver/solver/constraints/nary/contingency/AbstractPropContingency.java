@@ -0,0 +1,482 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.nary.contingency;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.IStateInt;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.Variable;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.solver.variables.events.RealEventType;
+import org.chocosolver.util.ESat;
+
+/**
+ * Propagator of the {@code CONTINGENCY} constraint, independent of the type of the observations.
+ * 
+ * <p>The bounds of the two observations of each pair are mapped by binary search over the 
+ * breakpoints to the range of rows and the range of columns they span, so that each pair 
+ * covers a rectangle of cells. The propagator maintains backtrackable counters of the pairs 
+ * that certainly fall in each cell, row and column, and difference arrays over the rectangles 
+ * from which the number of pairs that possibly fall in each of them is recovered. An observation 
+ * event therefore costs O(log r + log c), a filtering of the table O(r c), and the state 
+ * O(n + r c) in place of the O(n r c) reified variables of the decomposition.
+ * 
+ * <p>Cells, rows and columns are filtered against the counters and against each other, as 
+ * bound consistent sums. Pairs are pruned from cell counts: a cell whose upper count is reached 
+ * by the pairs certainly falling in it is removed from the pairs that are certainly in its row, 
+ * or in its column, and a cell whose lower count equals the number of pairs possibly falling in 
+ * it absorbs all of them.
+ * 
+ * <p>Cells may be left out of the table as {@code null}; they are then fixed to zero without 
+ * any variable, which keeps sparse tables with many bins cheap.
+ * 
+ * @author Roberto Rossi
+ * @see <a href="https://en.wikipedia.org/wiki/Contingency_table">Contingency table</a>
+ */
+
+@SuppressWarnings("serial")
+abstract class AbstractPropContingency extends Propagator<Variable> {
+   
+   protected final int n;
+   protected final int r;
+   protected final int c;
+   /* cell counts, row by row; null cells are fixed to zero */
+   private final IntVar[] binVariables;
+   private final IntVar[] marginalsH;
+   private final IntVar[] marginalsV;
+   /* bin range spanned by each observation; -1 and the number of bins stand for values below and above the bins */
+   private final IStateInt[] lowestBin;
+   private final IStateInt[] highestBin;
+   /* number of pairs certainly falling in each cell, row and column */
+   private final IStateInt[] certainCell;
+   private final IStateInt[] certainRow;
+   private final IStateInt[] certainColumn;
+   /* difference arrays of the rectangles, rows and columns spanned by the pairs */
+   private final IStateInt[] cellSpans;
+   private final IStateInt[] rowSpans;
+   private final IStateInt[] columnSpans;
+   /* whether an event was received since the last filtering */
+   private boolean outdated;
+   /* number of pairs possibly falling in each cell */
+   private final int[] possible;
+   /* cells that cannot host further pairs */
+   private final boolean[] saturated;
+   /* cells that need all the pairs that possibly fall in them */
+   private final boolean[] required;
+   /* two dimensional prefix counts of the saturated or required cells */
+   private final int[] settled;
+   
+   private static Variable[] mergeArrays(Variable[]... arrays){
+      int length = 0;
+      for(Variable[] array : arrays){
+         for(Variable variable : array)
+            length += variable == null ? 0 : 1;
+      }
+      Variable[] merged = new Variable[length];
+      int offset = 0;
+      for(Variable[] array : arrays){
+         for(Variable variable : array){
+            if(variable != null)
+               merged[offset++] = variable;
+         }
+      }
+      return merged;
+   }
+   
+   private static IntVar[] flatten(IntVar[][] binVariables){
+      int c = binVariables[0].length;
+      IntVar[] flattened = new IntVar[binVariables.length * c];
+      for(int i = 0; i < binVariables.length; i++)
+         System.arraycopy(binVariables[i], 0, flattened, c * i, c);
+      return flattened;
+   }
+   
+   /**
+    * {@code CONTINGENCY} propagator
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    */
+   AbstractPropContingency(Variable[] observationsA, Variable[] observationsB, IntVar[][] binVariables, IntVar[] marginalsH, IntVar[] marginalsV){
+      this(observationsA, observationsB, flatten(binVariables), marginalsH, marginalsV);
+   }
+   
+   private AbstractPropContingency(Variable[] observationsA, Variable[] observationsB, IntVar[] binVariables, IntVar[] marginalsH, IntVar[] marginalsV){
+      super(mergeArrays(observationsA, observationsB, binVariables, marginalsH, marginalsV), PropagatorPriority.QUADRATIC, true);
+      this.n = observationsA.length;
+      this.r = marginalsH.length;
+      this.c = marginalsV.length;
+      this.binVariables = binVariables;
+      this.marginalsH = marginalsH;
+      this.marginalsV = marginalsV;
+      IEnvironment environment = solver.getEnvironment();
+      this.lowestBin = new IStateInt[2 * n];
+      this.highestBin = new IStateInt[2 * n];
+      for(int i = 0; i < 2 * n; i++){
+         this.lowestBin[i] = environment.makeInt(-1);
+         this.highestBin[i] = environment.makeInt(-2);
+      }
+      this.certainCell = makeInts(environment, r * c);
+      this.certainRow = makeInts(environment, r);
+      this.certainColumn = makeInts(environment, c);
+      this.cellSpans = makeInts(environment, (r + 1) * (c + 1));
+      this.rowSpans = makeInts(environment, r + 1);
+      this.columnSpans = makeInts(environment, c + 1);
+      this.possible = new int[r * c];
+      this.saturated = new boolean[r * c];
+      this.required = new boolean[r * c];
+      this.settled = new int[(r + 1) * (c + 1)];
+   }
+   
+   private static IStateInt[] makeInts(IEnvironment environment, int length){
+      IStateInt[] ints = new IStateInt[length];
+      for(int i = 0; i < length; i++)
+         ints[i] = environment.makeInt(0);
+      return ints;
+   }
+   
+   /**
+    * Index of the bin containing the lower bound of an observation.
+    * 
+    * @param i observation index; population A observations come first, then population B ones
+    * @return the bin index, -1 below the first breakpoint, the number of bins above the last one
+    */
+   abstract int lowestBin(int i);
+   
+   /**
+    * Index of the bin containing the upper bound of an observation.
+    * 
+    * @param i observation index; population A observations come first, then population B ones
+    * @return the bin index, -1 below the first breakpoint, the number of bins above the last one
+    */
+   abstract int highestBin(int i);
+   
+   /**
+    * Restricts an observation to a bin.
+    * 
+    * @param i observation index; population A observations come first, then population B ones
+    * @param j bin index
+    * @return {@code true} if the observation was modified
+    * @throws ContradictionException if the observation cannot fall in the bin
+    */
+   abstract boolean restrictToBin(int i, int j) throws ContradictionException;
+   
+   /**
+    * Removes a bin from an observation, as far as its domain representation allows.
+    * 
+    * @param i observation index; population A observations come first, then population B ones
+    * @param j bin index
+    * @return {@code true} if the observation was modified
+    * @throws ContradictionException if the observation can only fall in the bin
+    */
+   abstract boolean removeBin(int i, int j) throws ContradictionException;
+   
+   @Override
+   public int getPropagationConditions(int vIdx) {
+      // requested before the fields are set; only bounds matter
+      if((vars[vIdx].getTypeAndKind() & Variable.KIND) == Variable.REAL)
+         return RealEventType.BOUND.getMask();
+      return IntEventType.INSTANTIATE.getMask() + IntEventType.BOUND.getMask();
+   }
+   
+   @Override
+   public void propagate(int evtmask) throws ContradictionException {
+      if(PropagatorEventType.isFullPropagation(evtmask)){
+         for(IStateInt[] counters : new IStateInt[][]{certainCell, certainRow, certainColumn, cellSpans, rowSpans, columnSpans}){
+            for(IStateInt counter : counters)
+               counter.set(0);
+         }
+         for(int i = 0; i < 2 * n; i++){
+            lowestBin[i].set(-1);
+            highestBin[i].set(-2);
+         }
+         for(int s = 0; s < n; s++)
+            locate(s);
+      }
+      outdated = false;
+      do{
+         filter();
+      }while(prune());
+   }
+   
+   @Override
+   public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+      if(idxVarInProp >= 2 * n || locate(idxVarInProp % n))
+         outdated = true;
+      // the engine runs the filtering on the last pending event only
+      if(outdated)
+         forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+   }
+   
+   /**
+    * Filters the cell, row and column counts against the counters and against each other.
+    */
+   private void filter() throws ContradictionException {
+      for(int i = 0; i < r; i++){
+         for(int j = 0; j < c; j++){
+            int running = cellSpans[(c + 1) * i + j].get();
+            if(i > 0)
+               running += possible[c * (i - 1) + j];
+            if(j > 0)
+               running += possible[c * i + j - 1];
+            if(i > 0 && j > 0)
+               running -= possible[c * (i - 1) + j - 1];
+            possible[c * i + j] = running;
+            IntVar count = binVariables[c * i + j];
+            if(count == null){
+               if(certainCell[c * i + j].get() > 0)
+                  fails();
+               continue;
+            }
+            count.updateLowerBound(certainCell[c * i + j].get(), this);
+            count.updateUpperBound(running, this);
+         }
+      }
+      int running = 0;
+      for(int i = 0; i < r; i++){
+         running += rowSpans[i].get();
+         marginalsH[i].updateLowerBound(certainRow[i].get(), this);
+         marginalsH[i].updateUpperBound(running, this);
+      }
+      running = 0;
+      for(int j = 0; j < c; j++){
+         running += columnSpans[j].get();
+         marginalsV[j].updateLowerBound(certainColumn[j].get(), this);
+         marginalsV[j].updateUpperBound(running, this);
+      }
+      // rows and columns sum up their cells
+      boolean changed;
+      do{
+         changed = false;
+         for(int i = 0; i < r; i++)
+            changed |= filterSum(marginalsH[i], c * i, 1, c);
+         for(int j = 0; j < c; j++)
+            changed |= filterSum(marginalsV[j], j, c, r);
+      }while(changed);
+   }
+   
+   /**
+    * Filters {@code total} and the {@code length} cells starting at {@code first} with step 
+    * {@code step} so that the former is the sum of the latter.
+    * 
+    * @return {@code true} if some variable was modified
+    */
+   private boolean filterSum(IntVar total, int first, int step, int length) throws ContradictionException {
+      int sumLB = 0, sumUB = 0;
+      for(int j = 0, cell = first; j < length; j++, cell += step){
+         sumLB += lowerCount(cell);
+         sumUB += upperCount(cell);
+      }
+      boolean changed = total.updateLowerBound(sumLB, this);
+      changed |= total.updateUpperBound(sumUB, this);
+      for(int j = 0, cell = first; j < length; j++, cell += step){
+         IntVar count = binVariables[cell];
+         if(count == null)
+            continue;
+         changed |= count.updateLowerBound(total.getLB() - sumUB + count.getUB(), this);
+         changed |= count.updateUpperBound(total.getUB() - sumLB + count.getLB(), this);
+      }
+      return changed;
+   }
+   
+   private int lowerCount(int cell){
+      return binVariables[cell] == null ? 0 : binVariables[cell].getLB();
+   }
+   
+   private int upperCount(int cell){
+      return binVariables[cell] == null ? 0 : binVariables[cell].getUB();
+   }
+   
+   /**
+    * Prunes the observations against the cells whose count is settled.
+    * 
+    * @return {@code true} if some observation was modified
+    */
+   private boolean prune() throws ContradictionException {
+      boolean any = false;
+      for(int i = 0; i < r; i++){
+         for(int j = 0; j < c; j++){
+            int cell = c * i + j;
+            int sure = certainCell[cell].get();
+            saturated[cell] = possible[cell] > sure && sure == upperCount(cell);
+            required[cell] = possible[cell] > sure && possible[cell] == lowerCount(cell);
+            settled[(c + 1) * (i + 1) + j + 1] = settled[(c + 1) * i + j + 1] + settled[(c + 1) * (i + 1) + j] 
+                  - settled[(c + 1) * i + j] + (saturated[cell] || required[cell] ? 1 : 0);
+            any |= saturated[cell] || required[cell];
+         }
+      }
+      if(!any)
+         return false;
+      boolean changed = false;
+      for(int s = 0; s < n; s++){
+         int lowestRow = lowestBin[s].get();
+         int highestRow = highestBin[s].get();
+         int lowestColumn = lowestBin[n + s].get();
+         int highestColumn = highestBin[n + s].get();
+         if(lowestRow == highestRow && lowestColumn == highestColumn)
+            continue;
+         int fromRow = Math.max(lowestRow, 0);
+         int toRow = Math.min(highestRow, r - 1);
+         int fromColumn = Math.max(lowestColumn, 0);
+         int toColumn = Math.min(highestColumn, c - 1);
+         if(fromRow > toRow || fromColumn > toColumn || 
+               settled[(c + 1) * (toRow + 1) + toColumn + 1] - settled[(c + 1) * fromRow + toColumn + 1] 
+               - settled[(c + 1) * (toRow + 1) + fromColumn] + settled[(c + 1) * fromRow + fromColumn] == 0)
+            continue;
+         boolean modified = false;
+         for(int i = fromRow; i <= toRow && !modified; i++){
+            for(int j = fromColumn; j <= toColumn && !modified; j++){
+               if(required[c * i + j])
+                  modified = restrictToBin(s, i) | restrictToBin(n + s, j);
+            }
+         }
+         for(int i = fromRow; i <= toRow && !modified; i++){
+            for(int j = fromColumn; j <= toColumn && !modified; j++){
+               if(!saturated[c * i + j])
+                  continue;
+               // a pair leaves the cell only through an observation whose other bin is fixed
+               if(lowestColumn == highestColumn)
+                  modified = removeBin(s, i);
+               else if(lowestRow == highestRow)
+                  modified = removeBin(n + s, j);
+            }
+         }
+         if(modified && locate(s))
+            changed = true;
+      }
+      return changed;
+   }
+   
+   /**
+    * Updates the counters with the current rectangle of pair {@code s}.
+    * 
+    * @param s pair index
+    * @return {@code true} if the rectangle of the pair changed
+    */
+   private boolean locate(int s){
+      int lowestRow = lowestBin(s);
+      int highestRow = highestBin(s);
+      int lowestColumn = lowestBin(n + s);
+      int highestColumn = highestBin(n + s);
+      if(lowestRow == lowestBin[s].get() && highestRow == highestBin[s].get() && 
+            lowestColumn == lowestBin[n + s].get() && highestColumn == highestBin[n + s].get())
+         return false;
+      count(lowestBin[s].get(), highestBin[s].get(), lowestBin[n + s].get(), highestBin[n + s].get(), -1);
+      count(lowestRow, highestRow, lowestColumn, highestColumn, 1);
+      lowestBin[s].set(lowestRow);
+      highestBin[s].set(highestRow);
+      lowestBin[n + s].set(lowestColumn);
+      highestBin[n + s].set(highestColumn);
+      return true;
+   }
+   
+   /**
+    * Adds a pair spanning the given rows and columns to the counters.
+    */
+   private void count(int lowestRow, int highestRow, int lowestColumn, int highestColumn, int delta){
+      int fromRow = Math.max(lowestRow, 0);
+      int toRow = Math.min(highestRow, r - 1);
+      int fromColumn = Math.max(lowestColumn, 0);
+      int toColumn = Math.min(highestColumn, c - 1);
+      if(fromRow > toRow || fromColumn > toColumn)
+         return;
+      cellSpans[(c + 1) * fromRow + fromColumn].add(delta);
+      cellSpans[(c + 1) * fromRow + toColumn + 1].add(-delta);
+      cellSpans[(c + 1) * (toRow + 1) + fromColumn].add(-delta);
+      cellSpans[(c + 1) * (toRow + 1) + toColumn + 1].add(delta);
+      rowSpans[fromRow].add(delta);
+      rowSpans[toRow + 1].add(-delta);
+      columnSpans[fromColumn].add(delta);
+      columnSpans[toColumn + 1].add(-delta);
+      // a pair certainly counts in a row only if its column is certainly in the table, and vice versa
+      boolean inside = fromRow == lowestRow && toRow == highestRow && fromColumn == lowestColumn && toColumn == highestColumn;
+      if(inside && lowestRow == highestRow)
+         certainRow[lowestRow].add(delta);
+      if(inside && lowestColumn == highestColumn)
+         certainColumn[lowestColumn].add(delta);
+      if(inside && lowestRow == highestRow && lowestColumn == highestColumn)
+         certainCell[c * lowestRow + lowestColumn].add(delta);
+   }
+   
+   @Override
+   public ESat isEntailed() {
+      int[] lower = new int[r * c + r + c];
+      int[] upper = new int[r * c + r + c];
+      boolean instantiated = true;
+      for(int s = 0; s < n; s++){
+         int lowestRow = lowestBin(s);
+         int highestRow = highestBin(s);
+         int lowestColumn = lowestBin(n + s);
+         int highestColumn = highestBin(n + s);
+         int fromRow = Math.max(lowestRow, 0);
+         int toRow = Math.min(highestRow, r - 1);
+         int fromColumn = Math.max(lowestColumn, 0);
+         int toColumn = Math.min(highestColumn, c - 1);
+         instantiated &= vars[s].isInstantiated() && vars[n + s].isInstantiated();
+         if(fromRow > toRow || fromColumn > toColumn)
+            continue;
+         boolean inside = fromRow == lowestRow && toRow == highestRow && fromColumn == lowestColumn && toColumn == highestColumn;
+         for(int i = fromRow; i <= toRow; i++){
+            for(int j = fromColumn; j <= toColumn; j++)
+               upper[c * i + j]++;
+            upper[r * c + i]++;
+         }
+         for(int j = fromColumn; j <= toColumn; j++)
+            upper[r * c + r + j]++;
+         if(inside && lowestRow == highestRow)
+            lower[r * c + lowestRow]++;
+         if(inside && lowestColumn == highestColumn)
+            lower[r * c + r + lowestColumn]++;
+         if(inside && lowestRow == highestRow && lowestColumn == highestColumn)
+            lower[c * lowestRow + lowestColumn]++;
+      }
+      for(int v = 0; v < lower.length; v++){
+         IntVar count = v < r * c ? binVariables[v] : v < r * c + r ? marginalsH[v - r * c] : marginalsV[v - r * c - r];
+         if(count == null){
+            if(lower[v] > 0)
+               return ESat.FALSE;
+            continue;
+         }
+         if(lower[v] > count.getUB() || upper[v] < count.getLB())
+            return ESat.FALSE;
+         instantiated &= count.isInstantiated();
+      }
+      return instantiated ? ESat.TRUE : ESat.UNDEFINED;
+   }
+   
+   @Override
+   public String toString() {
+      return "CONTINGENCY(" + n + " pairs, " + r + "x" + c + " bins)";
+   }
+}
@@ -26,7 +26,11 @@
 
 package org.chocosolver.solver.constraints.nary.contingency;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
 import org.chocosolver.solver.constraints.SyatConstraintFactory;
 import org.chocosolver.solver.constraints.LogicalConstraintFactory;
 import org.chocosolver.solver.constraints.real.Ibex;
@@ -39,6 +43,9 @@ import org.chocosolver.solver.variables.VariableFactory;
 /**
  * Decompositions of the {@code CONTINGENCY} constraint
  * 
+ * <p>Contingency tables may be sparse: a {@code null} cell is fixed to zero without any 
+ * variable, see {@link #sparseBinVariables(String, IntVar[], IntVar[], int[][])}.
+ * 
  * @author Roberto Rossi
  * @see <a href="https://en.wikipedia.org/wiki/Contingency_table">Contingency table</a>
  */
@@ -50,7 +57,7 @@ public class ContingencyDecompositions {
     * 
     * @param observationsA population A observations
     * @param observationsB population B observations
-    * @param binVariables contingency table cell counts
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
     * @param binBounds contingency table bin bounds; provide two arrays of 
     * breakpoints, for populations A and B, respectively
     * @param marginalsH contingency table row counts sums
@@ -68,6 +75,23 @@ public class ContingencyDecompositions {
       
       for(int i = 0; i < binVariables.length; i++){
          for(int j = 0; j < binVariables[i].length; j++){        
+            if(binVariables[i][j] == null){
+               // only pairs that may reach an empty cell are kept out of it
+               for(int s = 0; s < observationsA.length; s++){
+                  if(observationsA[s].getLB() < binBounds[0][i+1] && observationsA[s].getUB() >= binBounds[0][i] &&
+                        observationsB[s].getLB() < binBounds[1][j+1] && observationsB[s].getUB() >= binBounds[1][j]){
+                     solver.post(LogicalConstraintFactory.reification_reifiable(
+                           VariableFactory.zero(solver), 
+                           LogicalConstraintFactory.and(
+                                 SyatConstraintFactory.arithm(observationsA[s], ">=", binBounds[0][i]),
+                                 SyatConstraintFactory.arithm(observationsA[s], "<", binBounds[0][i+1]),
+                                 SyatConstraintFactory.arithm(observationsB[s], ">=", binBounds[1][j]),
+                                 SyatConstraintFactory.arithm(observationsB[s], "<", binBounds[1][j+1])
+                                 )));
+                  }
+               }
+               continue;
+            }
             BoolVar[] valueBinVariables = new BoolVar[observationsA.length];
             for(int s = 0; s < observationsA.length; s++){
                valueBinVariables[s] = VariableFactory.bool("Value-Bin "+s+" ("+i+","+j+")", solver);
@@ -85,17 +109,7 @@ public class ContingencyDecompositions {
          }
       }
       
-      for(int i = 0; i < marginalsH.length; i++){
-         solver.post(SyatConstraintFactory.sum(binVariables[i], marginalsH[i]));
-      }
-      
-      for(int j = 0; j < marginalsV.length; j++){
-         IntVar[] tempVArray = new IntVar[binVariables[0].length];
-         for(int i = 0; i < marginalsH.length; i++){
-            tempVArray[i] = binVariables[i][j];
-         }
-         solver.post(SyatConstraintFactory.sum(tempVArray, marginalsV[j]));
-      }
+      postMarginals(binVariables, marginalsH, marginalsV);
    }
    
    /**
@@ -103,7 +117,7 @@ public class ContingencyDecompositions {
     * 
     * @param seriesA population A observations
     * @param seriesB population B observations
-    * @param binVariables contingency table cell counts
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
     * @param binBounds contingency table bin bounds; provide two arrays of 
     * breakpoints, for populations A and B, respectively
     * @param marginalsH contingency table row counts sums
@@ -123,7 +137,15 @@ public class ContingencyDecompositions {
          for(int j = 0; j < binVariables[i].length; j++){        
             BoolVar[] valueBinVariables = new BoolVar[seriesA.length];
             for(int s = 0; s < seriesA.length; s++){
-               valueBinVariables[s] = VariableFactory.bool("Value-Bin "+s+" ("+i+","+j+")", solver);
+               if(binVariables[i][j] == null){
+                  // only pairs that may reach an empty cell are kept out of it
+                  if(PropContingencyReal.bin(binBounds[0], seriesA[s].getLB()) > i || PropContingencyReal.bin(binBounds[0], seriesA[s].getUB()) < i ||
+                        PropContingencyReal.bin(binBounds[1], seriesB[s].getLB()) > j || PropContingencyReal.bin(binBounds[1], seriesB[s].getUB()) < j)
+                     continue;
+                  valueBinVariables[s] = VariableFactory.zero(solver);
+               }else{
+                  valueBinVariables[s] = VariableFactory.bool("Value-Bin "+s+" ("+i+","+j+")", solver);
+               }
 
                String constraintSeriesAGEStr = "{0}>="+binBounds[0][i];
                String constraintSeriesALStr = "{0}<"+binBounds[0][i+1];
@@ -145,20 +167,177 @@ public class ContingencyDecompositions {
                            constraintBL
                            )));
             }
-            solver.post(SyatConstraintFactory.sum(valueBinVariables, binVariables[i][j]));
+            if(binVariables[i][j] != null)
+               solver.post(SyatConstraintFactory.sum(valueBinVariables, binVariables[i][j]));
          }
       }
 
+      postMarginals(binVariables, marginalsH, marginalsV);
+   }
+   
+   /**
+    * Row and column sums of a contingency table, skipping the cells fixed to zero.
+    */
+   private static void postMarginals(IntVar[][] binVariables, IntVar[] marginalsH, IntVar[] marginalsV){
+      Solver solver = marginalsH[0].getSolver();
+      
       for(int i = 0; i < marginalsH.length; i++){
-         solver.post(SyatConstraintFactory.sum(binVariables[i], marginalsH[i]));
+         List<IntVar> cells = new ArrayList<IntVar>();
+         for(int j = 0; j < marginalsV.length; j++){
+            if(binVariables[i][j] != null)
+               cells.add(binVariables[i][j]);
+         }
+         if(cells.isEmpty())
+            solver.post(SyatConstraintFactory.arithm(marginalsH[i], "=", 0));
+         else
+            solver.post(SyatConstraintFactory.sum(cells.toArray(new IntVar[cells.size()]), marginalsH[i]));
       }
-
+      
       for(int j = 0; j < marginalsV.length; j++){
-         IntVar[] tempVArray = new IntVar[binVariables[0].length];
+         List<IntVar> cells = new ArrayList<IntVar>();
          for(int i = 0; i < marginalsH.length; i++){
-            tempVArray[i] = binVariables[i][j];
+            if(binVariables[i][j] != null)
+               cells.add(binVariables[i][j]);
+         }
+         if(cells.isEmpty())
+            solver.post(SyatConstraintFactory.arithm(marginalsV[j], "=", 0));
+         else
+            solver.post(SyatConstraintFactory.sum(cells.toArray(new IntVar[cells.size()]), marginalsV[j]));
+      }
+   }
+   
+   /**
+    * Sparse contingency table for integer valued observations: a cell variable is only 
+    * created if the bounds of some pair of observations reach it, and ranges from zero to the 
+    * number of such pairs; other cells are left {@code null}, i.e. fixed to zero.
+    * 
+    * @param name table name
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @return contingency table cell counts
+    */
+   
+   public static IntVar[][] sparseBinVariables(String name,
+                                               IntVar[] observationsA,
+                                               IntVar[] observationsB,
+                                               int[][] binBounds){
+      int[][] reach = new int[2 * observationsA.length][];
+      for(int s = 0; s < observationsA.length; s++){
+         reach[s] = new int[]{PropContingency.bin(binBounds[0], observationsA[s].getLB()), PropContingency.bin(binBounds[0], observationsA[s].getUB())};
+         reach[observationsA.length + s] = new int[]{PropContingency.bin(binBounds[1], observationsB[s].getLB()), PropContingency.bin(binBounds[1], observationsB[s].getUB())};
+      }
+      return sparseBinVariables(name, reach, binBounds[0].length - 1, binBounds[1].length - 1, observationsA[0].getSolver());
+   }
+   
+   /**
+    * Sparse contingency table for real valued observations: a cell variable is only 
+    * created if the bounds of some pair of observations reach it, and ranges from zero to the 
+    * number of such pairs; other cells are left {@code null}, i.e. fixed to zero.
+    * 
+    * @param name table name
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @return contingency table cell counts
+    */
+   
+   public static IntVar[][] sparseBinVariables(String name,
+                                               RealVar[] observationsA,
+                                               RealVar[] observationsB,
+                                               double[][] binBounds){
+      int[][] reach = new int[2 * observationsA.length][];
+      for(int s = 0; s < observationsA.length; s++){
+         reach[s] = new int[]{PropContingencyReal.bin(binBounds[0], observationsA[s].getLB()), PropContingencyReal.bin(binBounds[0], observationsA[s].getUB())};
+         reach[observationsA.length + s] = new int[]{PropContingencyReal.bin(binBounds[1], observationsB[s].getLB()), PropContingencyReal.bin(binBounds[1], observationsB[s].getUB())};
+      }
+      return sparseBinVariables(name, reach, binBounds[0].length - 1, binBounds[1].length - 1, observationsA[0].getSolver());
+   }
+   
+   /**
+    * Creates the cells reached by the rectangles of bins spanned by the pairs of observations.
+    * 
+    * @param reach bin range of each observation, population A observations first
+    * @param rows number of rows
+    * @param columns number of columns
+    */
+   private static IntVar[][] sparseBinVariables(String name, int[][] reach, int rows, int columns, Solver solver){
+      int observations = reach.length / 2;
+      // difference array of the rectangles, then two dimensional prefix sums
+      int[][] pairs = new int[rows + 1][columns + 1];
+      for(int s = 0; s < observations; s++){
+         int fromRow = Math.max(reach[s][0], 0);
+         int toRow = Math.min(reach[s][1], rows - 1);
+         int fromColumn = Math.max(reach[observations + s][0], 0);
+         int toColumn = Math.min(reach[observations + s][1], columns - 1);
+         if(fromRow > toRow || fromColumn > toColumn)
+            continue;
+         pairs[fromRow][fromColumn]++;
+         pairs[fromRow][toColumn + 1]--;
+         pairs[toRow + 1][fromColumn]--;
+         pairs[toRow + 1][toColumn + 1]++;
+      }
+      IntVar[][] binVariables = new IntVar[rows][columns];
+      for(int i = 0; i < rows; i++){
+         for(int j = 0; j < columns; j++){
+            if(i > 0)
+               pairs[i][j] += pairs[i - 1][j];
+            if(j > 0)
+               pairs[i][j] += pairs[i][j - 1];
+            if(i > 0 && j > 0)
+               pairs[i][j] -= pairs[i - 1][j - 1];
+            if(pairs[i][j] > 0)
+               binVariables[i][j] = VariableFactory.bounded(name+" "+(i+1)+","+(j+1), 0, pairs[i][j], solver);
          }
-         solver.post(SyatConstraintFactory.sum(tempVArray, marginalsV[j]));
       }
+      return binVariables;
+   }
+   
+   /**
+    * {@code CONTINGENCY} global propagator, integer valued
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    */
+   
+   public static void contingencyPropagator(IntVar[] observationsA,
+                                            IntVar[] observationsB,
+                                            IntVar[][] binVariables,
+                                            int[][] binBounds,
+                                            IntVar[] marginalsH,
+                                            IntVar[] marginalsV){
+      Solver solver = observationsA[0].getSolver();
+      
+      solver.post(new Constraint("Contingency", new PropContingency(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV)));
+   }
+   
+   /**
+    * {@code CONTINGENCY} global propagator, real valued
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    */
+   
+   public static void contingencyPropagator(RealVar[] observationsA,
+                                            RealVar[] observationsB,
+                                            IntVar[][] binVariables,
+                                            double[][] binBounds,
+                                            IntVar[] marginalsH,
+                                            IntVar[] marginalsV){
+      Solver solver = observationsA[0].getSolver();
+      
+      solver.post(new Constraint("Contingency", new PropContingencyReal(observationsA, observationsB, binVariables, binBounds, marginalsH, marginalsV)));
    }
 }
@@ -0,0 +1,112 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.nary.contingency;
+
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Propagator of the {@code CONTINGENCY} constraint for integer valued observations.
+ * 
+ * @author Roberto Rossi
+ * @see <a href="https://en.wikipedia.org/wiki/Contingency_table">Contingency table</a>
+ */
+
+@SuppressWarnings("serial")
+public class PropContingency extends AbstractPropContingency {
+   
+   private final IntVar[] observationsA;
+   private final IntVar[] observationsB;
+   private final int[][] binBounds;
+   
+   /**
+    * {@code CONTINGENCY} propagator
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    */
+   public PropContingency(IntVar[] observationsA, IntVar[] observationsB, IntVar[][] binVariables, int[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV){
+      super(observationsA, observationsB, binVariables, marginalsH, marginalsV);
+      this.observationsA = observationsA;
+      this.observationsB = observationsB;
+      this.binBounds = new int[][]{binBounds[0].clone(), binBounds[1].clone()};
+   }
+   
+   /**
+    * Index of the bin containing {@code value}.
+    * 
+    * @param bounds breakpoints
+    * @param value a value
+    * @return the bin index, -1 if {@code value} lies below the first breakpoint, the number of bins if it lies above the last one
+    */
+   static int bin(int[] bounds, int value){
+      int lo = 0, hi = bounds.length;
+      while(lo < hi){
+         int mid = (lo + hi) >>> 1;
+         if(bounds[mid] > value)
+            hi = mid;
+         else
+            lo = mid + 1;
+      }
+      return lo - 1;
+   }
+   
+   private IntVar observation(int i){
+      return i < n ? observationsA[i] : observationsB[i - n];
+   }
+   
+   private int[] bounds(int i){
+      return binBounds[i < n ? 0 : 1];
+   }
+   
+   @Override
+   int lowestBin(int i){
+      return bin(bounds(i), observation(i).getLB());
+   }
+   
+   @Override
+   int highestBin(int i){
+      return bin(bounds(i), observation(i).getUB());
+   }
+   
+   @Override
+   boolean restrictToBin(int i, int j) throws ContradictionException {
+      int[] bounds = bounds(i);
+      return observation(i).updateBounds(bounds[j], bounds[j + 1] - 1, this);
+   }
+   
+   @Override
+   boolean removeBin(int i, int j) throws ContradictionException {
+      int[] bounds = bounds(i);
+      return observation(i).removeInterval(bounds[j], bounds[j + 1] - 1, this);
+   }
+}
@@ -0,0 +1,134 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.nary.contingency;
+
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.RealVar;
+
+/**
+ * Propagator of the {@code CONTINGENCY} constraint for real valued observations; observation 
+ * bounds are read and pruned directly, without posting any Ibex constraint. As real bounds are 
+ * closed, the last breakpoint of each population is considered part of its last bin.
+ * 
+ * @author Roberto Rossi
+ * @see <a href="https://en.wikipedia.org/wiki/Contingency_table">Contingency table</a>
+ */
+
+@SuppressWarnings("serial")
+public class PropContingencyReal extends AbstractPropContingency {
+   
+   private final RealVar[] observationsA;
+   private final RealVar[] observationsB;
+   private final double[][] binBounds;
+   
+   /**
+    * {@code CONTINGENCY} propagator
+    * 
+    * @param observationsA population A observations
+    * @param observationsB population B observations
+    * @param binVariables contingency table cell counts; {@code null} cells are fixed to zero
+    * @param binBounds contingency table bin bounds; provide two arrays of 
+    * breakpoints, for populations A and B, respectively
+    * @param marginalsH contingency table row counts sums
+    * @param marginalsV contingency table column counts sums
+    */
+   public PropContingencyReal(RealVar[] observationsA, RealVar[] observationsB, IntVar[][] binVariables, double[][] binBounds, IntVar[] marginalsH, IntVar[] marginalsV){
+      super(observationsA, observationsB, binVariables, marginalsH, marginalsV);
+      this.observationsA = observationsA;
+      this.observationsB = observationsB;
+      this.binBounds = new double[][]{binBounds[0].clone(), binBounds[1].clone()};
+   }
+   
+   /**
+    * Index of the bin containing {@code value}; the last breakpoint belongs to the last bin.
+    * 
+    * @param bounds breakpoints
+    * @param value a value
+    * @return the bin index, -1 if {@code value} lies below the first breakpoint, the number of bins if it lies above the last one
+    */
+   static int bin(double[] bounds, double value){
+      int lo = 0, hi = bounds.length;
+      while(lo < hi){
+         int mid = (lo + hi) >>> 1;
+         if(bounds[mid] > value)
+            hi = mid;
+         else
+            lo = mid + 1;
+      }
+      int k = bounds.length - 1;
+      return lo - 1 == k && value == bounds[k] ? k - 1 : lo - 1;
+   }
+   
+   /**
+    * Largest value falling in bin {@code j} of the given breakpoints.
+    */
+   private static double upperEdge(double[] bounds, int j){
+      return j == bounds.length - 2 ? bounds[j + 1] : Math.nextDown(bounds[j + 1]);
+   }
+   
+   private RealVar observation(int i){
+      return i < n ? observationsA[i] : observationsB[i - n];
+   }
+   
+   private double[] bounds(int i){
+      return binBounds[i < n ? 0 : 1];
+   }
+   
+   @Override
+   int lowestBin(int i){
+      return bin(bounds(i), observation(i).getLB());
+   }
+   
+   @Override
+   int highestBin(int i){
+      return bin(bounds(i), observation(i).getUB());
+   }
+   
+   @Override
+   boolean restrictToBin(int i, int j) throws ContradictionException {
+      RealVar observation = observation(i);
+      double[] bounds = bounds(i);
+      double lb = Math.max(observation.getLB(), bounds[j]);
+      double ub = Math.min(observation.getUB(), upperEdge(bounds, j));
+      if(lb == observation.getLB() && ub == observation.getUB())
+         return false;
+      return observation.updateBounds(lb, ub, this);
+   }
+   
+   @Override
+   boolean removeBin(int i, int j) throws ContradictionException {
+      // only a bin at either end of the observation can be removed from an interval
+      RealVar observation = observation(i);
+      double[] bounds = bounds(i);
+      if(lowestBin(i) == j)
+         return observation.updateLowerBound(Math.nextUp(upperEdge(bounds, j)), this);
+      if(highestBin(i) == j)
+         return observation.updateUpperBound(Math.nextDown(bounds[j]), this);
+      return false;
+   }
+}
@@ -65,6 +65,31 @@ public class ChiSquareFitEmpirical {
                                     RealVar statistic, 
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, observations, binCounts, binBounds, targetFrequencies, statistic, precision, 
+                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
+                                                BincountsDecompositionType.Agkun2016_1);
+   }
+   
+   /**
+    * Chi square goodness-of-fit statistical constraint decomposition for real valued observations.
+    * 
+    * @param name constraint name
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param targetFrequencies target distribution frequencies
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param decompositionType {@code BINCOUNTS} decomposition type
+    */
+   public static void decomposition(String name,
+                                    RealVar[] observations, 
+                                    IntVar[] binCounts, 
+                                    double[] binBounds, 
+                                    IntVar[] targetFrequencies,
+                                    RealVar statistic, 
+                                    double precision,
+                                    BincountsDecompositionType decompositionType){
       
       Solver solver = statistic.getSolver();
 
@@ -75,8 +100,7 @@ public class ChiSquareFitEmpirical {
                                                    binCounts, 
                                                    binBounds, 
                                                    precision, 
-                                                   allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
-                                                                               BincountsDecompositionType.Agkun2016_1);
+                                                   decompositionType);
 
       RealVar[] realBinCounts = VF.real(binCounts, precision);
       RealVar[] realTargetFrequencies = VF.real(targetFrequencies, precision);
@@ -115,6 +139,31 @@ public class ChiSquareFitEmpirical {
                                     RealVar statistic, 
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, observations, binCounts, binBounds, targetFrequencies, statistic, precision, 
+                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
+                                                BincountsDecompositionType.Agkun2016_1);
+   }
+   
+   /**
+    * Chi square goodness-of-fit statistical constraint decomposition for integer valued observations.
+    * 
+    * @param name constraint name
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param targetFrequencies target distribution frequencies
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param decompositionType {@code BINCOUNTS} decomposition type
+    */
+   public static void decomposition(String name,
+                                    IntVar[] observations, 
+                                    IntVar[] binCounts, 
+                                    int[] binBounds, 
+                                    IntVar[] targetFrequencies,
+                                    RealVar statistic, 
+                                    double precision,
+                                    BincountsDecompositionType decompositionType){
       
       Solver solver = statistic.getSolver();
 
@@ -123,8 +172,7 @@ public class ChiSquareFitEmpirical {
       SyatConstraintFactory.bincountsDecomposition(observations, 
                                                    binCounts, 
                                                    binBounds, 
-                                                   allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
-                                                                               BincountsDecompositionType.Agkun2016_1);
+                                                   decompositionType);
 
       RealVar[] realBinCounts = VF.real(binCounts, precision);
       RealVar[] realTargetFrequencies = VF.real(targetFrequencies, precision);
@@ -72,6 +72,34 @@ public class ChiSquareFitNormal {
                                     RealVar statistic, 
                                     double precision,
                                     boolean allowOutOfBinObservations) {
+      decomposition(name, observations, binCounts, binBounds, meanVariable, stdVariable, statistic, precision, 
+                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
+                                                BincountsDecompositionType.Agkun2016_2_EQ);
+   }
+   
+   /**
+    * Chi square goodness-of-fit statistical constraint decomposition; 
+    * normal distribution with real valued observations. 
+    * 
+    * @param name constraint name
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param meanVariable normal distribution mean
+    * @param stdVariable normal distribution standard deviation
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param decompositionType {@code BINCOUNTS} decomposition type
+    */
+   public static void decomposition(String name, 
+                                    RealVar[] observations, 
+                                    IntVar[] binCounts, 
+                                    double[] binBounds,
+                                    RealVar meanVariable, 
+                                    RealVar stdVariable, 
+                                    RealVar statistic, 
+                                    double precision,
+                                    BincountsDecompositionType decompositionType){
       Solver solver = statistic.getSolver();
 
       //RealVar[] realBinViews = VF.real(binCounts, precision);
@@ -80,8 +108,7 @@ public class ChiSquareFitNormal {
                                                     binCounts, 
                                                     binBounds, 
                                                     precision, 
-                                                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
-                                                                                BincountsDecompositionType.Agkun2016_2_EQ);
+                                                    decompositionType);
 
       RealVar[] realBinCounts = VF.real(binCounts, precision);
 
@@ -71,6 +71,32 @@ public class ChiSquareFitPoisson {
                                     RealVar statistic, 
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, observations, binCounts, binBounds, lambda, statistic, precision, 
+                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
+                                                BincountsDecompositionType.Agkun2016_2_EQ);
+   }
+   
+   /**
+    * Chi square goodness-of-fit statistical constraint decomposition;
+    * Poisson distribution with real valued observations. 
+    * 
+    * @param name constraint name
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param lambda Poisson mean
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param decompositionType {@code BINCOUNTS} decomposition type
+    */
+   public static void decomposition(String name,
+                                    RealVar[] observations, 
+                                    IntVar[] binCounts, 
+                                    double[] binBounds, 
+                                    RealVar lambda, 
+                                    RealVar statistic, 
+                                    double precision,
+                                    BincountsDecompositionType decompositionType){
       Solver solver = statistic.getSolver();
 
       //RealVar[] realBinViews = VF.real(binCounts, precision);
@@ -79,8 +105,7 @@ public class ChiSquareFitPoisson {
                                                     binCounts, 
                                                     binBounds, 
                                                     precision, 
-                                                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
-                                                                                BincountsDecompositionType.Agkun2016_2_EQ);
+                                                    decompositionType);
 
       RealVar[] realBinCounts = VF.real(binCounts, precision);
 
@@ -131,14 +156,38 @@ public class ChiSquareFitPoisson {
                                     RealVar statistic, 
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, observations, binCounts, binBounds, lambda, statistic, precision, 
+                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
+                                                BincountsDecompositionType.Agkun2016_2_EQ);
+   }
+   
+   /**
+    * This decomposition exploits Stirling's approximation to the factorial
+    * 
+    * @param name constraint name
+    * @param observations observations
+    * @param binCounts bin counts
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param lambda Poisson mean
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param decompositionType {@code BINCOUNTS} decomposition type
+    */
+   public static void decomposition(String name,
+                                    IntVar[] observations, 
+                                    IntVar[] binCounts, 
+                                    int[] binBounds, 
+                                    RealVar lambda, 
+                                    RealVar statistic, 
+                                    double precision,
+                                    BincountsDecompositionType decompositionType){
       Solver solver = statistic.getSolver();
       
       //solver.post(IntConstraintFactorySt.bincounts(observations, binCounts, binBounds, BincountsPropagatorType.EQFast));
       SyatConstraintFactory.bincountsDecomposition(observations, 
                                                     binCounts, 
                                                     binBounds, 
-                                                    allowOutOfBinObservations ? BincountsDecompositionType.Agkun2016_2_LE :
-                                                                                BincountsDecompositionType.Agkun2016_2_EQ);
+                                                    decompositionType);
       
       RealVar[] realBinCounts = VF.real(binCounts, precision);
       
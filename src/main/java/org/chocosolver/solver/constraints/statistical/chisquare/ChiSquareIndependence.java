@@ -28,6 +28,7 @@ package org.chocosolver.solver.constraints.statistical.chisquare;
 
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.SyatConstraintFactory;
+import org.chocosolver.solver.constraints.nary.contingency.ContingencyDecompositionType;
 import org.chocosolver.solver.constraints.nary.contingency.ContingencyDecompositions;
 import org.chocosolver.solver.constraints.real.Ibex;
 import org.chocosolver.solver.constraints.real.RealConstraint;
@@ -63,12 +64,62 @@ public class ChiSquareIndependence {
                                     RealVar statistic,
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, seriesA, seriesB, binBounds, statistic, precision, allowOutOfBinObservations, false);
+   }
+   
+   /**
+    * Chi squared test of independence statistical constraint decomposition for integer valued observations.
+    * 
+    * @param name constraint name
+    * @param seriesA population A observations
+    * @param seriesB population B observations
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param allowOutOfBinObservations allow observations to fall outside bin bounds
+    * @param sparse only create the contingency table cells that some pair of observations can reach
+    */
+   public static void decomposition(String name,
+                                    IntVar[] seriesA,
+                                    IntVar[] seriesB,
+                                    int[][] binBounds,
+                                    RealVar statistic,
+                                    double precision,
+                                    boolean allowOutOfBinObservations,
+                                    boolean sparse){
+      decomposition(name, seriesA, seriesB, binBounds, statistic, precision, allowOutOfBinObservations, sparse, ContingencyDecompositionType.Decomposition);
+   }
+   
+   /**
+    * Chi squared test of independence statistical constraint decomposition for integer valued observations.
+    * 
+    * @param name constraint name
+    * @param seriesA population A observations
+    * @param seriesB population B observations
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param allowOutOfBinObservations allow observations to fall outside bin bounds
+    * @param sparse only create the contingency table cells that some pair of observations can reach
+    * @param decompositionType contingency table decomposition or native propagator
+    */
+   public static void decomposition(String name,
+                                    IntVar[] seriesA,
+                                    IntVar[] seriesB,
+                                    int[][] binBounds,
+                                    RealVar statistic,
+                                    double precision,
+                                    boolean allowOutOfBinObservations,
+                                    boolean sparse,
+                                    ContingencyDecompositionType decompositionType){
       
       Solver solver = statistic.getSolver();
       
       int observations = seriesA.length;
 
-      IntVar[][] binVariables = VariableFactory.boundedMatrix("BinMatrix", binBounds[0].length - 1, binBounds[1].length - 1, 0, observations, solver);
+      IntVar[][] binVariables = sparse ? 
+            ContingencyDecompositions.sparseBinVariables(name+"_Bin", seriesA, seriesB, binBounds) :
+            VariableFactory.boundedMatrix("BinMatrix", binBounds[0].length - 1, binBounds[1].length - 1, 0, observations, solver);
       
       /*      new IntVar[binBounds[0].length - 1][binBounds[1].length - 1];
       for(int i = 0; i < binVariables.length; i++){
@@ -81,40 +132,9 @@ public class ChiSquareIndependence {
       
       IntVar[] marginalsV = VariableFactory.boundedArray(name+"_Marginals V", binVariables[0].length, 0, observations, solver);
       
-      ContingencyDecompositions.decompose(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
-      
-      IntVar[] flattenedBins = new IntVar[binVariables.length*binVariables[0].length];
-      for(int i = 0; i < binVariables.length; i++){
-         for(int j = 0; j < binVariables[0].length; j++){
-            flattenedBins[binVariables[0].length*i + j] = binVariables[i][j]; 
-         }
-      }
+      SyatConstraintFactory.contingencyDecomposition(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV, decompositionType);
       
-      if(!allowOutOfBinObservations){
-         IntVar totalCount = VariableFactory.fixed(name+"_total count", observations, solver);
-         solver.post(SyatConstraintFactory.sum(flattenedBins, totalCount));
-      }
-
-      String chiSqExp = "";
-      for(int i = 0; i < binVariables.length; i++){
-         for(int j = 0; j < binVariables[0].length; j++){
-            int n = binVariables.length*binVariables[0].length;
-            String expected = "({"+(n+i)+"}*{"+(n+binVariables.length+j)+"}/"+observations+")";
-            chiSqExp += "({"+(binVariables[0].length*i + j)+"}-"+expected+")^2/"+expected;
-            if(i != binVariables.length - 1 || j != binVariables[0].length - 1) 
-               chiSqExp += "+";
-            else
-               chiSqExp += "={"+(n+binVariables.length+binVariables[0].length)+"}";
-         }
-      }
-
-      RealVar[] allRealVariables = new RealVar[flattenedBins.length + binVariables.length + binVariables[0].length + 1];
-      System.arraycopy(VF.real(flattenedBins, precision), 0, allRealVariables, 0, flattenedBins.length);
-      System.arraycopy(VF.real(marginalsH, precision), 0, allRealVariables, flattenedBins.length, marginalsH.length);
-      System.arraycopy(VF.real(marginalsV, precision), 0, allRealVariables, flattenedBins.length + marginalsH.length, marginalsV.length);
-      allRealVariables[flattenedBins.length + binVariables.length + binVariables[0].length] = statistic;
-
-      solver.post(new RealConstraint(name, chiSqExp, Ibex.HC4_NEWTON, allRealVariables));
+      postStatistic(name, binVariables, marginalsH, marginalsV, observations, statistic, precision, allowOutOfBinObservations);
    }
    
    /**
@@ -135,12 +155,62 @@ public class ChiSquareIndependence {
                                     RealVar statistic,
                                     double precision,
                                     boolean allowOutOfBinObservations){
+      decomposition(name, seriesA, seriesB, binBounds, statistic, precision, allowOutOfBinObservations, false);
+   }
+   
+   /**
+    * Chi squared test of independence statistical constraint decomposition for real valued observations.
+    * 
+    * @param name constraint name
+    * @param seriesA population A observations
+    * @param seriesB population B observations
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param allowOutOfBinObservations allow observations to fall outside bin bounds
+    * @param sparse only create the contingency table cells that some pair of observations can reach
+    */
+   public static void decomposition(String name,
+                                    RealVar[] seriesA,
+                                    RealVar[] seriesB,
+                                    double[][] binBounds,
+                                    RealVar statistic,
+                                    double precision,
+                                    boolean allowOutOfBinObservations,
+                                    boolean sparse){
+      decomposition(name, seriesA, seriesB, binBounds, statistic, precision, allowOutOfBinObservations, sparse, ContingencyDecompositionType.Decomposition);
+   }
+   
+   /**
+    * Chi squared test of independence statistical constraint decomposition for real valued observations.
+    * 
+    * @param name constraint name
+    * @param seriesA population A observations
+    * @param seriesB population B observations
+    * @param binBounds bin bounds expressed as a list of breakpoints
+    * @param statistic chi squared statistic
+    * @param precision Ibex precision
+    * @param allowOutOfBinObservations allow observations to fall outside bin bounds
+    * @param sparse only create the contingency table cells that some pair of observations can reach
+    * @param decompositionType contingency table decomposition or native propagator
+    */
+   public static void decomposition(String name,
+                                    RealVar[] seriesA,
+                                    RealVar[] seriesB,
+                                    double[][] binBounds,
+                                    RealVar statistic,
+                                    double precision,
+                                    boolean allowOutOfBinObservations,
+                                    boolean sparse,
+                                    ContingencyDecompositionType decompositionType){
       
       Solver solver = statistic.getSolver();
 
       int observations = seriesA.length;
 
-      IntVar[][] binVariables = VariableFactory.boundedMatrix("BinMatrix", binBounds[0].length - 1, binBounds[1].length - 1, 0, observations, solver);
+      IntVar[][] binVariables = sparse ? 
+            ContingencyDecompositions.sparseBinVariables(name+"_Bin", seriesA, seriesB, binBounds) :
+            VariableFactory.boundedMatrix("BinMatrix", binBounds[0].length - 1, binBounds[1].length - 1, 0, observations, solver);
             /*new IntVar[binBounds[0].length - 1][binBounds[1].length - 1];
       for(int i = 0; i < binVariables.length; i++){
          for(int j = 0; j < binVariables[0].length; j++){
@@ -152,26 +222,58 @@ public class ChiSquareIndependence {
 
       IntVar[] marginalsV = VariableFactory.boundedArray(name+"_Marginals V", binVariables[0].length, 0, observations, solver);
 
-      ContingencyDecompositions.decompose(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+      SyatConstraintFactory.contingencyDecomposition(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV, decompositionType);
 
-      IntVar[] flattenedBins = new IntVar[binVariables.length*binVariables[0].length];
+      postStatistic(name, binVariables, marginalsH, marginalsV, observations, statistic, precision, allowOutOfBinObservations);
+   }
+   
+   /**
+    * Chi squared statistic of a contingency table; a {@code null} cell is fixed to zero and 
+    * contributes its expected count to the statistic.
+    */
+   private static void postStatistic(String name,
+                                     IntVar[][] binVariables,
+                                     IntVar[] marginalsH,
+                                     IntVar[] marginalsV,
+                                     int observations,
+                                     RealVar statistic,
+                                     double precision,
+                                     boolean allowOutOfBinObservations){
+      
+      Solver solver = statistic.getSolver();
+      
+      int cells = 0;
       for(int i = 0; i < binVariables.length; i++){
          for(int j = 0; j < binVariables[0].length; j++){
-            flattenedBins[binVariables[0].length*i + j] = binVariables[i][j]; 
+            if(binVariables[i][j] != null)
+               cells++;
          }
       }
-
+      
+      IntVar[] flattenedBins = new IntVar[cells];
+      cells = 0;
+      for(int i = 0; i < binVariables.length; i++){
+         for(int j = 0; j < binVariables[0].length; j++){
+            if(binVariables[i][j] != null)
+               flattenedBins[cells++] = binVariables[i][j]; 
+         }
+      }
+      
       if(!allowOutOfBinObservations){
          IntVar totalCount = VariableFactory.fixed(name+"_total count", observations, solver);
          solver.post(SyatConstraintFactory.sum(flattenedBins, totalCount));
       }
 
       String chiSqExp = "";
+      int n = flattenedBins.length;
+      int cell = 0;
       for(int i = 0; i < binVariables.length; i++){
          for(int j = 0; j < binVariables[0].length; j++){
-            int n = binVariables.length*binVariables[0].length;
             String expected = "({"+(n+i)+"}*{"+(n+binVariables.length+j)+"}/"+observations+")";
-            chiSqExp += "({"+(binVariables[0].length*i + j)+"}-"+expected+")^2/"+expected;
+            if(binVariables[i][j] != null)
+               chiSqExp += "({"+(cell++)+"}-"+expected+")^2/"+expected;
+            else
+               chiSqExp += expected;
             if(i != binVariables.length - 1 || j != binVariables[0].length - 1) 
                chiSqExp += "+";
             else
@@ -179,14 +281,10 @@ public class ChiSquareIndependence {
          }
       }
 
-      RealVar[] flattenedBinsReal = VariableFactory.real(flattenedBins, precision);
-      RealVar[] marginalsHReal = VariableFactory.real(marginalsH, precision);
-      RealVar[] marginalsVReal = VariableFactory.real(marginalsV, precision);
-      
       RealVar[] allRealVariables = new RealVar[flattenedBins.length + binVariables.length + binVariables[0].length + 1];
-      System.arraycopy(flattenedBinsReal, 0, allRealVariables, 0, flattenedBins.length);
-      System.arraycopy(marginalsHReal, 0, allRealVariables, flattenedBins.length, marginalsH.length);
-      System.arraycopy(marginalsVReal, 0, allRealVariables, flattenedBins.length + marginalsH.length, marginalsV.length);
+      System.arraycopy(VF.real(flattenedBins, precision), 0, allRealVariables, 0, flattenedBins.length);
+      System.arraycopy(VF.real(marginalsH, precision), 0, allRealVariables, flattenedBins.length, marginalsH.length);
+      System.arraycopy(VF.real(marginalsV, precision), 0, allRealVariables, flattenedBins.length + marginalsH.length, marginalsV.length);
       allRealVariables[flattenedBins.length + binVariables.length + binVariables[0].length] = statistic;
 
       solver.post(new RealConstraint(name, chiSqExp, Ibex.HC4_NEWTON, allRealVariables));
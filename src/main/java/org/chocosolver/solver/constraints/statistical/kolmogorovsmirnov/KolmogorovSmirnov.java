@@ -31,9 +31,12 @@ import org.chocosolver.solver.constraints.Operator;
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
+import org.syat.statistics.KolmogorovSmirnovTest;
+import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
 
 import umontreal.iro.lecuyer.probdist.Distribution;
 
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.CachedDistributionVar;
 import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionVar;
 
 /**
@@ -55,17 +58,48 @@ public class KolmogorovSmirnov extends Constraint {
         return operator.equals(Operator.PL) || operator.equals(Operator.MN);
     }
     
+    /* largest number of cdf values cached per constraint, 8 MiB */
+    static final int CDF_CACHE_BUDGET = 1 << 20;
+    /* largest number of support points over which the cdf is cached */
+    static final int CDF_CACHE_POINTS = 1 << 16;
+    
+    /**
+     * Wraps {@code dist} in a cache of its cdf over the values observations and parameters may take, 
+     * unless they span too many values. The cache holds as many parameter vectors as fit in 
+     * {@code CDF_CACHE_BUDGET} values, and at least one.
+     */
+    static DistributionVar cache(IntVar[] observations, DistributionVar dist) {
+    	int min = Integer.MAX_VALUE;
+    	int max = Integer.MIN_VALUE;
+    	for(IntVar var : observations){
+    		min = Math.min(min, var.getLB());
+    		max = Math.max(max, var.getUB());
+    	}
+    	for(IntVar var : dist.getVarParatemers()){
+    		min = Math.min(min, var.getLB());
+    		max = Math.max(max, var.getUB());
+    	}
+    	if((long)max - min + 1 > CDF_CACHE_POINTS)
+    		return dist;
+    	int capacity = Math.max(1, CDF_CACHE_BUDGET / (max - min + 1));
+    	return new CachedDistributionVar(dist, min, max, capacity);
+    }
+    
     @SuppressWarnings("unchecked")
    private static Propagator<IntVar>[] createProp(IntVar[] observations, DistributionVar dist, Operator op, double confidence) {
+    	// distribution parameters are propagated together with the observations
+    	int n = observations.length + dist.getNumberOfVarParameters();
+    	dist = cache(observations, dist);
     	switch (op) {
 			case EQ: // X = Y
-				return new Propagator[]{new PropGreaterOrEqualX_DStDist(observations, dist, 1-(1-confidence)/2.0), new PropLessOrEqualX_DStDist(observations, dist, 1-(1-confidence)/2.0)};
+				double criticalValue = KolmogorovSmirnovTest.criticalValueSingleTailed(n, 1-(1-confidence)/2.0);
+				return new Propagator[]{new PropGreaterOrEqualX_DStDist(observations, dist, criticalValue), new PropLessOrEqualX_DStDist(observations, dist, criticalValue)};
 			case NQ: // X =/= Y
-				return new Propagator[]{new PropNotEqualX_DStDist(observations, dist, 1-(1-confidence)/2.0)};
+				return new Propagator[]{new PropNotEqualX_DStDist(observations, dist, KolmogorovSmirnovTest.criticalValueSingleTailed(n, 1-(1-confidence)/2.0))};
 	    	case GE: //  X >= Y
-	    		return new Propagator[]{new PropGreaterOrEqualX_DStDist(observations, dist, confidence)};
+	    		return new Propagator[]{new PropGreaterOrEqualX_DStDist(observations, dist, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
 	    	case LE: //  X <= Y --> Y >= X
-	    		return new Propagator[]{new PropLessOrEqualX_DStDist(observations, dist, confidence)};
+	    		return new Propagator[]{new PropLessOrEqualX_DStDist(observations, dist, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
 	    	default:
 	            throw new SolverException("Incorrect formula; operator should be one of those:{=, !=, >=, >, <=, <}");    
     	}
@@ -90,21 +124,21 @@ public class KolmogorovSmirnov extends Constraint {
     
     @SuppressWarnings("unchecked")
    private static Propagator<IntVar>[] createProp(IntVar[] observations, Distribution distribution, Operator op, double confidence) {
+    	int n = observations.length;
     	switch (op) {
 	        case EQ: // X = Y
-	        	return new Propagator[]{new PropGreaterOrEqualXCStDist(observations, distribution, 1-(1-confidence)/2.0), new PropLessOrEqualXCStDist(observations, distribution, 1-(1-confidence)/2.0)};
+	        	double criticalValue = KolmogorovSmirnovTest.criticalValueSingleTailed(n, 1-(1-confidence)/2.0);
+	        	return new Propagator[]{new PropGreaterOrEqualXCStDist(observations, distribution, criticalValue), new PropLessOrEqualXCStDist(observations, distribution, criticalValue)};
 	        case NQ: // X =/= Y
-	        	return new Propagator[]{new PropNotEqualXCStDist(observations, distribution, 1-(1-confidence)/2.0)};
+	        	return new Propagator[]{new PropNotEqualXCStDist(observations, distribution, KolmogorovSmirnovTest.criticalValueSingleTailed(n, 1-(1-confidence)/2.0))};
 	        case GE: //  X >= Y
-	        	return new Propagator[]{new PropGreaterOrEqualXCStDist(observations, distribution, confidence)};
-	        case GT: //  X > Y --> X >= Y + 1
-	        	throw new NullPointerException("Not implemented");
-	            //return new Propagator[]{new PropGreaterOrEqualXCStDist(var1, dist, confidence)};
+	        	return new Propagator[]{new PropGreaterOrEqualXCStDist(observations, distribution, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
+	        case GT: //  X > Y --> X >= Y and not X <= Y
+	        	return new Propagator[]{new PropGreaterXCStDist(observations, distribution, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
 	        case LE: //  X <= Y --> Y >= X
-	        	return new Propagator[]{new PropLessOrEqualXCStDist(observations, distribution, confidence)};
-	        case LT: //  X < Y --> Y >= X + 1
-	        	throw new NullPointerException("Not implemented");
-	            //return new Propagator[]{new PropGreaterOrEqualXCStDist(new IntVar[]{var2, var1}, 1)};
+	        	return new Propagator[]{new PropLessOrEqualXCStDist(observations, distribution, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
+	        case LT: //  X < Y --> X <= Y and not X >= Y
+	        	return new Propagator[]{new PropLessXCStDist(observations, distribution, KolmogorovSmirnovTest.criticalValueSingleTailed(n, confidence))};
 	        default:
 	            throw new SolverException("Undefined operator: {=, !=, >=, >, <=, <}");
 	    }
@@ -136,23 +170,22 @@ public class KolmogorovSmirnov extends Constraint {
     
     @SuppressWarnings("unchecked")
     private static Propagator<IntVar>[] createProp(IntVar[] observations1, IntVar[] observations2, Operator op, double confidence) {
+       int n1 = observations1.length;
+       int n2 = observations2.length;
        switch (op) {
        case EQ: // X = Y
-          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations1, observations2, 1-(1-confidence)/2.0),new PropGreaterOrEqualX_YStDist(observations2, observations1, 1-(1-confidence)/2.0)};
+          double criticalValue = KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, 1-(1-confidence)/2.0);
+          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations1, observations2, criticalValue),new PropGreaterOrEqualX_YStDist(observations2, observations1, criticalValue)};
        case NQ: // X =/= Y
-          return new Propagator[]{new PropNotEqualX_YStDist(observations1, observations2, 1-(1-confidence)/2.0)};
+          return new Propagator[]{new PropNotEqualX_YStDist(observations1, observations2, KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, 1-(1-confidence)/2.0))};
        case GE: //  X >= Y
-          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations1, observations2, confidence)};
-       case GT: //  X > Y --> X >= Y + 1
-          throw new NullPointerException("Not implemented");
-          //setPropagators(new PropGreaterOrEqualX_YC(vars, 1));
-          //break;
+          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations1, observations2, KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, confidence))};
+       case GT: //  X > Y --> X >= Y and not Y >= X
+          return new Propagator[]{new PropGreaterX_YStDist(observations1, observations2, KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, confidence))};
        case LE: //  X <= Y --> Y >= X
-          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations2, observations1, confidence)};
-       case LT: //  X < Y --> Y >= X + 1
-          throw new NullPointerException("Not implemented");
-          //setPropagators(new PropGreaterOrEqualX_YC(new IntVar[]{var2, var1}, 1));
-          //break;
+          return new Propagator[]{new PropGreaterOrEqualX_YStDist(observations2, observations1, KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, confidence))};
+       case LT: //  X < Y --> Y > X
+          return new Propagator[]{new PropGreaterX_YStDist(observations2, observations1, KolmogorovSmirnovTestTwoSamples.criticalValueSingleTailed(n1, n2, confidence))};
        default:
           throw new SolverException("Incorrect formula; operator should be one of those:{=, !=, >=, >, <=, <}");
        }
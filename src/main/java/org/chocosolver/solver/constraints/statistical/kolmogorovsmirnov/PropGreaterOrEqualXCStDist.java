@@ -31,25 +31,33 @@ import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
-import org.syat.statistics.KolmogorovSmirnovTest;
 
 import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
 import umontreal.iro.lecuyer.probdist.Distribution;
-import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 
 @SuppressWarnings("serial")
 class PropGreaterOrEqualXCStDist extends Propagator<IntVar> {
 
     private final Distribution dist;
-    private final double confidence;
+    private final SortedBounds upperBounds;
+    /* smallest value an upper bound moved to since the last filtering */
+    private int lowest = Integer.MAX_VALUE;
 
-    public PropGreaterOrEqualXCStDist(IntVar[] var, Distribution dist, double confidence) {
+    public PropGreaterOrEqualXCStDist(IntVar[] var, Distribution dist, double criticalValue) {
         super(var, PropagatorPriority.UNARY, true);
         if(!(dist instanceof ContinuousDistribution)) 
 			throw new SolverException("Theoretical distribution should not be discrete");
         this.dist = dist;
-        this.confidence = confidence;
+        this.upperBounds = SortedBounds.ofUpperBounds(solver.getEnvironment(), var);
+        this.upperBounds.setDistribution(dist, criticalValue);
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.INSTANTIATE.getMask() + IntEventType.DECUPP.getMask();
     }
 
     @Override
@@ -59,35 +67,34 @@ class PropGreaterOrEqualXCStDist extends Propagator<IntVar> {
             this.setPassive();
         }*/
         
-    	//int counter = 0;
-        for(int i = 0; i < vars.length; i++){
-        	double[] samples = new double[vars.length];
-        	IntVar pivotVar = vars[i];
-        	int k = 0;
-        	samples[k++] = pivotVar.getLB();
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samples[k++] = vars[j].getUB();
+        if(PropagatorEventType.isFullPropagation(evtmask)){
+        	for(int i = 0; i < vars.length; i++){
+        		upperBounds.set(i, vars[i].getUB());
         	}
-        	EmpiricalDist emp = new EmpiricalDist(samples);
-			KolmogorovSmirnovTest ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			while(!ksTest.testE1GeqD1()){
-				pivotVar.updateLowerBound(pivotVar.getLB()+1, this);
-				//counter++;
-				samples[0] = pivotVar.getLB();
-				emp = new EmpiricalDist(samples);
-				ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			}
+        	lowest = Integer.MIN_VALUE;
+        }
+        
+        if(!upperBounds.isSatisfied())
+        	fails();
+        
+        for(int i = 0; i < vars.length; i++){
+        	// supports only depend on smaller upper bounds
+        	if(upperBounds.get(i) > lowest)
+        		vars[i].updateLowerBound(upperBounds.smallestSupportedValue(i), this);
         }
-        //if(counter > 0)
-        	//LoggerFactory.getLogger("bench").info("Pruned (GE): "+counter);
+        lowest = Integer.MAX_VALUE;
     }
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        propagate(0);
+        int bound = vars[idxVarInProp].getUB();
+        if(bound != upperBounds.get(idxVarInProp)){
+        	upperBounds.set(idxVarInProp, bound);
+        	lowest = Math.min(lowest, bound);
+        }
+        // the engine only runs the filtering requested on the last pending event
+        if(lowest != Integer.MAX_VALUE)
+        	forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -107,4 +114,3 @@ class PropGreaterOrEqualXCStDist extends Propagator<IntVar> {
         return vars[0].getName() + " <= " + dist.toString();
     }
 }
-
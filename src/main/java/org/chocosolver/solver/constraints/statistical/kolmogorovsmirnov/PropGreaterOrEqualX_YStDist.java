@@ -32,17 +32,22 @@ import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
 
-import umontreal.iro.lecuyer.probdist.EmpiricalDist;
-
 @SuppressWarnings("serial")
 class PropGreaterOrEqualX_YStDist extends Propagator<IntVar> {
 
     final IntVar[] x;
     final IntVar[] y;
-    final double confidence;
+    final double criticalValue;
+    
+    /* sorted bounds, and samples where the bound of the pivot observation is replaced */
+    private final double[] boundsX;
+    private final double[] boundsY;
+    private final double[] samplesX;
+    private final double[] samplesY;
 
     private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
     	IntVar[] var3 = new IntVar[var1.length+var2.length];
@@ -51,13 +56,17 @@ class PropGreaterOrEqualX_YStDist extends Propagator<IntVar> {
     	return var3;
     }
     
-    public PropGreaterOrEqualX_YStDist(IntVar[] var1, IntVar[] var2, double confidence) {
+    public PropGreaterOrEqualX_YStDist(IntVar[] var1, IntVar[] var2, double criticalValue) {
         super(mergeArrays(var1, var2), PropagatorPriority.BINARY, true);
         if(var1.length == 1 || var2.length == 1)
         	throw new SolverException("Cannot propagate statistically on single observations");
         this.x = var1;
         this.y = var2;
-        this.confidence = confidence;
+        this.criticalValue = criticalValue;
+        this.boundsX = new double[var1.length];
+        this.boundsY = new double[var2.length];
+        this.samplesX = new double[var1.length];
+        this.samplesY = new double[var2.length];
     }
 
     @Override
@@ -75,66 +84,79 @@ class PropGreaterOrEqualX_YStDist extends Propagator<IntVar> {
     }
     
     private void propagateTwoSampleKSTestDist(int evtmask) throws ContradictionException {
+    	SortedSamples.sortBounds(this.x, true, this.boundsX);
+    	SortedSamples.sortBounds(this.y, false, this.boundsY);
+    	int free = -1;
+    	int nbFree = 0;
+    	for(int i = 0; i < vars.length; i++){
+    		if(!vars[i].isInstantiated()){
+    			free = i;
+    			nbFree++;
+    		}
+    	}
+    	
     	for(int i = 0; i < this.x.length; i++){
-        	double[] samplesX = new double[this.x.length];
         	IntVar pivotVar = this.x[i];
-        	int k = 0;
-        	samplesX[k++] = pivotVar.getLB();
-        	for(int j = 0; j < this.x.length; j++){
-        		if(j==i) 
-        			continue;
+        	int bound = pivotVar.getUB();
+        	// the statistic is not monotone in the observations, its lower bound is
+        	int low = pivotVar.getLB();
+        	int high = bound + 1;
+        	while(low < high){
+        		int mid = low + (high - low)/2;
+        		SortedSamples.replace(this.boundsX, bound, mid, this.samplesX);
+        		if(SortedSamples.lowerStatisticE1GeqE2(this.samplesX, this.boundsY) < this.criticalValue)
+        			high = mid;
         		else
-        			samplesX[k++] = this.x[j].getUB();
+        			low = mid + 1;
         	}
-        	EmpiricalDist empX = new EmpiricalDist(samplesX);
-        	
-        	double[] samplesY = new double[this.y.length];
-        	for(int j = 0; j < this.y.length; j++){
-        		samplesY[j] = this.y[j].getLB();
+        	// values below low are rejected; the exact statistic only decides once the other observations are fixed
+        	int value = low > bound ? low : pivotVar.nextValue(low - 1);
+        	while(value <= bound && (nbFree == 0 || nbFree == 1 && free == i)){
+        		SortedSamples.replace(this.boundsX, bound, value, this.samplesX);
+        		if(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(this.samplesX, this.boundsY) < this.criticalValue)
+        			break;
+        		value = pivotVar.nextValue(value);
         	}
-        	EmpiricalDist empY = new EmpiricalDist(samplesY);
-        	
-			KolmogorovSmirnovTestTwoSamples ksTest = new KolmogorovSmirnovTestTwoSamples(empX, empY, this.confidence);
-			while(!ksTest.testE1GeqE2()){
-				pivotVar.updateLowerBound(pivotVar.getLB()+1, this);
-				samplesX[0] = pivotVar.getLB();
-				empX = new EmpiricalDist(samplesX);
-				ksTest = new KolmogorovSmirnovTestTwoSamples(empX, empY, this.confidence);
-			}
+        	pivotVar.updateLowerBound(value, this);
         }
     	
     	for(int i = 0; i < this.y.length; i++){
-        	double[] samplesY = new double[this.y.length];
         	IntVar pivotVar = this.y[i];
-        	int k = 0;
-        	samplesY[k++] = pivotVar.getUB();
-        	for(int j = 0; j < this.y.length; j++){
-        		if(j==i) 
-        			continue;
+        	int bound = pivotVar.getLB();
+        	int low = bound - 1;
+        	int high = pivotVar.getUB();
+        	while(low < high){
+        		int mid = high - (high - low)/2;
+        		SortedSamples.replace(this.boundsY, bound, mid, this.samplesY);
+        		if(SortedSamples.lowerStatisticE1GeqE2(this.boundsX, this.samplesY) < this.criticalValue)
+        			low = mid;
         		else
-        			samplesY[k++] = this.y[j].getLB();
+        			high = mid - 1;
         	}
-        	EmpiricalDist empY = new EmpiricalDist(samplesY);
-        	
-        	double[] samplesX = new double[this.x.length];
-        	for(int j = 0; j < this.x.length; j++){
-        		samplesX[j] = this.x[j].getUB();
+        	// values above high are rejected; the exact statistic only decides once the other observations are fixed
+        	int value = high < bound ? high : pivotVar.previousValue(high + 1);
+        	while(value >= bound && (nbFree == 0 || nbFree == 1 && free == this.x.length + i)){
+        		SortedSamples.replace(this.boundsY, bound, value, this.samplesY);
+        		if(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(this.boundsX, this.samplesY) < this.criticalValue)
+        			break;
+        		value = pivotVar.previousValue(value);
         	}
-        	EmpiricalDist empX = new EmpiricalDist(samplesX);
-        	
-        	KolmogorovSmirnovTestTwoSamples ksTest = new KolmogorovSmirnovTestTwoSamples(empX, empY, this.confidence);
-			while(!ksTest.testE1GeqE2()){
-				pivotVar.updateUpperBound(pivotVar.getUB()-1, this);
-				samplesY[0] = pivotVar.getUB();
-				empY = new EmpiricalDist(samplesY);
-				ksTest = new KolmogorovSmirnovTestTwoSamples(empX, empY, this.confidence);
-			}
+        	pivotVar.updateUpperBound(value, this);
         }
+    	
+    	// this propagator is not notified of the instantiations it causes
+    	if(isCompletelyInstantiated()){
+    		SortedSamples.sortBounds(this.x, true, this.boundsX);
+    		SortedSamples.sortBounds(this.y, false, this.boundsY);
+    		if(!(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(this.boundsX, this.boundsY) < this.criticalValue))
+    			fails();
+    	}
     }
     
     @Override
     public void propagate(int varIdx, int mask) throws ContradictionException {
-        propagate(0);
+        // events are coalesced into a single filtering pass
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
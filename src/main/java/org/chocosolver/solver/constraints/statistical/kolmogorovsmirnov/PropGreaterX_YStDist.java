@@ -0,0 +1,177 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
+
+/**
+ * Strict dominance: the test does not reject the null hypothesis that {@code x} dominates 
+ * {@code y}, but it rejects the null hypothesis that {@code y} dominates {@code x}. Both 
+ * statistics are driven by the upper bounds of {@code x} and the lower bounds of {@code y}, 
+ * and they are evaluated on the same sorted samples.
+ * 
+ * The two-sample statistic is not monotone in the observations, hence bounds are filtered 
+ * on monotone lower and upper bounds of the statistic, see {@link SortedSamples}, and the 
+ * test is checked once all the observations are instantiated.
+ */
+@SuppressWarnings("serial")
+class PropGreaterX_YStDist extends Propagator<IntVar> {
+
+    final IntVar[] x;
+    final IntVar[] y;
+    final double criticalValue;
+    
+    /* sorted bounds, and samples where the bound of the pivot observation is replaced */
+    private final double[] boundsX;
+    private final double[] boundsY;
+    private final double[] samplesX;
+    private final double[] samplesY;
+
+    private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
+    	IntVar[] var3 = new IntVar[var1.length+var2.length];
+    	System.arraycopy(var1, 0, var3, 0, var1.length);
+    	System.arraycopy(var2, 0, var3, var1.length, var2.length);
+    	return var3;
+    }
+    
+    public PropGreaterX_YStDist(IntVar[] var1, IntVar[] var2, double criticalValue) {
+        super(mergeArrays(var1, var2), PropagatorPriority.BINARY, true);
+        if(var1.length == 1 || var2.length == 1)
+        	throw new SolverException("Cannot propagate statistically on single observations");
+        this.x = var1;
+        this.y = var2;
+        this.criticalValue = criticalValue;
+        this.boundsX = new double[var1.length];
+        this.boundsY = new double[var2.length];
+        this.samplesX = new double[var1.length];
+        this.samplesY = new double[var2.length];
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+    	// requested before x and y are set; only upper bounds of x and lower bounds of y matter
+    	return IntEventType.INSTANTIATE.getMask() + IntEventType.BOUND.getMask();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+    	SortedSamples.sortBounds(this.x, true, this.boundsX);
+    	SortedSamples.sortBounds(this.y, false, this.boundsY);
+    	
+    	for(int i = 0; i < this.x.length; i++){
+    		IntVar pivotVar = this.x[i];
+    		int bound = pivotVar.getUB();
+    		int low = smallestValueX(bound, pivotVar.getLB(), bound + 1, false);
+    		low = smallestValueX(bound, low, bound + 1, true);
+    		pivotVar.updateLowerBound(low, this);
+    	}
+    	
+    	for(int i = 0; i < this.y.length; i++){
+    		IntVar pivotVar = this.y[i];
+    		int bound = pivotVar.getLB();
+    		int high = largestValueY(bound, bound - 1, pivotVar.getUB(), false);
+    		high = largestValueY(bound, bound - 1, high, true);
+    		pivotVar.updateUpperBound(high, this);
+    	}
+    	
+    	if(isCompletelyInstantiated()){
+    		SortedSamples.sortBounds(this.x, true, this.boundsX);
+    		SortedSamples.sortBounds(this.y, false, this.boundsY);
+    		if(!(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(this.boundsX, this.boundsY) < this.criticalValue) || 
+    		   KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(this.boundsY, this.boundsX) < this.criticalValue)
+    			fails();
+    	}
+    }
+    
+    /*
+     * Smallest value in [low, high) the pivot observation of x, whose upper bound is bound, may take 
+     * for the test on x >= y not to reject (reverse false), or for the test on y >= x to reject 
+     * (reverse true), according to the bounds of the statistic; high if none.
+     */
+    private int smallestValueX(int bound, int low, int high, boolean reverse){
+    	while(low < high){
+    		int mid = low + (high - low)/2;
+    		SortedSamples.replace(this.boundsX, bound, mid, this.samplesX);
+    		if(holds(this.samplesX, this.boundsY, reverse))
+    			high = mid;
+    		else
+    			low = mid + 1;
+    	}
+    	return low;
+    }
+    
+    /*
+     * Largest value in (low, high] the pivot observation of y, whose lower bound is bound, may take 
+     * for the test on x >= y not to reject (reverse false), or for the test on y >= x to reject 
+     * (reverse true), according to the bounds of the statistic; low if none.
+     */
+    private int largestValueY(int bound, int low, int high, boolean reverse){
+    	while(low < high){
+    		int mid = high - (high - low)/2;
+    		SortedSamples.replace(this.boundsY, bound, mid, this.samplesY);
+    		if(holds(this.boundsX, this.samplesY, reverse))
+    			low = mid;
+    		else
+    			high = mid - 1;
+    	}
+    	return low;
+    }
+    
+    private boolean holds(double[] sampleX, double[] sampleY, boolean reverse){
+    	if(reverse)
+    		return !(SortedSamples.upperStatisticE1GeqE2(sampleY, sampleX) < this.criticalValue);
+    	else
+    		return SortedSamples.lowerStatisticE1GeqE2(sampleX, sampleY) < this.criticalValue;
+    }
+    
+    @Override
+    public void propagate(int varIdx, int mask) throws ContradictionException {
+        // events are coalesced into a single filtering pass
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    @Override
+    public ESat isEntailed() {
+        return ESat.UNDEFINED;
+    }
+
+
+    @Override
+    public String toString() {
+        StringBuilder bf = new StringBuilder();
+        bf.append("prop(").append(vars[0].getName()).append(".GT.").append(vars[this.x.length].getName()).append(")");
+        return bf.toString();
+    }
+}
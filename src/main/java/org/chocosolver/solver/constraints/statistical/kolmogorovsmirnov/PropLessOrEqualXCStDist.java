@@ -31,25 +31,33 @@ import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
-import org.syat.statistics.KolmogorovSmirnovTest;
 
 import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
 import umontreal.iro.lecuyer.probdist.Distribution;
-import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 
 @SuppressWarnings("serial")
 class PropLessOrEqualXCStDist extends Propagator<IntVar> {
 
 	private final Distribution dist;
-    private final double confidence;
+    private final SortedBounds lowerBounds;
+    /* largest value a lower bound moved to since the last filtering */
+    private int highest = Integer.MIN_VALUE;
 
-    public PropLessOrEqualXCStDist(IntVar[] var, Distribution dist, double confidence) {
+    public PropLessOrEqualXCStDist(IntVar[] var, Distribution dist, double criticalValue) {
         super(var, PropagatorPriority.UNARY, true);
         if(!(dist instanceof ContinuousDistribution)) 
 			throw new SolverException("Theoretical distribution should not be discrete");
         this.dist = dist;
-        this.confidence = confidence;
+        this.lowerBounds = SortedBounds.ofLowerBounds(solver.getEnvironment(), var);
+        this.lowerBounds.setDistribution(dist, criticalValue);
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.INSTANTIATE.getMask() + IntEventType.INCLOW.getMask();
     }
 
     @Override
@@ -59,35 +67,34 @@ class PropLessOrEqualXCStDist extends Propagator<IntVar> {
             this.setPassive();
         }*/
         
-    	//int counter = 0;
-        for(int i = 0; i < vars.length; i++){
-        	double[] samples = new double[vars.length];
-        	IntVar pivotVar = vars[i];
-        	int k = 0;
-        	samples[k++] = pivotVar.getUB();
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samples[k++] = vars[j].getLB();
+        if(PropagatorEventType.isFullPropagation(evtmask)){
+        	for(int i = 0; i < vars.length; i++){
+        		lowerBounds.set(i, vars[i].getLB());
         	}
-        	EmpiricalDist emp = new EmpiricalDist(samples);
-        	KolmogorovSmirnovTest ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			while(!ksTest.testD1GeqE1()){
-				pivotVar.updateUpperBound(pivotVar.getUB()-1, this);
-				//counter++;
-				samples[0] = pivotVar.getUB();
-				emp = new EmpiricalDist(samples);
-				ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			}
+        	highest = Integer.MAX_VALUE;
+        }
+        
+        if(!lowerBounds.isSatisfied())
+        	fails();
+        
+        for(int i = 0; i < vars.length; i++){
+        	// supports only depend on larger lower bounds
+        	if(lowerBounds.get(i) < highest)
+        		vars[i].updateUpperBound(lowerBounds.largestSupportedValue(i), this);
         }
-        //if(counter > 0)
-        	//LoggerFactory.getLogger("bench").info("Pruned (LE): "+counter);
+        highest = Integer.MIN_VALUE;
     }
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        propagate(0);
+        int bound = vars[idxVarInProp].getLB();
+        if(bound != lowerBounds.get(idxVarInProp)){
+        	lowerBounds.set(idxVarInProp, bound);
+        	highest = Math.max(highest, bound);
+        }
+        // the engine only runs the filtering requested on the last pending event
+        if(highest != Integer.MIN_VALUE)
+        	forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -107,4 +114,3 @@ class PropLessOrEqualXCStDist extends Propagator<IntVar> {
         return vars[0].getName() + " >= " + dist.toString();
     }
 }
-
@@ -28,11 +28,13 @@ package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
 
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionEnvelope;
 import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionVar;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.syat.statistics.KolmogorovSmirnovTest;
 
@@ -43,7 +45,20 @@ import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 class PropLessOrEqualX_DStDist extends Propagator<IntVar> {
 
     private final DistributionVar dist;
-    private final double confidence;
+    private final IntVar[] parameters;
+    private final double criticalValue;
+    private final SortedBounds lowerBounds;
+    /* lower cdf envelope over the parameter domains, the most favourable to the test */
+    private final DistributionEnvelope envelope;
+    /* lower cdf envelope over the parameter domains with one parameter fixed */
+    private final DistributionEnvelope shaving;
+    /* lower bounds of the observations */
+    private final double[] samples;
+    private final EmpiricalDist emp;
+    /* largest value a lower bound moved to since the last filtering */
+    private int highest = Integer.MIN_VALUE;
+    /* whether an event was received since the last filtering */
+    private boolean outdated;
 
     private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
     	IntVar[] var3 = new IntVar[var1.length+var2.length];
@@ -52,19 +67,24 @@ class PropLessOrEqualX_DStDist extends Propagator<IntVar> {
     	return var3;
     }
     
-    public PropLessOrEqualX_DStDist(IntVar[] var, DistributionVar dist, double confidence) {
+    public PropLessOrEqualX_DStDist(IntVar[] var, DistributionVar dist, double criticalValue) {
         super(mergeArrays(var,dist.getVarParatemers()), PropagatorPriority.BINARY, true);
         if(!(dist instanceof ContinuousDistribution)) 
 			throw new SolverException("Theoretical distribution should not be discrete");
-        if(dist.getNumberOfVarParameters() > 1)
-        	throw new SolverException("This propagator only supports distribution with a single parameter");
         this.dist = dist;
-        this.confidence = confidence;
+        this.parameters = dist.getVarParatemers();
+        this.criticalValue = criticalValue;
+        this.lowerBounds = SortedBounds.ofLowerBounds(solver.getEnvironment(), vars);
+        this.envelope = new DistributionEnvelope(dist, false);
+        this.shaving = new DistributionEnvelope(dist, false);
+        this.samples = new double[vars.length];
+        this.emp = new EmpiricalDist(this.samples);
     }
 
     @Override
     public int getPropagationConditions(int vIdx) {
-        return IntEventType.INSTANTIATE.getMask() + IntEventType.BOUND.getMask();
+    	// requested before the parameters are set; only lower bounds of the observations matter
+    	return IntEventType.INSTANTIATE.getMask() + IntEventType.BOUND.getMask();
     }
 
     @Override
@@ -74,46 +94,96 @@ class PropLessOrEqualX_DStDist extends Propagator<IntVar> {
             this.setPassive();
         }*/
         
-        for(int i = 0; i < vars.length; i++){
-        	double[] samples = new double[vars.length];
-        	IntVar pivotVar = vars[i];
-        	int k = 0;
-        	samples[k++] = pivotVar.getUB();
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samples[k++] = vars[j].getLB();
+        outdated = false;
+        if(PropagatorEventType.isFullPropagation(evtmask)){
+        	for(int i = 0; i < vars.length; i++){
+        		lowerBounds.set(i, vars[i].getLB());
         	}
-        	EmpiricalDist emp = new EmpiricalDist(samples);
-        	this.dist.setParameters(new double[]{this.dist.getVarParatemers()[0].getUB()});
-			KolmogorovSmirnovTest ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			while(!ksTest.testD1GeqE1()){
-				pivotVar.updateUpperBound(pivotVar.getUB()-1, this);
-				samples[0] = pivotVar.getUB();
-				emp = new EmpiricalDist(samples);
-				ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-			}
+        	highest = Integer.MAX_VALUE;
         }
-        
-        double[] samples = new double[vars.length];
-    	for(int j = 0; j < vars.length; j++){
-    		samples[j] = vars[j].getLB();
-    	}
-    	EmpiricalDist emp = new EmpiricalDist(samples);
-    	IntVar pivotVar = dist.getVarParatemers()[0];
-    	this.dist.setParameters(new double[]{this.dist.getVarParatemers()[0].getLB()});
-    	KolmogorovSmirnovTest ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
-    	while(!ksTest.testD1GeqE1()){
-    		pivotVar.updateLowerBound(pivotVar.getLB()+1, this);
-    		this.dist.setParameters(new double[]{this.dist.getVarParatemers()[0].getLB()});
-    		ksTest = new KolmogorovSmirnovTest(emp, this.dist, this.confidence);
+        // parameters are also observations and this propagator is not notified of its own modifications
+        do{
+        	if(!envelope.hasParameterBounds()){
+        		envelope.setParameterBounds();
+        		lowerBounds.setDistribution(envelope, this.criticalValue);
+        		highest = Integer.MAX_VALUE;
+        	}
+        	
+        	if(!lowerBounds.isSatisfied())
+        		fails();
+        	
+        	for(int i = 0; i < vars.length; i++){
+        		// supports only depend on larger lower bounds
+        		if(lowerBounds.get(i) < highest)
+        			vars[i].updateUpperBound(lowerBounds.largestSupportedValue(i), this);
+        	}
+        	highest = Integer.MIN_VALUE;
+        	
+    		for(int j = 0; j < vars.length; j++){
+    			samples[j] = vars[j].getLB();
+    		}
+    		emp.reset(samples);
+    		for(int p = 0; p < parameters.length; p++){
+    			IntVar parameter = parameters[p];
+    			int value = parameter.getLB();
+    			while(value != Integer.MAX_VALUE && !accepts(emp, p, value))
+    				value = parameter.nextValue(value);
+    			parameter.updateLowerBound(value, this);
+    			value = parameter.getUB();
+    			while(value != Integer.MIN_VALUE && !accepts(emp, p, value))
+    				value = parameter.previousValue(value);
+    			parameter.updateUpperBound(value, this);
+    		}
+        }while(syncParameters());
+    }
+    
+    /**
+     * Records the bounds the parameters were given by the last filtering.
+     * 
+     * @return {@code true} if the filtering has to be run again
+     */
+    private boolean syncParameters(){
+    	boolean changed = !envelope.hasParameterBounds();
+    	for(int i = vars.length - parameters.length; i < vars.length; i++){
+    		int bound = vars[i].getLB();
+    		if(bound != lowerBounds.get(i)){
+    			lowerBounds.set(i, bound);
+    			highest = Math.max(highest, bound);
+    			changed = true;
+    		}
     	}
+    	return changed;
     }
-
+    
+    /**
+     * Checks whether the test may accept {@code emp} for a parameter vector in the current 
+     * parameter domains in which parameter {@code p} takes value {@code value}; this is 
+     * decided on the lower cdf envelope, so that no parameter vector has to be enumerated.
+     * 
+     * @param emp the lower bounds of the observations
+     * @param p parameter index
+     * @param value parameter value
+     * @return {@code false} if no such parameter vector can be accepted
+     */
+    private boolean accepts(EmpiricalDist emp, int p, int value){
+    	shaving.setParameterBounds();
+    	shaving.fixParameter(p, value);
+    	return KolmogorovSmirnovTest.KSstatisticsSingleTailedD1GeqE1(emp, shaving) < this.criticalValue;
+    }
+    
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        propagate(0);
+        int bound = vars[idxVarInProp].getLB();
+        if(bound != lowerBounds.get(idxVarInProp)){
+        	lowerBounds.set(idxVarInProp, bound);
+        	highest = Math.max(highest, bound);
+        }else if(idxVarInProp < vars.length - parameters.length && !outdated){
+        	// upper bounds of the observations play no role
+        	return;
+        }
+        // the engine only runs the filtering requested on the last pending event
+        outdated = true;
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
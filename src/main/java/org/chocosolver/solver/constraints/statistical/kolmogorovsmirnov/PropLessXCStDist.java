@@ -0,0 +1,117 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
+import org.chocosolver.util.ESat;
+
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+import umontreal.iro.lecuyer.probdist.Distribution;
+
+/**
+ * Strict dominance: the test does not reject the null hypothesis that the observations 
+ * are dominated by the target distribution (statistic D1GeqE1), but it rejects the null 
+ * hypothesis that they dominate it (statistic E1GeqD1). Both statistics are driven by the 
+ * lower bounds of the observations, hence only upper bounds are filtered.
+ */
+@SuppressWarnings("serial")
+class PropLessXCStDist extends Propagator<IntVar> {
+
+    private final Distribution dist;
+    private final SortedBounds lowerBounds;
+    private final SortedBounds rejectedBounds;
+    /* largest value a lower bound moved to since the last filtering */
+    private int highest = Integer.MIN_VALUE;
+
+    public PropLessXCStDist(IntVar[] var, Distribution dist, double criticalValue) {
+        super(var, PropagatorPriority.UNARY, true);
+        if(!(dist instanceof ContinuousDistribution)) 
+			throw new SolverException("Theoretical distribution should not be discrete");
+        this.dist = dist;
+        this.lowerBounds = SortedBounds.ofLowerBounds(solver.getEnvironment(), var);
+        this.lowerBounds.setDistribution(dist, criticalValue);
+        this.rejectedBounds = SortedBounds.ofLowerBoundsRejected(solver.getEnvironment(), var);
+        this.rejectedBounds.setDistribution(dist, criticalValue);
+    }
+
+    @Override
+    public int getPropagationConditions(int vIdx) {
+        return IntEventType.INSTANTIATE.getMask() + IntEventType.INCLOW.getMask();
+    }
+
+    @Override
+    public void propagate(int evtmask) throws ContradictionException {
+        if(PropagatorEventType.isFullPropagation(evtmask)){
+        	for(int i = 0; i < vars.length; i++){
+        		lowerBounds.set(i, vars[i].getLB());
+        		rejectedBounds.set(i, vars[i].getLB());
+        	}
+        	highest = Integer.MAX_VALUE;
+        }
+        
+        if(!lowerBounds.isSatisfied() || rejectedBounds.isSatisfied())
+        	fails();
+        
+        for(int i = 0; i < vars.length; i++){
+        	int bound = rejectedBounds.largestRejectedValue(i);
+        	// supports only depend on larger lower bounds
+        	if(lowerBounds.get(i) < highest)
+        		bound = Math.min(bound, lowerBounds.largestSupportedValue(i));
+        	vars[i].updateUpperBound(bound, this);
+        }
+        highest = Integer.MIN_VALUE;
+    }
+
+    @Override
+    public void propagate(int idxVarInProp, int mask) throws ContradictionException {
+        int bound = vars[idxVarInProp].getLB();
+        if(bound != lowerBounds.get(idxVarInProp)){
+        	lowerBounds.set(idxVarInProp, bound);
+        	rejectedBounds.set(idxVarInProp, bound);
+        	highest = Math.max(highest, bound);
+        }
+        // the engine only runs the filtering requested on the last pending event
+        if(highest != Integer.MIN_VALUE)
+        	forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
+    }
+
+    @Override
+    public ESat isEntailed() {
+    	return ESat.UNDEFINED;
+    }
+
+    @Override
+    public String toString() {
+        return vars[0].getName() + " < " + dist.toString();
+    }
+}
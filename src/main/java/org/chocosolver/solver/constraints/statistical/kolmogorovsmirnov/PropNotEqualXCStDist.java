@@ -31,6 +31,7 @@ import org.chocosolver.solver.constraints.PropagatorPriority;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 
 import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
@@ -44,14 +45,28 @@ import org.syat.statistics.KolmogorovSmirnovTest;
 class PropNotEqualXCStDist extends Propagator<IntVar> {
 
 	private final Distribution dist;
-    private final double confidence;
+    private final double criticalValue;
+    private final ResidualSupports supports;
+    /* bounds of the observations, with a pivot value first */
+    private final double[] samplesLB;
+    private final double[] samplesUB;
+    private final EmpiricalDist empLB;
+    private final EmpiricalDist empUB;
+    
+    /* the target distribution is fixed, any witness will do */
+    private static final int SUPPORTED = 0;
 
-    public PropNotEqualXCStDist(IntVar[] var, Distribution dist, double confidence) {
+    public PropNotEqualXCStDist(IntVar[] var, Distribution dist, double criticalValue) {
         super(var, PropagatorPriority.UNARY, true);
         if(!(dist instanceof ContinuousDistribution)) 
 			throw new SolverException("Theoretical distribution should not be discrete");
         this.dist = dist;
-        this.confidence = confidence;
+        this.criticalValue = criticalValue;
+        this.supports = new ResidualSupports(solver.getEnvironment(), vars);
+        this.samplesLB = new double[vars.length];
+        this.samplesUB = new double[vars.length];
+        this.empLB = new EmpiricalDist(this.samplesLB);
+        this.empUB = new EmpiricalDist(this.samplesUB);
     }
 
     @Override
@@ -62,43 +77,52 @@ class PropNotEqualXCStDist extends Propagator<IntVar> {
         }*/
         
         for(int i = 0; i < vars.length; i++){
-        	double[] samplesLB = new double[vars.length];
-        	int k = 1;
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesLB[k++] = vars[j].getLB();
-        	}
-        	double[] samplesUB = new double[vars.length];
-        	k = 1;
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesUB[k++] = vars[j].getUB();
-        	}
+        	// the pivot value held by the samples, which are only reset when needed
+        	boolean sampled = false;
+        	int sampledValue = 0;
         	
         	IntVar pivotVar = vars[i];
         	DisposableValueIterator iterator = pivotVar.getValueIterator(true);
         	while(iterator.hasNext()){
         		int value = iterator.next();
-        		samplesLB[0] = samplesUB[0] = value;
-        		EmpiricalDist empLB = new EmpiricalDist(samplesLB);
-        		KolmogorovSmirnovTest ksTestLB = new KolmogorovSmirnovTest(empLB, this.dist, this.confidence);
-    			EmpiricalDist empUB = new EmpiricalDist(samplesUB);
-    			KolmogorovSmirnovTest ksTestUB = new KolmogorovSmirnovTest(empUB, this.dist, this.confidence);
+        		
+        		// values supported under looser bounds remain supported
+        		if(this.supports.get(i, value) != ResidualSupports.NONE)
+        			continue;
+        		
+        		if(!sampled){
+        			samplesLB[0] = samplesUB[0] = value;
+        			int k = 1;
+        			for(int j = 0; j < vars.length; j++){
+        				if(j==i) 
+        					continue;
+        				samplesLB[k] = vars[j].getLB();
+        				samplesUB[k++] = vars[j].getUB();
+        			}
+        			empLB.reset(samplesLB);
+        			empUB.reset(samplesUB);
+        			sampled = true;
+        		}else{
+        			empLB.replace(sampledValue, value);
+        			empUB.replace(sampledValue, value);
+        		}
+        		sampledValue = value;
     			
-    			if(ksTestLB.testD1GeqE1() && ksTestUB.testE1GeqD1()){
+    			if(KolmogorovSmirnovTest.KSstatisticsSingleTailedD1GeqE1(empLB, this.dist) < this.criticalValue && 
+    			   KolmogorovSmirnovTest.KSstatisticsSingleTailedE1GeqD1(empUB, this.dist) < this.criticalValue){
     				pivotVar.removeValue(value, this);
+    			}else{
+    				this.supports.set(i, value, SUPPORTED);
     			}
         	}
+        	iterator.dispose();
         }
     }
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        propagate(0);
+        // events are coalesced into a single filtering pass
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
@@ -28,11 +28,13 @@ package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
 
 import org.chocosolver.solver.constraints.Propagator;
 import org.chocosolver.solver.constraints.PropagatorPriority;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionEnvelope;
 import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionVar;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.chocosolver.util.iterators.DisposableValueIterator;
 import org.syat.statistics.KolmogorovSmirnovTest;
@@ -44,7 +46,17 @@ import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 class PropNotEqualX_DStDist extends Propagator<IntVar> {
 
     private final DistributionVar dist;
-    private final double confidence;
+    private final IntVar[] parameters;
+    private final double criticalValue;
+    private final DistributionEnvelope lowerEnvelope;
+    private final DistributionEnvelope upperEnvelope;
+    private final ResidualSupports supports;
+    private final ResidualSupports parameterSupports;
+    /* bounds of the observations, with a pivot value first */
+    private final double[] samplesLB;
+    private final double[] samplesUB;
+    private final EmpiricalDist empLB;
+    private final EmpiricalDist empUB;
 
     private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
     	IntVar[] var3 = new IntVar[var1.length+var2.length];
@@ -53,14 +65,21 @@ class PropNotEqualX_DStDist extends Propagator<IntVar> {
     	return var3;
     }
     
-    public PropNotEqualX_DStDist(IntVar[] var, DistributionVar dist, double confidence) {
+    public PropNotEqualX_DStDist(IntVar[] var, DistributionVar dist, double criticalValue) {
         super(mergeArrays(var, dist.getVarParatemers()), PropagatorPriority.BINARY, true);
         if(!(dist instanceof ContinuousDistribution)) 
 			throw new SolverException("Theoretical distribution should not be discrete");
-        if(dist.getNumberOfVarParameters() > 1)
-        	throw new SolverException("This propagator only supports distribution with a single parameter");
         this.dist = dist;
-        this.confidence = confidence;
+        this.parameters = dist.getVarParatemers();
+        this.criticalValue = criticalValue;
+        this.lowerEnvelope = new DistributionEnvelope(dist, false);
+        this.upperEnvelope = new DistributionEnvelope(dist, true);
+        this.supports = new ResidualSupports(solver.getEnvironment(), vars);
+        this.parameterSupports = new ResidualSupports(solver.getEnvironment(), this.parameters);
+        this.samplesLB = new double[vars.length];
+        this.samplesUB = new double[vars.length];
+        this.empLB = new EmpiricalDist(this.samplesLB);
+        this.empUB = new EmpiricalDist(this.samplesUB);
     }
 
     @Override
@@ -80,83 +99,112 @@ class PropNotEqualX_DStDist extends Propagator<IntVar> {
             this.setPassive();
         }*/
         
+        // values of the observations are supported by a value of the first parameter, the others range over their domains
+        IntVar parameter = this.parameters[0];
+        // with a single parameter supports are exact and only depend on observation bounds
+        boolean exact = this.parameters.length == 1;
+        
         for(int i = 0; i < vars.length; i++){
-        	double[] samplesLB = new double[vars.length];
-        	int k = 1;
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesLB[k++] = vars[j].getLB();
-        	}
-        	
-        	double[] samplesUB = new double[vars.length];
-        	k = 1;
-        	for(int j = 0; j < vars.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesUB[k++] = vars[j].getUB();
-        	}
+        	// the pivot value held by the samples, which are only built when needed
+        	boolean sampled = false;
+        	int sampledValue = 0;
         	
         	IntVar pivotVar = vars[i];
         	DisposableValueIterator iterator = pivotVar.getValueIterator(true);
         	while(iterator.hasNext()){
         		int value = iterator.next();
-        		samplesLB[0] = samplesUB[0] = value;
         		
-        		DisposableValueIterator iteratorVar = this.dist.getVarParatemers()[0].getValueIterator(true);
+        		// a residual support remains valid as long as it belongs to the parameter domain, 
+        		// with several parameters it has to be checked again against the other domains
+        		int residue = this.supports.get(i, value);
+        		boolean residual = residue != ResidualSupports.NONE && parameter.contains(residue);
+        		if(residual && exact)
+        			continue;
+        		
+        		if(!sampled){
+        			samplesLB[0] = samplesUB[0] = value;
+        			int k = 1;
+        			for(int j = 0; j < vars.length; j++){
+        				if(j==i) 
+        					continue;
+        				samplesLB[k] = vars[j].getLB();
+        				samplesUB[k++] = vars[j].getUB();
+        			}
+        			empLB.reset(samplesLB);
+        			empUB.reset(samplesUB);
+        			sampled = true;
+        		}else{
+        			empLB.replace(sampledValue, value);
+        			empUB.replace(sampledValue, value);
+        		}
+        		sampledValue = value;
+        		
+        		if(residual && isSupport(0, residue))
+        			continue;
+        		
+        		DisposableValueIterator iteratorVar = parameter.getValueIterator(true);
         		boolean support = false;
         		while(iteratorVar.hasNext()){
         			int valueVar = iteratorVar.next();
-        			this.dist.setParameters(new double[]{valueVar});
-	        		EmpiricalDist empLB = new EmpiricalDist(samplesLB);
-	        		KolmogorovSmirnovTest ksTestLBUB = new KolmogorovSmirnovTest(empLB, this.dist, this.confidence);
-	    			EmpiricalDist empUB = new EmpiricalDist(samplesUB);
-	    			KolmogorovSmirnovTest ksTestUBLB = new KolmogorovSmirnovTest(empUB, this.dist, this.confidence);
-	    			
-	    			if(!(ksTestLBUB.testD1GeqE1() && ksTestUBLB.testE1GeqD1())){
-	    				support = true;
-	    				break;
-	    			}
+        			if(isSupport(0, valueVar)){
+        				this.supports.set(i, value, valueVar);
+        				support = true;
+        				break;
+        			}
         		}
+        		iteratorVar.dispose();
         		if(!support) pivotVar.removeValue(value, this);
         	}
+        	iterator.dispose();
         }
         
-        double[] samplesLB = new double[vars.length];
     	for(int j = 0; j < vars.length; j++){
     		samplesLB[j] = vars[j].getLB();
-    	}
-    	
-    	double[] samplesUB = new double[vars.length];
-    	for(int j = 0; j < vars.length; j++){
     		samplesUB[j] = vars[j].getUB();
     	}
+    	empLB.reset(samplesLB);
+    	empUB.reset(samplesUB);
     	
-    	IntVar pivotVar = this.dist.getVarParatemers()[0];
-    	DisposableValueIterator iterator = pivotVar.getValueIterator(true);
-    	while(iterator.hasNext()){
-    		int value = iterator.next();
-    		this.dist.setParameters(new double[]{value});
-    		
-    		EmpiricalDist empLB = new EmpiricalDist(samplesLB);
-    		KolmogorovSmirnovTest ksTestLBUB = new KolmogorovSmirnovTest(empLB, this.dist, this.confidence);
-    		boolean lbub = ksTestLBUB.testD1GeqE1();
-    		
-    		EmpiricalDist empUB = new EmpiricalDist(samplesUB);
-    		KolmogorovSmirnovTest ksTestUBLB = new KolmogorovSmirnovTest(empUB, this.dist, this.confidence);
-    		boolean ublb = ksTestUBLB.testE1GeqD1();
-    		
-    		if(lbub && ublb){
-				pivotVar.removeValue(value, this);
-			}
+    	for(int p = 0; p < this.parameters.length; p++){
+    		DisposableValueIterator iterator = this.parameters[p].getValueIterator(true);
+    		while(iterator.hasNext()){
+    			int value = iterator.next();
+    			if(exact && this.parameterSupports.get(p, value) != ResidualSupports.NONE)
+    				continue;
+    			if(isSupport(p, value)){
+    				this.parameterSupports.set(p, value, value);
+    			}else{
+    				this.parameters[p].removeValue(value, this);
+    			}
+    		}
+    		iterator.dispose();
     	}
     }
+    
+    /**
+     * Checks whether value {@code value} of parameter {@code p} supports the pair of samples {@link #empLB} 
+     * and {@link #empUB}, that is whether the test may reject the null hypothesis for either the lower 
+     * or the upper bounds for some values of the other parameters. The test surely accepts both samples when it does so 
+     * under the cdf envelopes over the other parameter domains.
+     * Support is preserved when the bounds get tighter, and it is exact for a single parameter.
+     * 
+     * @param p parameter index
+     * @param value parameter value
+     * @return {@code true} if {@code value} supports the samples
+     */
+    private boolean isSupport(int p, int value){
+    	this.lowerEnvelope.setParameterBounds();
+    	this.lowerEnvelope.fixParameter(p, value);
+    	this.upperEnvelope.setParameterBounds();
+    	this.upperEnvelope.fixParameter(p, value);
+    	return !(KolmogorovSmirnovTest.KSstatisticsSingleTailedD1GeqE1(empLB, this.upperEnvelope) < this.criticalValue && 
+    	         KolmogorovSmirnovTest.KSstatisticsSingleTailedE1GeqD1(empUB, this.lowerEnvelope) < this.criticalValue);
+    }
 
     @Override
     public void propagate(int idxVarInProp, int mask) throws ContradictionException {
-        propagate(0);
+        // events are coalesced into a single filtering pass
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
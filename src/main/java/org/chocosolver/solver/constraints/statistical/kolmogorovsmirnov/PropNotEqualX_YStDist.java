@@ -32,18 +32,27 @@ import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.variables.IntVar;
 import org.chocosolver.solver.variables.events.IntEventType;
+import org.chocosolver.solver.variables.events.PropagatorEventType;
 import org.chocosolver.util.ESat;
 import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
 import org.chocosolver.util.iterators.DisposableValueIterator;
 
-import umontreal.iro.lecuyer.probdist.EmpiricalDist;
-
 @SuppressWarnings("serial")
 class PropNotEqualX_YStDist extends Propagator<IntVar> {
 
     final IntVar[] x;
     final IntVar[] y;
-    final double confidence;
+    final double criticalValue;
+    
+    /* sorted bounds, and samples where the bounds of the pivot observation are replaced */
+    private final double[] lowerX;
+    private final double[] upperX;
+    private final double[] lowerY;
+    private final double[] upperY;
+    private final double[] samplesXLB;
+    private final double[] samplesXUB;
+    private final double[] samplesYLB;
+    private final double[] samplesYUB;
 
     private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
     	IntVar[] var3 = new IntVar[var1.length+var2.length];
@@ -52,13 +61,21 @@ class PropNotEqualX_YStDist extends Propagator<IntVar> {
     	return var3;
     }
     
-    public PropNotEqualX_YStDist(IntVar[] var1, IntVar[] var2, double confidence) {
+    public PropNotEqualX_YStDist(IntVar[] var1, IntVar[] var2, double criticalValue) {
         super(mergeArrays(var1, var2), PropagatorPriority.BINARY, true);
         if(var1.length == 1 || var2.length == 1)
         	throw new SolverException("Cannot propagate statistically on single observations");
         this.x = var1;
         this.y = var2;
-        this.confidence = confidence;
+        this.criticalValue = criticalValue;
+        this.lowerX = new double[var1.length];
+        this.upperX = new double[var1.length];
+        this.lowerY = new double[var2.length];
+        this.upperY = new double[var2.length];
+        this.samplesXLB = new double[var1.length];
+        this.samplesXUB = new double[var1.length];
+        this.samplesYLB = new double[var2.length];
+        this.samplesYUB = new double[var2.length];
     }
 
     @Override
@@ -77,98 +94,61 @@ class PropNotEqualX_YStDist extends Propagator<IntVar> {
      * @throws ContradictionException
      */
     private void propagateTwoSampleKSTestDist(int evtmask) throws ContradictionException {
+    	SortedSamples.sortBounds(this.x, false, this.lowerX);
+    	SortedSamples.sortBounds(this.x, true, this.upperX);
+    	SortedSamples.sortBounds(this.y, false, this.lowerY);
+    	SortedSamples.sortBounds(this.y, true, this.upperY);
+    	
     	for(int i = 0; i < this.x.length; i++){
-    		double[] samplesXLB = new double[x.length];
-        	int k = 1;
-        	for(int j = 0; j < x.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesXLB[k++] = x[j].getLB();
-        	}
-        	double[] samplesXUB = new double[x.length];
-        	k = 1;
-        	for(int j = 0; j < x.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesXUB[k++] = x[j].getUB();
-        	}
-        	double[] samplesYLB = new double[y.length];
-        	for(int j = 0; j < y.length; j++){
-        		samplesYLB[j] = y[j].getLB();
-        	}
-        	double[] samplesYUB = new double[y.length];
-        	for(int j = 0; j < y.length; j++){
-        		samplesYUB[j] = y[j].getUB();
-        	}
-        	
-        	IntVar pivotVar = x[i];
+    		IntVar pivotVar = x[i];
+    		int lb = pivotVar.getLB();
+    		int ub = pivotVar.getUB();
         	DisposableValueIterator iterator = pivotVar.getValueIterator(true);
         	while(iterator.hasNext()){
         		int value = iterator.next();
-        		samplesXLB[0] = samplesXUB[0] = value;
-        		EmpiricalDist empXLB = new EmpiricalDist(samplesXLB);
-        		EmpiricalDist empYUB = new EmpiricalDist(samplesYUB);
-        		KolmogorovSmirnovTestTwoSamples ksTestXLBYUB = new KolmogorovSmirnovTestTwoSamples(empXLB, empYUB, this.confidence);
-    			EmpiricalDist empXUB = new EmpiricalDist(samplesXUB);
-    			EmpiricalDist empYLB = new EmpiricalDist(samplesYLB);
-    			KolmogorovSmirnovTestTwoSamples ksTestXUBYLB = new KolmogorovSmirnovTestTwoSamples(empYLB, empXUB, this.confidence);
+        		SortedSamples.replace(this.lowerX, lb, value, this.samplesXLB);
+        		SortedSamples.replace(this.upperX, ub, value, this.samplesXUB);
     			
-    			if(ksTestXLBYUB.testE2GeqE1() && ksTestXUBYLB.testE2GeqE1()){
+    			if(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(this.samplesXLB, this.upperY) < this.criticalValue && 
+    			   KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(this.lowerY, this.samplesXUB) < this.criticalValue){
     				pivotVar.removeValue(value, this);
     			}	
         	}
+        	iterator.dispose();
+        	// later pivots see the bounds of this observation
+        	SortedSamples.replace(this.lowerX, lb, pivotVar.getLB(), this.samplesXLB);
+        	SortedSamples.replace(this.upperX, ub, pivotVar.getUB(), this.samplesXUB);
+        	System.arraycopy(this.samplesXLB, 0, this.lowerX, 0, this.x.length);
+        	System.arraycopy(this.samplesXUB, 0, this.upperX, 0, this.x.length);
         }
     	
     	for(int i = 0; i < this.y.length; i++){
-    		double[] samplesYLB = new double[y.length];
-        	int k = 1;
-        	for(int j = 0; j < y.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesYLB[k++] = y[j].getLB();
-        	}
-        	double[] samplesYUB = new double[y.length];
-        	k = 1;
-        	for(int j = 0; j < y.length; j++){
-        		if(j==i) 
-        			continue;
-        		else
-        			samplesYUB[k++] = y[j].getUB();
-        	}
-        	double[] samplesXLB = new double[x.length];
-        	for(int j = 0; j < x.length; j++){
-        		samplesYLB[j] = x[j].getLB();
-        	}
-        	double[] samplesXUB = new double[x.length];
-        	for(int j = 0; j < x.length; j++){
-        		samplesYUB[j] = x[j].getUB();
-        	}
-        	
-        	IntVar pivotVar = y[i];
+    		IntVar pivotVar = y[i];
+    		int lb = pivotVar.getLB();
+    		int ub = pivotVar.getUB();
         	DisposableValueIterator iterator = pivotVar.getValueIterator(true);
         	while(iterator.hasNext()){
         		int value = iterator.next();
-        		samplesYLB[0] = samplesYUB[0] = value;
-        		EmpiricalDist empXLB = new EmpiricalDist(samplesXLB);
-        		EmpiricalDist empYUB = new EmpiricalDist(samplesYUB);
-        		KolmogorovSmirnovTestTwoSamples ksTestXLBYUB = new KolmogorovSmirnovTestTwoSamples(empXLB, empYUB, this.confidence);
-    			EmpiricalDist empXUB = new EmpiricalDist(samplesXUB);
-    			EmpiricalDist empYLB = new EmpiricalDist(samplesYLB);
-    			KolmogorovSmirnovTestTwoSamples ksTestXUBYLB = new KolmogorovSmirnovTestTwoSamples(empYLB, empXUB, this.confidence);
+        		SortedSamples.replace(this.lowerY, lb, value, this.samplesYLB);
+        		SortedSamples.replace(this.upperY, ub, value, this.samplesYUB);
     			
-    			if(ksTestXLBYUB.testE2GeqE1() && ksTestXUBYLB.testE2GeqE1()){
+    			if(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(this.lowerX, this.samplesYUB) < this.criticalValue && 
+    			   KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(this.samplesYLB, this.upperX) < this.criticalValue){
     				pivotVar.removeValue(value, this);
     			}	
         	}
+        	iterator.dispose();
+        	SortedSamples.replace(this.lowerY, lb, pivotVar.getLB(), this.samplesYLB);
+        	SortedSamples.replace(this.upperY, ub, pivotVar.getUB(), this.samplesYUB);
+        	System.arraycopy(this.samplesYLB, 0, this.lowerY, 0, this.y.length);
+        	System.arraycopy(this.samplesYUB, 0, this.upperY, 0, this.y.length);
         }
     }
     
     @Override
     public void propagate(int varIdx, int mask) throws ContradictionException {
-        propagate(0);
+        // events are coalesced into a single filtering pass
+        forcePropagate(PropagatorEventType.CUSTOM_PROPAGATION);
     }
 
     @Override
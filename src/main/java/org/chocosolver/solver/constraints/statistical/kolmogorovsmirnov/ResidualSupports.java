@@ -0,0 +1,108 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import java.util.Arrays;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.structure.Operation;
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Backtrackable cache of residual supports (AC-2001 style), storing for each 
+ * (observation, value) pair the last witness found to support the value.
+ * 
+ * Propagators only record a witness when support is monotone with respect to the 
+ * tightening of the observation bounds; a recorded witness therefore remains valid as 
+ * long as it is not removed, and the value does not need to be checked again. Since 
+ * support may be lost when bounds are relaxed, records are undone upon backtracking.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+class ResidualSupports {
+   
+   /**
+    * Witness of a value that has no recorded support
+    */
+   static final int NONE = Integer.MIN_VALUE;
+   
+   private final IEnvironment environment;
+   private final int[] offset;
+   private final int[][] witness;
+   
+   /**
+    * Creates an empty cache for the initial domains of {@code observations}
+    * 
+    * @param environment the solver environment
+    * @param observations observations
+    */
+   ResidualSupports(IEnvironment environment, IntVar[] observations){
+      this.environment = environment;
+      this.offset = new int[observations.length];
+      this.witness = new int[observations.length][];
+      for(int i = 0; i < observations.length; i++){
+         this.offset[i] = observations[i].getLB();
+         this.witness[i] = new int[observations[i].getUB() - observations[i].getLB() + 1];
+         Arrays.fill(this.witness[i], NONE);
+      }
+   }
+   
+   /**
+    * Witness recorded for value {@code value} of observation {@code idx}
+    * 
+    * @param idx observation index
+    * @param value value
+    * @return the recorded witness, or {@link #NONE}
+    */
+   int get(int idx, int value){
+      return this.witness[idx][value - this.offset[idx]];
+   }
+   
+   /**
+    * Records {@code support} as the witness of value {@code value} of observation 
+    * {@code idx}; the record is undone upon backtracking.
+    * 
+    * @param idx observation index
+    * @param value value
+    * @param support witness
+    */
+   void set(int idx, int value, int support){
+      final int[] row = this.witness[idx];
+      final int position = value - this.offset[idx];
+      final int old = row[position];
+      if(old == support) return;
+      row[position] = support;
+      this.environment.save(new Operation(){
+         private static final long serialVersionUID = 1L;
+         @Override
+         public void undo(){
+            row[position] = old;
+         }
+      });
+   }
+}
@@ -0,0 +1,440 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import java.util.Arrays;
+
+import org.chocosolver.memory.IEnvironment;
+import org.chocosolver.memory.structure.Operation;
+import org.chocosolver.solver.variables.IntVar;
+
+import org.syat.statistics.CumulativeDistribution;
+
+import umontreal.iro.lecuyer.probdist.Distribution;
+
+/**
+ * Backtrackable sorted multiset of integer bounds, one per observation, used by the 
+ * one-sample Kolmogorov-Smirnov propagators.
+ * 
+ * Given the critical value of the test, the target distribution determines for each order 
+ * statistic the range of values it may take without the test rejecting the null hypothesis: 
+ * a lower limit for the multiset of upper bounds (statistic E1GeqD1) or an upper limit for 
+ * the multiset of lower bounds (statistic D1GeqE1). Limits are located via {@code inverseF}.
+ * 
+ * Conversely, the same limits indicate which values lead the test to reject the null hypothesis: 
+ * the multisets storing upper bounds against upper limits, or lower bounds against lower limits, 
+ * are used to enforce strict dominance.
+ * 
+ * The multiset is stored as a segment tree indexed by value over the union of the initial 
+ * observation domains. Each leaf holds the number of bounds and the number of order statistic 
+ * limits at its value; each node holds the sum and the largest prefix sum of its leaves. 
+ * The test is satisfied if and only if no prefix sum is positive, and the value an observation 
+ * may take is read from a single descent of the tree. Moving a bound costs {@code O(log |D|)}.
+ * 
+ * Changes to the bounds are recorded on the solver trail and undone upon backtracking.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+class SortedBounds {
+   
+   private final IEnvironment environment;
+   private final boolean upper;
+   private final int offset;
+   private final int width;
+   private final int leaves;
+   private final int n;
+   
+   private final int[] values;
+   private final int[] count;
+   private final int[] limit;
+   
+   private final int[] sum;
+   private final int[] prefix;
+   
+   /**
+    * Creates a multiset storing one bound for each observation
+    * 
+    * @param environment the solver environment
+    * @param upper {@code true} if the order statistics are checked against lower limits, as for upper 
+    * bounds, {@code false} if they are checked against upper limits, as for lower bounds
+    * @param bounds initial bounds, one per observation
+    * @param min smallest value a bound may take
+    * @param max largest value a bound may take
+    */
+   SortedBounds(IEnvironment environment, boolean upper, int[] bounds, int min, int max){
+      this.environment = environment;
+      this.upper = upper;
+      this.offset = upper ? min : min - 1;
+      this.width = max - this.offset + 1;
+      this.n = bounds.length;
+      int size = 1;
+      while(size < this.width) size <<= 1;
+      this.leaves = size;
+      this.values = bounds.clone();
+      this.count = new int[this.width];
+      this.limit = new int[this.width];
+      this.sum = new int[2*this.leaves];
+      this.prefix = new int[2*this.leaves];
+      for(int v : bounds){
+         this.count[v - this.offset]++;
+      }
+      rebuild();
+   }
+   
+   /**
+    * Creates a multiset storing the upper bounds of {@code observations}
+    *
+    * @param environment the solver environment
+    * @param observations observations
+    * @return the multiset of upper bounds
+    */
+   static SortedBounds ofUpperBounds(IEnvironment environment, IntVar[] observations){
+      int[] bounds = new int[observations.length];
+      for(int i = 0; i < observations.length; i++){
+         bounds[i] = observations[i].getUB();
+      }
+      return new SortedBounds(environment, true, bounds, getMin(observations), getMax(observations));
+   }
+
+   /**
+    * Creates a multiset storing the lower bounds of {@code observations}
+    *
+    * @param environment the solver environment
+    * @param observations observations
+    * @return the multiset of lower bounds
+    */
+   static SortedBounds ofLowerBounds(IEnvironment environment, IntVar[] observations){
+      int[] bounds = new int[observations.length];
+      for(int i = 0; i < observations.length; i++){
+         bounds[i] = observations[i].getLB();
+      }
+      return new SortedBounds(environment, false, bounds, getMin(observations), getMax(observations));
+   }
+
+   /**
+    * Creates a multiset storing the upper bounds of {@code observations} whose order statistics 
+    * are checked against upper limits (statistic D1GeqE1), to enforce the rejection of the null 
+    * hypothesis via {@link #smallestRejectedValue(int)}
+    *
+    * @param environment the solver environment
+    * @param observations observations
+    * @return the multiset of upper bounds
+    */
+   static SortedBounds ofUpperBoundsRejected(IEnvironment environment, IntVar[] observations){
+      int[] bounds = new int[observations.length];
+      for(int i = 0; i < observations.length; i++){
+         bounds[i] = observations[i].getUB();
+      }
+      return new SortedBounds(environment, false, bounds, getMin(observations), getMax(observations));
+   }
+
+   /**
+    * Creates a multiset storing the lower bounds of {@code observations} whose order statistics 
+    * are checked against lower limits (statistic E1GeqD1), to enforce the rejection of the null 
+    * hypothesis via {@link #largestRejectedValue(int)}
+    *
+    * @param environment the solver environment
+    * @param observations observations
+    * @return the multiset of lower bounds
+    */
+   static SortedBounds ofLowerBoundsRejected(IEnvironment environment, IntVar[] observations){
+      int[] bounds = new int[observations.length];
+      for(int i = 0; i < observations.length; i++){
+         bounds[i] = observations[i].getLB();
+      }
+      return new SortedBounds(environment, true, bounds, getMin(observations), getMax(observations));
+   }
+
+   private static int getMin(IntVar[] observations){
+      int min = Integer.MAX_VALUE;
+      for(IntVar observation : observations){
+         min = Math.min(min, observation.getLB());
+      }
+      return min;
+   }
+
+   private static int getMax(IntVar[] observations){
+      int max = Integer.MIN_VALUE;
+      for(IntVar observation : observations){
+         max = Math.max(max, observation.getUB());
+      }
+      return max;
+   }
+
+   /**
+    * Locates the limit of every order statistic for the target distribution {@code dist}. 
+    * This operation costs {@code O(n + |D|)} and must be repeated whenever the target 
+    * distribution changes.
+    * 
+    * @param dist the target distribution
+    * @param criticalValue critical value of the test
+    */
+   void setDistribution(Distribution dist, double criticalValue){
+      setDistribution(CumulativeDistribution.of(dist), criticalValue);
+   }
+   
+   /**
+    * Locates the limit of every order statistic for a target cdf that may not be a 
+    * distribution, such as the envelope of a parameterised distribution.
+    * 
+    * @param dist the target cdf and its inverse
+    * @param criticalValue critical value of the test
+    */
+   void setDistribution(CumulativeDistribution dist, double criticalValue){
+      Arrays.fill(this.limit, 0);
+      for(int k = 1; k <= this.n; k++){
+         int v = this.upper ? lowerLimit(dist, criticalValue, k) : upperLimit(dist, criticalValue, k);
+         if(v >= this.offset && v < this.offset + this.width){
+            this.limit[v - this.offset]++;
+         }
+      }
+      rebuild();
+   }
+   
+   /*
+    * Smallest value the k-th order statistic of the upper bounds may take, 
+    * that is the smallest v such that k/n-F(v) < criticalValue.
+    */
+   private int lowerLimit(CumulativeDistribution dist, double criticalValue, int k){
+      int min = this.offset;
+      int max = this.offset + this.width;
+      if(criticalValue <= 0) 
+         return max;
+      int v = guess(dist, (double)k/this.n - criticalValue, min, max);
+      while(v > min && (double)k/this.n - dist.cdf(v - 1) < criticalValue) v--;
+      while(v < max && !((double)k/this.n - dist.cdf(v) < criticalValue)) v++;
+      return v;
+   }
+   
+   /*
+    * Largest value the k-th order statistic of the lower bounds may take, 
+    * that is the largest v such that F(v)-(k-1)/n < criticalValue.
+    */
+   private int upperLimit(CumulativeDistribution dist, double criticalValue, int k){
+      int min = this.offset;
+      int max = this.offset + this.width - 1;
+      if(criticalValue <= 0) 
+         return min;
+      int v = guess(dist, (double)(k-1)/this.n + criticalValue, min, max);
+      while(v < max && dist.cdf(v + 1) - (double)(k-1)/this.n < criticalValue) v++;
+      while(v > min && !(dist.cdf(v) - (double)(k-1)/this.n < criticalValue)) v--;
+      return v;
+   }
+   
+   private static int guess(CumulativeDistribution dist, double u, int min, int max){
+      if(u <= 0) return min;
+      if(u >= 1) return max;
+      double x = Math.ceil(dist.inverseF(u));
+      if(Double.isNaN(x) || x <= min) return min;
+      if(x >= max) return max;
+      return (int) x;
+   }
+   
+   /**
+    * Moves the bound of observation {@code idx} to {@code value}; the change is 
+    * undone upon backtracking.
+    * 
+    * @param idx observation index
+    * @param value new bound
+    */
+   void set(final int idx, int value){
+      final int old = this.values[idx];
+      if(old == value) return;
+      move(idx, value);
+      this.environment.save(new Operation(){
+         private static final long serialVersionUID = 1L;
+         @Override
+         public void undo(){
+            move(idx, old);
+         }
+      });
+   }
+   
+   /**
+    * Bound currently stored for observation {@code idx}
+    * 
+    * @param idx observation index
+    * @return the bound stored for observation {@code idx}
+    */
+   int get(int idx){
+      return this.values[idx];
+   }
+   
+   /**
+    * Checks whether the bounds satisfy the test
+    * 
+    * @return {@code true} if the test does not reject the null hypothesis
+    */
+   boolean isSatisfied(){
+      return this.prefix[1] <= 0;
+   }
+   
+   /**
+    * Smallest value observation {@code idx} may take for the test not to reject the null 
+    * hypothesis, the other observations being fixed to their upper bounds. The result only 
+    * depends on the bounds smaller than the bound of {@code idx}. 
+    * If no such value exists, the method returns a value larger than any upper bound.
+    * 
+    * @param idx observation index
+    * @return the smallest supported value
+    */
+   int smallestSupportedValue(int idx){
+      if(!isSatisfied()) 
+         return this.offset + this.width;
+      int leaf = rightmost(1, 0, this.leaves, 0, this.values[idx] - this.offset, 0);
+      return leaf < 0 ? this.offset : this.offset + leaf + 1;
+   }
+   
+   /**
+    * Largest value observation {@code idx} may take for the test not to reject the null 
+    * hypothesis, the other observations being fixed to their lower bounds. The result only 
+    * depends on the bounds larger than the bound of {@code idx}. 
+    * If no such value exists, the method returns a value smaller than any lower bound.
+    * 
+    * @param idx observation index
+    * @return the largest supported value
+    */
+   int largestSupportedValue(int idx){
+      if(!isSatisfied()) 
+         return this.offset;
+      int leaf = leftmost(1, 0, this.leaves, 0, this.values[idx] - this.offset, 0);
+      return leaf < 0 ? this.offset + this.width - 1 : this.offset + leaf;
+   }
+   
+   /**
+    * Smallest value observation {@code idx} may take for the test to reject the null 
+    * hypothesis, the other observations being fixed to the bounds stored; to be used on 
+    * a multiset of lower bound type storing upper bounds. 
+    * If no such value exists, the method returns a value larger than any bound; if every 
+    * value leads to a rejection, it returns a value smaller than any bound.
+    * 
+    * @param idx observation index
+    * @return the smallest rejected value
+    */
+   int smallestRejectedValue(int idx){
+      if(isSatisfied())
+         return this.offset + this.width;
+      // moving the observation below its bound decreases the prefix sums in between by one
+      int first = leftmost(1, 0, this.leaves, 0, 0, 1);
+      int last = rightmost(1, 0, this.leaves, 0, this.width, 1);
+      if(this.prefix[1] > 1 || this.offset + last >= this.values[idx])
+         return this.offset;
+      return this.offset + first + 1;
+   }
+   
+   /**
+    * Largest value observation {@code idx} may take for the test to reject the null 
+    * hypothesis, the other observations being fixed to the bounds stored; to be used on 
+    * a multiset of upper bound type storing lower bounds. 
+    * If no such value exists, the method returns a value smaller than any bound; if every 
+    * value leads to a rejection, it returns a value larger than any bound.
+    * 
+    * @param idx observation index
+    * @return the largest rejected value
+    */
+   int largestRejectedValue(int idx){
+      if(isSatisfied())
+         return this.offset - 1;
+      // moving the observation above its bound decreases the prefix sums in between by one
+      int first = leftmost(1, 0, this.leaves, 0, 0, 1);
+      int last = rightmost(1, 0, this.leaves, 0, this.width, 1);
+      if(this.prefix[1] > 1 || this.offset + first < this.values[idx])
+         return this.offset + this.width;
+      return this.offset + last;
+   }
+   
+   /*
+    * Largest leaf below end in the subtree of node, covering leaves [low, high) and preceded 
+    * by leaves summing up to acc, whose prefix sum is at least threshold; -1 if none
+    */
+   private int rightmost(int node, int low, int high, int acc, int end, int threshold){
+      if(low >= end || acc + this.prefix[node] < threshold) return -1;
+      if(node >= this.leaves) return low;
+      int mid = (low + high) >>> 1;
+      int leaf = rightmost(2*node + 1, mid, high, acc + this.sum[2*node], end, threshold);
+      return leaf >= 0 ? leaf : rightmost(2*node, low, mid, acc, end, threshold);
+   }
+   
+   /*
+    * Smallest leaf from begin in the subtree of node, covering leaves [low, high) and preceded 
+    * by leaves summing up to acc, whose prefix sum is at least threshold; -1 if none
+    */
+   private int leftmost(int node, int low, int high, int acc, int begin, int threshold){
+      if(high <= begin || acc + this.prefix[node] < threshold) return -1;
+      if(node >= this.leaves) return low;
+      int mid = (low + high) >>> 1;
+      int leaf = leftmost(2*node, low, mid, acc, begin, threshold);
+      return leaf >= 0 ? leaf : leftmost(2*node + 1, mid, high, acc + this.sum[2*node], begin, threshold);
+   }
+   
+   private void move(int idx, int value){
+      add(this.values[idx], -1);
+      add(value, 1);
+      this.values[idx] = value;
+   }
+   
+   private void add(int value, int delta){
+      int i = value - this.offset;
+      this.count[i] += delta;
+      int node = this.leaves + i;
+      setLeaf(node);
+      for(node >>= 1; node > 0; node >>= 1){
+         refresh(node);
+      }
+   }
+   
+   /*
+    * Upper bounds: number of bounds minus number of order statistics allowed at the value,
+    * lower bounds: number of order statistics required at the value minus number of bounds.
+    */
+   private void setLeaf(int node){
+      int i = node - this.leaves;
+      int weight = 0;
+      if(i < this.width){
+         weight = this.upper ? this.count[i] - this.limit[i] : this.limit[i] - this.count[i];
+      }
+      this.sum[node] = weight;
+      this.prefix[node] = weight;
+   }
+   
+   private void refresh(int node){
+      int left = 2*node;
+      int right = left + 1;
+      this.sum[node] = this.sum[left] + this.sum[right];
+      this.prefix[node] = Math.max(this.prefix[left], this.sum[left] + this.prefix[right]);
+   }
+   
+   private void rebuild(){
+      for(int node = this.leaves; node < 2*this.leaves; node++){
+         setLeaf(node);
+      }
+      for(int node = this.leaves - 1; node > 0; node--){
+         refresh(node);
+      }
+   }
+}
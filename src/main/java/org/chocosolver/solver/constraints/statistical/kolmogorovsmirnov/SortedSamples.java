@@ -0,0 +1,135 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import java.util.Arrays;
+
+import org.chocosolver.solver.variables.IntVar;
+
+/**
+ * Sorted samples of observation bounds used by the two-sample Kolmogorov-Smirnov 
+ * propagators, so that the test statistics can be computed in a single merge pass.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+final class SortedSamples {
+   
+   private SortedSamples(){}
+   
+   /**
+    * Stores the sorted bounds of {@code observations} in {@code bounds}
+    * 
+    * @param observations observations
+    * @param upper {@code true} for upper bounds, {@code false} for lower bounds
+    * @param bounds destination array
+    */
+   static void sortBounds(IntVar[] observations, boolean upper, double[] bounds){
+      for(int j = 0; j < observations.length; j++){
+         bounds[j] = upper ? observations[j].getUB() : observations[j].getLB();
+      }
+      Arrays.sort(bounds);
+   }
+   
+   /**
+    * Copies the sorted array {@code sorted} into {@code sample}, replacing one occurrence of 
+    * {@code bound} by {@code value} and keeping the result sorted; this costs {@code O(n)}.
+    * 
+    * @param sorted sorted array that contains {@code bound}
+    * @param bound value to be removed
+    * @param value value to be inserted
+    * @param sample destination array, distinct from {@code sorted}
+    */
+   static void replace(double[] sorted, double bound, double value, double[] sample){
+      boolean removed = false;
+      boolean inserted = false;
+      int k = 0;
+      for(int j = 0; j < sorted.length; j++){
+         if(!removed && sorted[j] == bound){
+            removed = true;
+            continue;
+         }
+         if(!inserted && value < sorted[j]){
+            sample[k++] = value;
+            inserted = true;
+         }
+         sample[k++] = sorted[j];
+      }
+      if(!inserted)
+         sample[k] = value;
+   }
+   
+   /**
+    * Lower bound on statistic {@code E1GeqE2} of two sorted samples: the largest difference 
+    * between the first and the second empirical distribution functions. Unlike the statistic, 
+    * the bound never increases with the values of the first sample and never decreases with 
+    * the values of the second sample.
+    * 
+    * @param sorted1 first sample, sorted in increasing order
+    * @param sorted2 second sample, sorted in increasing order
+    * @return the lower bound
+    */
+   static double lowerStatisticE1GeqE2(double[] sorted1, double[] sorted2){
+      int n1 = sorted1.length;
+      int n2 = sorted2.length;
+      double supDiscrepancy = 0;
+      int j = 0;
+      for(int i = 0; i < n1; i++){
+         double observation = sorted1[i];
+         if(i + 1 < n1 && sorted1[i + 1] == observation) continue;
+         while(j < n2 && sorted2[j] <= observation) j++;
+         supDiscrepancy = Math.max(supDiscrepancy, (double)(i + 1)/n1 - (double)j/n2);
+      }
+      return supDiscrepancy;
+   }
+   
+   /**
+    * Upper bound on statistic {@code E1GeqE2} of two sorted samples: the largest difference 
+    * between the first empirical distribution function and the left limit of the second one. 
+    * Unlike the statistic, the bound never increases with the values of the first sample and 
+    * never decreases with the values of the second sample.
+    * 
+    * @param sorted1 first sample, sorted in increasing order
+    * @param sorted2 second sample, sorted in increasing order
+    * @return the upper bound
+    */
+   static double upperStatisticE1GeqE2(double[] sorted1, double[] sorted2){
+      int n1 = sorted1.length;
+      int n2 = sorted2.length;
+      double supDiscrepancy = 0;
+      int i = 0;
+      int j = 0;
+      while(i < n1 || j < n2){
+         double observation = j == n2 || (i < n1 && sorted1[i] <= sorted2[j]) ? sorted1[i] : sorted2[j];
+         int below2 = j;
+         while(i < n1 && sorted1[i] == observation) i++;
+         while(j < n2 && sorted2[j] == observation) j++;
+         supDiscrepancy = Math.max(supDiscrepancy, (double)i/n1 - (double)below2/n2);
+      }
+      return supDiscrepancy;
+   }
+}
@@ -0,0 +1,186 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.chocosolver.solver.variables.IntVar;
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+
+/**
+ * A {@link DistributionVar} that caches the cdf of another {@link DistributionVar}.
+ * 
+ * For every parameter vector evaluated, the cdf is stored over the integer support points 
+ * {@code [min..max]}, where the observations of a constraint take their values. Entries 
+ * are filled on demand and the least recently used parameter vectors are evicted once 
+ * {@code capacity} of them are held. Other points are delegated to the wrapped distribution.
+ * 
+ * Unlike other {@link DistributionVar} implementations, this class is not safe to call 
+ * concurrently, not even through the stateless methods, which fill the table: an instance 
+ * should be private to the constraint that created it, and a constraint to its solver.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public class CachedDistributionVar extends ContinuousDistribution implements DistributionVar {
+
+	/**
+	 * Parameter vector together with its cdf values, hashed on the parameters
+	 */
+	private static final class Entry {
+		double[] parameters;
+		final double[] values;
+		
+		Entry(double[] parameters, double[] values) {
+			this.parameters = parameters;
+			this.values = values;
+		}
+		
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(this.parameters);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Entry && Arrays.equals(this.parameters, ((Entry)obj).parameters);
+		}
+	}
+	
+	private final DistributionVar dist;
+	private final int min;
+	private final int max;
+	private final Map<Entry, Entry> cache;
+	/* lookup key, which saves allocating one on every lookup */
+	private final Entry probe = new Entry(null, null);
+	/* last entry looked up, which saves hashing when parameters are evaluated in a row */
+	private Entry last;
+	/* parameters of the single argument methods */
+	private final double[] parameters;
+	
+	/**
+	 * Constructor for a cache over the integer support points {@code [min..max]}
+	 * 
+	 * @param dist the wrapped distribution
+	 * @param min the smallest support point
+	 * @param max the largest support point
+	 * @param capacity the largest number of parameter vectors held
+	 */
+	public CachedDistributionVar(DistributionVar dist, int min, int max, final int capacity) {
+		this.dist = dist;
+		this.min = min;
+		this.max = max;
+		this.parameters = new double[dist.getNumberOfVarParameters()];
+		this.cache = new LinkedHashMap<Entry, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Entry, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Cached cdf values for parameters {@code params}
+	 */
+	private double[] values(double[] params) {
+		Entry entry = this.last;
+		if(entry != null && Arrays.equals(entry.parameters, params))
+			return entry.values;
+		this.probe.parameters = params;
+		entry = this.cache.get(this.probe);
+		this.probe.parameters = null;
+		if(entry == null){
+			double[] values = new double[this.max - this.min + 1];
+			Arrays.fill(values, Double.NaN);
+			entry = new Entry(params.clone(), values);
+			this.cache.put(entry, entry);
+		}
+		this.last = entry;
+		return entry.values;
+	}
+	
+	public double cdf(double x, double[] params) {
+		int point = (int)x;
+		if(point != x || point < this.min || point > this.max)
+			return this.dist.cdf(x, params);
+		double[] values = values(params);
+		double value = values[point - this.min];
+		if(Double.isNaN(value))
+			value = values[point - this.min] = this.dist.cdf(x, params);
+		return value;
+	}
+	
+	public double inverseF(double u, double[] params) {
+		return this.dist.inverseF(u, params);
+	}
+	
+	public void setParameters(double[] params) {
+		System.arraycopy(params, 0, this.parameters, 0, this.parameters.length);
+	}
+	
+	public double density(double x) {
+		this.dist.setParameters(this.parameters);
+		return ((ContinuousDistribution)this.dist).density(x);
+	}
+	
+	public double cdf(double x) {
+		return cdf(x, this.parameters);
+	}
+	
+	public double inverseF(double u) {
+		return inverseF(u, this.parameters);
+	}
+	
+	public int getNumberOfVarParameters() {
+		return this.dist.getNumberOfVarParameters();
+	}
+
+	public IntVar[] getVarParatemers() {
+		return this.dist.getVarParatemers();
+	}
+
+	public double[] getParams() {
+		return this.parameters.clone();
+	}
+	
+	/**
+	 * Number of parameter vectors whose cdf is currently held
+	 * 
+	 * @return the number of parameter vectors held
+	 */
+	public int size() {
+		return this.cache.size();
+	}
+	
+	public String toString() {
+		return this.dist.toString();
+	}
+}
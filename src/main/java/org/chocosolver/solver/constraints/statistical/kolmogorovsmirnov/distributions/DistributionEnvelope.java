@@ -0,0 +1,173 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions;
+
+import java.util.Arrays;
+
+import org.chocosolver.solver.variables.IntVar;
+import org.syat.statistics.CumulativeDistribution;
+
+/**
+ * Lower or upper envelope of the cdf of a {@link DistributionVar} over a box of parameter values. 
+ * The envelope of a family of cdfs is a non-decreasing function, but it is not the cdf of a 
+ * distribution with a density, hence only the cdf and its inverse are available.
+ * 
+ * The cdf of the distribution is assumed to be monotone in each parameter when the other 
+ * parameters are fixed, which holds for location, scale and shape parameters. The envelope 
+ * at any point is then attained at a corner of the box, and it is computed with at most 
+ * {@code 2^k} cdf evaluations, {@code k} being the number of parameters, whatever the 
+ * size of the parameter domains.
+ * 
+ * The distribution is evaluated through its stateless methods, so it may be shared; the 
+ * envelope itself holds the box and should not be.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public class DistributionEnvelope implements CumulativeDistribution {
+
+	private final DistributionVar dist;
+	private final boolean upper;
+	private final double[] lowerParameters;
+	private final double[] upperParameters;
+	private final double[] corner;
+	
+	/**
+	 * Constructor for the envelope of {@code dist}
+	 * 
+	 * @param dist the parameterised distribution
+	 * @param upper {@code true} for the upper envelope (largest cdf), {@code false} for the lower envelope (smallest cdf)
+	 */
+	public DistributionEnvelope(DistributionVar dist, boolean upper) {
+		this.dist = dist;
+		this.upper = upper;
+		int k = dist.getNumberOfVarParameters();
+		this.lowerParameters = new double[k];
+		this.upperParameters = new double[k];
+		this.corner = new double[k];
+		// no box until the first call to setParameterBounds
+		Arrays.fill(this.lowerParameters, Double.NaN);
+		Arrays.fill(this.upperParameters, Double.NaN);
+	}
+	
+	/**
+	 * Sets the box to the current domain bounds of the distribution parameters
+	 */
+	public void setParameterBounds() {
+		IntVar[] parameters = this.dist.getVarParatemers();
+		for(int p = 0; p < parameters.length; p++){
+			this.lowerParameters[p] = parameters[p].getLB();
+			this.upperParameters[p] = parameters[p].getUB();
+		}
+	}
+	
+	/**
+	 * Sets the box to {@code [lower..upper]}
+	 * 
+	 * @param lower the smallest parameter values
+	 * @param upper the largest parameter values
+	 */
+	public void setParameterBounds(double[] lower, double[] upper) {
+		System.arraycopy(lower, 0, this.lowerParameters, 0, this.lowerParameters.length);
+		System.arraycopy(upper, 0, this.upperParameters, 0, this.upperParameters.length);
+	}
+	
+	/**
+	 * Restricts parameter {@code p} to a single value, the other parameters are left unchanged
+	 * 
+	 * @param p the parameter index
+	 * @param value the parameter value
+	 */
+	public void fixParameter(int p, double value) {
+		this.lowerParameters[p] = this.upperParameters[p] = value;
+	}
+	
+	/**
+	 * Checks whether the box is the one given by the current domain bounds of the distribution parameters
+	 * 
+	 * @return {@code true} if the box matches the parameter domains
+	 */
+	public boolean hasParameterBounds() {
+		IntVar[] parameters = this.dist.getVarParatemers();
+		for(int p = 0; p < parameters.length; p++){
+			if(this.lowerParameters[p] != parameters[p].getLB() || this.upperParameters[p] != parameters[p].getUB())
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Moves {@link #corner} to the corner of the box encoded by the bits of {@code mask}
+	 * 
+	 * @return {@code false} if the corner was already visited because of a degenerate parameter interval
+	 */
+	private boolean setCorner(int mask) {
+		for(int p = 0; p < this.corner.length; p++){
+			if((mask & (1 << p)) == 0){
+				this.corner[p] = this.lowerParameters[p];
+			}else if(this.lowerParameters[p] == this.upperParameters[p]){
+				return false;
+			}else{
+				this.corner[p] = this.upperParameters[p];
+			}
+		}
+		return true;
+	}
+	
+	public double cdf(double x) {
+		double envelope = Double.NaN;
+		for(int mask = 0; mask < (1 << this.corner.length); mask++){
+			if(!setCorner(mask))
+				continue;
+			double value = this.dist.cdf(x, this.corner);
+			if(mask == 0 || (this.upper ? value > envelope : value < envelope))
+				envelope = value;
+		}
+		return envelope;
+	}
+	
+	/**
+	 * The inverse of the upper envelope is the smallest inverse cdf over the corners of the box, 
+	 * and conversely for the lower envelope.
+	 */
+	public double inverseF(double u) {
+		double envelope = Double.NaN;
+		for(int mask = 0; mask < (1 << this.corner.length); mask++){
+			if(!setCorner(mask))
+				continue;
+			double value = this.dist.inverseF(u, this.corner);
+			if(mask == 0 || (this.upper ? value < envelope : value > envelope))
+				envelope = value;
+		}
+		return envelope;
+	}
+	
+	public String toString() {
+		return (this.upper ? "upper" : "lower") + " envelope of " + this.dist.toString() + 
+				" over " + Arrays.toString(this.lowerParameters) + " - " + Arrays.toString(this.upperParameters);
+	}
+}
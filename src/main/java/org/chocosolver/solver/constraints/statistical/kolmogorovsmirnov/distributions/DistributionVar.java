@@ -32,6 +32,15 @@ import umontreal.iro.lecuyer.probdist.Distribution;
 /**
  * Interface for a parameterised distribution
  * 
+ * Propagators evaluate the distribution through {@link #cdf(double, double[])} and 
+ * {@link #inverseF(double, double[])}, which take the parameters as arguments and do not 
+ * change the distribution, so that a single instance can be shared between constraints, 
+ * propagators and concurrent solvers. The parameters set by {@link #setParameters(double[])} 
+ * only matter to the single argument methods inherited from {@link Distribution}.
+ * 
+ * The cdf is expected to be monotone in each parameter when the other parameters are fixed, 
+ * so that it can be bounded over parameter domains by a {@link DistributionEnvelope}.
+ * 
  * @author Roberto Rossi
  *
  */
@@ -52,9 +61,28 @@ public interface DistributionVar extends Distribution {
 	public IntVar[] getVarParatemers();
 	
 	/**
-	 * Setter for distribution parameters
+	 * Setter for distribution parameters used by the single argument methods; 
+	 * an instance whose parameters are set should not be shared
 	 * 
 	 * @param parameters the distribution parameters
 	 */
 	public void setParameters(double[] parameters);
+	
+	/**
+	 * Cumulative distribution function for the given parameters, safe to call concurrently
+	 * 
+	 * @param x the point at which the cdf is evaluated
+	 * @param parameters the distribution parameters
+	 * @return the cdf at {@code x}
+	 */
+	public double cdf(double x, double[] parameters);
+	
+	/**
+	 * Inverse cumulative distribution function for the given parameters, safe to call concurrently
+	 * 
+	 * @param u the probability at which the inverse cdf is evaluated
+	 * @param parameters the distribution parameters
+	 * @return the inverse cdf at {@code u}
+	 */
+	public double inverseF(double u, double[] parameters);
 }
@@ -59,12 +59,19 @@ public class ExponentialDistVar extends ContinuousDistribution implements Distri
 	}
 	
 	public double density(double x){
-		return (new ExponentialDist(this.curLambbda)).density(x);
+		return ExponentialDist.density(this.curLambbda, x);
 	}
 	
 	public double cdf(double x) {
-		// TODO Auto-generated method stub
-		return (new ExponentialDist(this.curLambbda)).cdf(x);
+		return ExponentialDist.cdf(this.curLambbda, x);
+	}
+	
+	public double cdf(double x, double[] params) {
+		return ExponentialDist.cdf(1.0/params[0], x);
+	}
+	
+	public double inverseF(double u, double[] params) {
+		return ExponentialDist.inverseF(1.0/params[0], u);
 	}
 	
 	public int getNumberOfVarParameters() {
@@ -0,0 +1,99 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+import umontreal.iro.lecuyer.probdist.NormalDist;
+
+/**
+ * Normal distribution parameterised by {@code mean} and {@code standardDeviation}
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public class NormalDistVar extends ContinuousDistribution implements DistributionVar {
+
+	IntVar mean;
+	IntVar standardDeviation;
+	double curMean;
+	double curStandardDeviation;
+	
+	/**
+	 * Constructor for a Normal distribution parameterised by {@code mean} and {@code standardDeviation}
+	 * 
+	 * @param mean the normal distribution mean
+	 * @param standardDeviation the normal distribution standard deviation, its domain should be strictly positive
+	 * @throws SolverException if the domain of {@code standardDeviation} is not strictly positive
+	 */
+	public NormalDistVar (IntVar mean, IntVar standardDeviation) {
+	      if(standardDeviation.getLB() <= 0)
+	         throw new SolverException("Normal distribution standard deviation should be strictly positive");
+	      this.mean = mean;
+	      this.standardDeviation = standardDeviation;
+	  }
+
+	public void setParameters(double[] params){
+		if(params.length != 2)
+			throw new SolverException("Normal distribution has two parameters");
+		this.curMean = params[0];
+		this.curStandardDeviation = params[1];
+	}
+	
+	public double density(double x){
+		return NormalDist.density(this.curMean, this.curStandardDeviation, x);
+	}
+	
+	public double cdf(double x) {
+		return NormalDist.cdf(this.curMean, this.curStandardDeviation, x);
+	}
+	
+	public double inverseF(double u) {
+		return NormalDist.inverseF(this.curMean, this.curStandardDeviation, u);
+	}
+	
+	public double cdf(double x, double[] params) {
+		return NormalDist.cdf(params[0], params[1], x);
+	}
+	
+	public double inverseF(double u, double[] params) {
+		return NormalDist.inverseF(params[0], params[1], u);
+	}
+	
+	public int getNumberOfVarParameters() {
+		return 2;
+	}
+
+	public IntVar[] getVarParatemers() {
+		return new IntVar[]{this.mean, this.standardDeviation};
+	}
+
+	public double[] getParams() {
+		return new double[]{this.curMean, this.curStandardDeviation};
+	}
+}
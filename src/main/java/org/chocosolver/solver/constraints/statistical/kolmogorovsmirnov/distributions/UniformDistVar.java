@@ -58,12 +58,19 @@ public class UniformDistVar extends ContinuousDistribution implements Distributi
 	}
 	
 	public double density(double x){
-		return (new UniformDist(0,this.curM)).density(x);
+		return UniformDist.density(0, this.curM, x);
 	}
 	
 	public double cdf(double x) {
-		// TODO Auto-generated method stub
-		return (new UniformDist(0,this.curM)).cdf(x);
+		return UniformDist.cdf(0, this.curM, x);
+	}
+	
+	public double cdf(double x, double[] params) {
+		return UniformDist.cdf(0, params[0], x);
+	}
+	
+	public double inverseF(double u, double[] params) {
+		return UniformDist.inverseF(0, params[0], u);
 	}
 	
 	public int getNumberOfVarParameters() {
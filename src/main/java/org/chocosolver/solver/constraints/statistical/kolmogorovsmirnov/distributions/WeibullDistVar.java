@@ -0,0 +1,99 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions;
+
+import org.chocosolver.solver.exception.SolverException;
+import org.chocosolver.solver.variables.IntVar;
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+import umontreal.iro.lecuyer.probdist.WeibullDist;
+
+/**
+ * Weibull distribution on {@code [0..inf)} parameterised by {@code shape} and {@code scale}
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public class WeibullDistVar extends ContinuousDistribution implements DistributionVar {
+
+	IntVar shape;
+	IntVar scale;
+	double curShape;
+	double curScale;
+	
+	/**
+	 * Constructor for a Weibull distribution parameterised by {@code shape} and {@code scale}
+	 * 
+	 * @param shape the Weibull distribution shape, its domain should be strictly positive
+	 * @param scale the Weibull distribution scale, its domain should be strictly positive
+	 * @throws SolverException if the domain of {@code shape} or {@code scale} is not strictly positive
+	 */
+	public WeibullDistVar (IntVar shape, IntVar scale) {
+	      if(shape.getLB() <= 0 || scale.getLB() <= 0)
+	         throw new SolverException("Weibull distribution shape and scale should be strictly positive");
+	      this.shape = shape;
+	      this.scale = scale;
+	  }
+
+	public void setParameters(double[] params){
+		if(params.length != 2)
+			throw new SolverException("Weibull distribution has two parameters");
+		this.curShape = params[0];
+		this.curScale = params[1];
+	}
+	
+	public double density(double x){
+		return WeibullDist.density(this.curShape, 1.0/this.curScale, 0, x);
+	}
+	
+	public double cdf(double x) {
+		return WeibullDist.cdf(this.curShape, 1.0/this.curScale, 0, x);
+	}
+	
+	public double inverseF(double u) {
+		return WeibullDist.inverseF(this.curShape, 1.0/this.curScale, 0, u);
+	}
+	
+	public double cdf(double x, double[] params) {
+		return WeibullDist.cdf(params[0], 1.0/params[1], 0, x);
+	}
+	
+	public double inverseF(double u, double[] params) {
+		return WeibullDist.inverseF(params[0], 1.0/params[1], 0, u);
+	}
+	
+	public int getNumberOfVarParameters() {
+		return 2;
+	}
+
+	public IntVar[] getVarParatemers() {
+		return new IntVar[]{this.shape, this.scale};
+	}
+
+	public double[] getParams() {
+		return new double[]{this.curShape, this.curScale};
+	}
+}
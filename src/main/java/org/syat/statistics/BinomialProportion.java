@@ -26,9 +26,7 @@
 
 package org.syat.statistics;
 
-import umontreal.iro.lecuyer.probdist.BetaDist;
 import umontreal.iro.lecuyer.probdist.EmpiricalDist;
-import umontreal.iro.lecuyer.probdist.NormalDist;
 
 public class BinomialProportion {
 	
@@ -52,11 +50,11 @@ public class BinomialProportion {
 		double alpha = Math.round(N*frequency) + 2;
 		double beta =  N + 4;
 		
-		NormalDist norm = new NormalDist(0,1);
+		double quantile = DistributionCache.normalInverseF01(1-(1-confidence)/2.0);
 	  	
 		double[] interval = new double[2];
-	  	interval[0] = alpha/beta-norm.inverseF(1-(1-confidence)/2.0)*Math.sqrt((alpha/beta)*(1-alpha/beta)/beta); 	/*LB*/
-	  	interval[1] = alpha/beta+norm.inverseF(1-(1-confidence)/2.0)*Math.sqrt((alpha/beta)*(1-alpha/beta)/beta); 	/*UB*/
+	  	interval[0] = alpha/beta-quantile*Math.sqrt((alpha/beta)*(1-alpha/beta)/beta); 	/*LB*/
+	  	interval[1] = alpha/beta+quantile*Math.sqrt((alpha/beta)*(1-alpha/beta)/beta); 	/*UB*/
 	  	
 		return interval;
 	}
@@ -65,18 +63,76 @@ public class BinomialProportion {
 		int alpha = (int) Math.round(N*frequency);
 		int beta =  N - (int) Math.round(N*frequency);
 		
-		BetaDist ub = null;
-		if(beta > 0)
-			ub = new BetaDist(alpha+1, beta);
-		
-		BetaDist lb = null;
-		if(alpha > 0)
-	  		lb = new BetaDist(alpha, beta+1);
-	  	
 		double[] interval = new double[2];
-	  	interval[0] = lb != null ? lb.inverseF((1-confidence)/2.0) : 0; 	/*LB*/
-	  	interval[1] = ub != null ? ub.inverseF(1-(1-confidence)/2.0) : 1; 	/*UB*/
+	  	interval[0] = alpha > 0 ? DistributionCache.betaInverseF(alpha, beta+1, (1-confidence)/2.0) : 0; 	/*LB*/
+	  	interval[1] = beta > 0 ? DistributionCache.betaInverseF(alpha+1, beta, 1-(1-confidence)/2.0) : 1; 	/*UB*/
 	  	
 		return interval;
 	}
+	
+	/*
+	 * Batch evaluation over replicated samples: samples holds the replications one after the 
+	 * other (row-major), each of size sampleSize; intervals are returned as consecutive 
+	 * (LB, UB) pairs.
+	 */
+	
+	private static int[] successes(double[] samples, int sampleSize){
+		if(sampleSize < 1 || samples.length % sampleSize != 0)
+			throw new IllegalArgumentException("Samples should be stored consecutively, each of size "+sampleSize);
+		int[] successes = new int[samples.length/sampleSize];
+		for(int r = 0, offset = 0; r < successes.length; r++, offset += sampleSize){
+			double sum = 0;
+			for(int i = offset; i < offset + sampleSize; i++)
+				sum += samples[i];
+			successes[r] = (int) Math.round(sampleSize*(sum/sampleSize));
+		}
+		return successes;
+	}
+	
+	/**
+	 * Batch version of {@link #computeAgrestiCoullCI(double)}.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param confidence confidence level
+	 * @return the lower and upper bound of the interval of each sample, one after the other
+	 */
+	public static double[] computeAgrestiCoullCI(double[] samples, int sampleSize, double confidence){
+		int[] successes = successes(samples, sampleSize);
+		double quantile = DistributionCache.normalInverseF01(1-(1-confidence)/2.0);
+		double beta = sampleSize + 4;
+		double[] intervals = new double[2*successes.length];
+		for(int r = 0; r < successes.length; r++){
+			double center = (successes[r] + 2)/beta;
+			double halfWidth = quantile*Math.sqrt(center*(1-center)/beta);
+			intervals[2*r] = center-halfWidth;
+			intervals[2*r+1] = center+halfWidth;
+		}
+		return intervals;
+	}
+	
+	/**
+	 * Batch version of {@link #computeClopperPearsonCI(double)}; the interval of each 
+	 * number of successes is computed once.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param confidence confidence level
+	 * @return the lower and upper bound of the interval of each sample, one after the other
+	 */
+	public static double[] computeClopperPearsonCI(double[] samples, int sampleSize, double confidence){
+		int[] successes = successes(samples, sampleSize);
+		double[][] bounds = new double[sampleSize + 1][];
+		double[] intervals = new double[2*successes.length];
+		for(int r = 0; r < successes.length; r++){
+			int alpha = successes[r];
+			if(alpha < 0 || alpha > sampleSize)
+				throw new IllegalArgumentException("Observations should be either 0 or 1");
+			if(bounds[alpha] == null)
+				bounds[alpha] = new BinomialProportion((double)alpha/sampleSize, sampleSize).computeClopperPearsonCI(confidence);
+			intervals[2*r] = bounds[alpha][0];
+			intervals[2*r+1] = bounds[alpha][1];
+		}
+		return intervals;
+	}
 }
@@ -0,0 +1,61 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syat.statistics;
+
+import umontreal.iro.lecuyer.probdist.Distribution;
+
+/**
+ * Cumulative distribution function and its inverse, the only operations the 
+ * Kolmogorov-Smirnov statistics need from a target distribution. Unlike a 
+ * {@link Distribution}, it does not need to be a proper distribution: bounds 
+ * on a family of cdfs may implement it too.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public interface CumulativeDistribution {
+	
+	double cdf(double x);
+	
+	double inverseF(double u);
+	
+	/**
+	 * @param dist a distribution
+	 * @return the cumulative distribution function of {@code dist} and its inverse
+	 */
+	static CumulativeDistribution of(final Distribution dist){
+		return new CumulativeDistribution(){
+			public double cdf(double x){
+				return dist.cdf(x);
+			}
+			
+			public double inverseF(double u){
+				return dist.inverseF(u);
+			}
+		};
+	}
+}
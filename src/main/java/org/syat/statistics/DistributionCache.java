@@ -0,0 +1,247 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syat.statistics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import umontreal.iro.lecuyer.probdist.BetaDist;
+import umontreal.iro.lecuyer.probdist.ChiSquareDist;
+import umontreal.iro.lecuyer.probdist.FisherFDist;
+import umontreal.iro.lecuyer.probdist.KolmogorovSmirnovDist;
+import umontreal.iro.lecuyer.probdist.NormalDist;
+import umontreal.iro.lecuyer.probdist.StudentDist;
+
+/**
+ * Process-wide cache of the quantiles and critical values of the distributions used by the tests 
+ * in this package, keyed by distribution family, parameters and probability. Quantiles are 
+ * computed by iterative root finding, and the tests request the same few (parameters, 
+ * probability) pairs over and over. Cdf values are not cached: their arguments are statistics 
+ * that seldom repeat, and one-off entries would only evict the quantiles that are reused.
+ * 
+ * The cache is a bounded LRU map shared by all threads; values are computed outside the 
+ * lock, so that concurrent misses on the same key compute the same value twice at worst. 
+ * Hits and misses are counted to help choosing the capacity.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public final class DistributionCache {
+	
+	public static final int DEFAULT_CAPACITY = 4096;
+	
+	private enum Function {
+		NORMAL_INVERSE_F, STUDENT_INVERSE_F, CHI_SQUARE_INVERSE_F, FISHER_F_INVERSE_F, BETA_INVERSE_F, 
+		KOLMOGOROV_SMIRNOV_INVERSE_F, KOLMOGOROV_SMIRNOV_CRITICAL_VALUE
+	}
+	
+	private static final class Key {
+		final Function function;
+		final double parameter1;
+		final double parameter2;
+		final double argument;
+		
+		Key(Function function, double parameter1, double parameter2, double argument) {
+			this.function = function;
+			this.parameter1 = parameter1;
+			this.parameter2 = parameter2;
+			this.argument = argument;
+		}
+		
+		@Override
+		public int hashCode() {
+			int hash = function.ordinal();
+			hash = 31*hash + Double.hashCode(parameter1);
+			hash = 31*hash + Double.hashCode(parameter2);
+			return 31*hash + Double.hashCode(argument);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+			Key key = (Key)obj;
+			return function == key.function && 
+					Double.compare(parameter1, key.parameter1) == 0 && 
+					Double.compare(parameter2, key.parameter2) == 0 && 
+					Double.compare(argument, key.argument) == 0;
+		}
+	}
+	
+	private static int capacity = DEFAULT_CAPACITY;
+	private static long hits;
+	private static long misses;
+	
+	private static final LinkedHashMap<Key, Double> values = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+			return size() > capacity;
+		}
+	};
+	
+	private DistributionCache(){}
+	
+	private static Double lookup(Key key){
+		synchronized(values){
+			Double value = values.get(key);
+			if(value != null)
+				hits++;
+			else
+				misses++;
+			return value;
+		}
+	}
+	
+	private static double store(Key key, double value){
+		synchronized(values){
+			values.put(key, value);
+		}
+		return value;
+	}
+	
+	public static double normalInverseF01(double u){
+		Key key = new Key(Function.NORMAL_INVERSE_F, 0, 1, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, NormalDist.inverseF01(u));
+	}
+	
+	public static double studentInverseF(int n, double u){
+		Key key = new Key(Function.STUDENT_INVERSE_F, n, 0, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, StudentDist.inverseF(n, u));
+	}
+	
+	public static double chiSquareInverseF(int n, double u){
+		Key key = new Key(Function.CHI_SQUARE_INVERSE_F, n, 0, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, ChiSquareDist.inverseF(n, u));
+	}
+	
+	public static double fisherFInverseF(int n1, int n2, double u){
+		Key key = new Key(Function.FISHER_F_INVERSE_F, n1, n2, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, FisherFDist.inverseF(n1, n2, u));
+	}
+	
+	public static double betaInverseF(double alpha, double beta, double u){
+		Key key = new Key(Function.BETA_INVERSE_F, alpha, beta, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, new BetaDist(alpha, beta).inverseF(u));
+	}
+	
+	public static double kolmogorovSmirnovInverseF(int n, double u){
+		Key key = new Key(Function.KOLMOGOROV_SMIRNOV_INVERSE_F, n, 0, u);
+		Double value = lookup(key);
+		return value != null ? value : store(key, KolmogorovSmirnovDist.inverseF(n, u));
+	}
+	
+	/**
+	 * Smallest statistic d such that {@code alpha >= 1-cdf(d)} for the Kolmogorov-Smirnov 
+	 * distribution of a sample of size {@code n}, see {@link KolmogorovSmirnovTest#criticalValueSingleTailed(int, double)}.
+	 * 
+	 * @param n sample size
+	 * @param alpha significance level
+	 * @return the critical value
+	 */
+	public static double kolmogorovSmirnovCriticalValue(int n, double alpha){
+		Key key = new Key(Function.KOLMOGOROV_SMIRNOV_CRITICAL_VALUE, n, 0, alpha);
+		Double value = lookup(key);
+		return value != null ? value : store(key, KolmogorovSmirnovTest.criticalValue(new KolmogorovSmirnovDist(n), alpha));
+	}
+	
+	public static long getHits(){
+		synchronized(values){
+			return hits;
+		}
+	}
+	
+	public static long getMisses(){
+		synchronized(values){
+			return misses;
+		}
+	}
+	
+	/**
+	 * @return the fraction of lookups answered by the cache since the counters were last reset
+	 */
+	public static double getHitRate(){
+		synchronized(values){
+			return hits + misses == 0 ? 0 : (double)hits/(hits + misses);
+		}
+	}
+	
+	public static int size(){
+		synchronized(values){
+			return values.size();
+		}
+	}
+	
+	public static int getCapacity(){
+		synchronized(values){
+			return capacity;
+		}
+	}
+	
+	/**
+	 * Sets the largest number of values kept, discarding the least recently used ones if needed.
+	 * 
+	 * @param capacity the capacity
+	 */
+	public static void setCapacity(int capacity){
+		if(capacity < 0)
+			throw new IllegalArgumentException("Capacity should not be negative");
+		synchronized(values){
+			DistributionCache.capacity = capacity;
+			Iterator<Key> eldest = values.keySet().iterator();
+			while(values.size() > capacity){
+				eldest.next();
+				eldest.remove();
+			}
+		}
+	}
+	
+	public static void resetCounters(){
+		synchronized(values){
+			hits = 0;
+			misses = 0;
+		}
+	}
+	
+	/**
+	 * Discards all values and resets the counters.
+	 */
+	public static void clear(){
+		synchronized(values){
+			values.clear();
+			hits = 0;
+			misses = 0;
+		}
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syat.statistics;
+
+import java.util.Random;
+
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+import umontreal.iro.lecuyer.probdist.Distribution;
+
+/**
+ * One-sample Kolmogorov-Smirnov test monitoring a stream of observations against a 
+ * target distribution over a window of {@code w} observations. A sliding window holds 
+ * the last {@code w} observations; tumbling windows hold consecutive, disjoint blocks of 
+ * {@code w} observations.
+ * 
+ * The observations of the window are kept in an order statistic tree (a treap) whose 
+ * nodes aggregate, over their subtree, the largest discrepancies between the empirical 
+ * and the target cdf; each observation costs O(log w) and one evaluation of the target cdf. 
+ * While a window is being filled the statistics are lower bounds of those of the complete 
+ * window, so that a rejection is raised as soon as it is certain; once the window is 
+ * complete the statistics coincide with those of {@link KolmogorovSmirnovTest}.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public class KolmogorovSmirnovMonitor {
+	
+	public enum Window {
+		SLIDING, TUMBLING
+	}
+	
+	public enum Test {
+		/** two tailed test, see {@link KolmogorovSmirnovTest#testE1NeqD1()} */
+		E1_NEQ_D1,
+		/** see {@link KolmogorovSmirnovTest#testE1GeqD1()} */
+		E1_GEQ_D1,
+		/** see {@link KolmogorovSmirnovTest#testD1GeqE1()} */
+		D1_GEQ_E1
+	}
+	
+	private static final int NIL = -1;
+	
+	Distribution dist;
+	Window window;
+	Test test;
+	double confidence;
+	double criticalValue;
+	
+	private final int windowSize;
+	/* observations of the window in arrival order; the slot of an observation is its node */
+	private final double[] observations;
+	private int first;
+	private int n;
+	
+	/* treap ordered by observation and slot, with the subtree aggregates 
+	 * max(rank-w*F(x)) and max(w*F(x)-rank), ranks being local to the subtree */
+	private final double[] cdf;
+	private final int[] priority;
+	private final int[] left;
+	private final int[] right;
+	private final int[] size;
+	private final double[] maxAbove;
+	private final double[] maxBelow;
+	private int root = NIL;
+	private final Random random = new Random(1);
+	
+	public KolmogorovSmirnovMonitor(Distribution dist, int windowSize, Window window, Test test, double confidence) throws NullPointerException{
+		if(!(dist instanceof ContinuousDistribution)) 
+			throw new NullPointerException("Theoretical distribution should not be discrete");
+		if(windowSize < 1)
+			throw new IllegalArgumentException("Window size should be positive");
+		this.dist = dist;
+		this.window = window;
+		this.test = test;
+		this.confidence = confidence;
+		this.criticalValue = test == Test.E1_NEQ_D1 ? 
+				KolmogorovSmirnovTest.criticalValueTwoTailed(windowSize, confidence) : 
+				KolmogorovSmirnovTest.criticalValueSingleTailed(windowSize, confidence);
+		this.windowSize = windowSize;
+		this.observations = new double[windowSize];
+		this.cdf = new double[windowSize];
+		this.priority = new int[windowSize];
+		this.left = new int[windowSize];
+		this.right = new int[windowSize];
+		this.size = new int[windowSize];
+		this.maxAbove = new double[windowSize];
+		this.maxBelow = new double[windowSize];
+	}
+	
+	/**
+	 * Adds an observation to the stream.
+	 * 
+	 * @param observation the observation
+	 * @return {@code true} if the null hypothesis is rejected for the current window
+	 */
+	public boolean add(double observation){
+		if(Double.isNaN(observation))
+			throw new IllegalArgumentException("Observations should not be NaN");
+		if(n == windowSize){
+			if(window == Window.TUMBLING){
+				root = NIL;
+				n = 0;
+			}else{
+				root = remove(root, first);
+				first = (first + 1) % windowSize;
+				n--;
+			}
+		}
+		int node = (first + n) % windowSize;
+		observations[node] = observation;
+		cdf[node] = dist.cdf(observation);
+		priority[node] = random.nextInt();
+		left[node] = NIL;
+		right[node] = NIL;
+		update(node);
+		root = insert(root, node);
+		n++;
+		return isRejected();
+	}
+	
+	/**
+	 * Adds a batch of observations to the stream.
+	 * 
+	 * @param observations the observations, in arrival order
+	 * @return the index of the first observation after which the null hypothesis is 
+	 * rejected for the current window, or -1 if it is never rejected
+	 */
+	public int add(double[] observations){
+		int rejection = -1;
+		for(int i = 0; i < observations.length; i++){
+			if(add(observations[i]) && rejection < 0)
+				rejection = i;
+		}
+		return rejection;
+	}
+	
+	/**
+	 * Discards the observations of the current window.
+	 */
+	public void reset(){
+		root = NIL;
+		first = 0;
+		n = 0;
+	}
+	
+	/**
+	 * @return the number of observations in the current window
+	 */
+	public int getN(){
+		return n;
+	}
+	
+	public boolean isComplete(){
+		return n == windowSize;
+	}
+	
+	public double getCriticalValue(){
+		return this.criticalValue;
+	}
+	
+	/**
+	 * @return {@code true} if the null hypothesis of the monitored test is rejected for the 
+	 * current window, that is, if the statistic is greater or equal to the critical value
+	 */
+	public boolean isRejected(){
+		return n > 0 && getStatistic() >= this.criticalValue;
+	}
+	
+	/**
+	 * @return the statistic of the monitored test
+	 */
+	public double getStatistic(){
+		switch(test){
+		case E1_GEQ_D1:
+			return KSstatisticsSingleTailedE1GeqD1();
+		case D1_GEQ_E1:
+			return KSstatisticsSingleTailedD1GeqE1();
+		default:
+			return KSstatisticsTwoTailed();
+		}
+	}
+	
+	public double KSstatisticsTwoTailed(){
+		return Math.max(KSstatisticsSingleTailedE1GeqD1(), KSstatisticsSingleTailedD1GeqE1());
+	}
+	
+	public double KSstatisticsSingleTailedE1GeqD1(){
+		// ranks can only grow until the window is complete
+		return root == NIL ? 0 : Math.max(0, maxAbove[root]/windowSize);
+	}
+	
+	public double KSstatisticsSingleTailedD1GeqE1(){
+		// ranks can grow by as many observations as are missing from the window
+		return root == NIL ? 0 : Math.max(0, (maxBelow[root] + 1 - (windowSize - n))/windowSize);
+	}
+	
+	private boolean precedes(int a, int b){
+		return observations[a] < observations[b] || (observations[a] == observations[b] && a < b);
+	}
+	
+	private void update(int node){
+		int l = left[node];
+		int r = right[node];
+		int rank = (l == NIL ? 0 : size[l]) + 1;
+		double weight = windowSize*cdf[node];
+		double above = rank - weight;
+		double below = weight - rank;
+		if(l != NIL){
+			above = Math.max(above, maxAbove[l]);
+			below = Math.max(below, maxBelow[l]);
+		}
+		size[node] = rank;
+		if(r != NIL){
+			above = Math.max(above, maxAbove[r] + rank);
+			below = Math.max(below, maxBelow[r] - rank);
+			size[node] += size[r];
+		}
+		maxAbove[node] = above;
+		maxBelow[node] = below;
+	}
+	
+	private int insert(int tree, int node){
+		if(tree == NIL)
+			return node;
+		if(priority[node] > priority[tree]){
+			split(tree, node);
+			left[node] = splitLeft;
+			right[node] = splitRight;
+			update(node);
+			return node;
+		}
+		if(precedes(node, tree))
+			left[tree] = insert(left[tree], node);
+		else
+			right[tree] = insert(right[tree], node);
+		update(tree);
+		return tree;
+	}
+	
+	private int remove(int tree, int node){
+		if(tree == node)
+			return merge(left[node], right[node]);
+		if(precedes(node, tree))
+			left[tree] = remove(left[tree], node);
+		else
+			right[tree] = remove(right[tree], node);
+		update(tree);
+		return tree;
+	}
+	
+	/* results of split */
+	private int splitLeft;
+	private int splitRight;
+	
+	/* splits tree into the nodes preceding node and the others */
+	private void split(int tree, int node){
+		if(tree == NIL){
+			splitLeft = NIL;
+			splitRight = NIL;
+		}else if(precedes(tree, node)){
+			split(right[tree], node);
+			right[tree] = splitLeft;
+			update(tree);
+			splitLeft = tree;
+		}else{
+			split(left[tree], node);
+			left[tree] = splitRight;
+			update(tree);
+			splitRight = tree;
+		}
+	}
+	
+	private int merge(int a, int b){
+		if(a == NIL)
+			return b;
+		if(b == NIL)
+			return a;
+		if(priority[a] > priority[b]){
+			right[a] = merge(right[a], b);
+			update(a);
+			return a;
+		}else{
+			left[b] = merge(a, left[b]);
+			update(b);
+			return b;
+		}
+	}
+}
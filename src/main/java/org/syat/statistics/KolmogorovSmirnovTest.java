@@ -36,6 +36,16 @@ public class KolmogorovSmirnovTest {
 	Distribution dist;
 	double confidence;
 	KolmogorovSmirnovDist ksDist;
+	/*
+	 * Statistics D, D+ and D- and their p-values, computed on first use; the empirical 
+	 * distribution should not be modified once the test has been evaluated.
+	 */
+	private double[] statistics;
+	private double[] pValues;
+	
+	private static final int TWO_TAILED = 0;
+	private static final int E1_GEQ_D1 = 1;
+	private static final int D1_GEQ_E1 = 2;
 	
 	/*
 	 * http://www.math.nsysu.edu.tw/~lomn/homepage/class/92/kstest/kolmogorov.pdf
@@ -53,8 +63,67 @@ public class KolmogorovSmirnovTest {
 		this.ksDist = new KolmogorovSmirnovDist(emp.getN());
 	}
 	
+	/**
+	 * Critical value of the single tailed tests {@link #testE1GeqD1()} and {@link #testD1GeqE1()}: 
+	 * for a sample of size {@code n} a test rejects the null hypothesis if and only if 
+	 * the relevant statistic is greater or equal to this value.
+	 * 
+	 * @param n sample size
+	 * @param confidence test confidence level
+	 * @return the critical value
+	 */
+	public static double criticalValueSingleTailed(int n, double confidence){
+		return DistributionCache.kolmogorovSmirnovCriticalValue(n, (1.0-confidence)*2);
+	}
+	
+	/**
+	 * Critical value of the two tailed test {@link #testE1NeqD1()}: for a sample of size {@code n} 
+	 * the test rejects the null hypothesis if and only if the statistic is greater or equal 
+	 * to this value.
+	 * 
+	 * @param n sample size
+	 * @param confidence test confidence level
+	 * @return the critical value
+	 */
+	public static double criticalValueTwoTailed(int n, double confidence){
+		return DistributionCache.kolmogorovSmirnovCriticalValue(n, 1.0-confidence);
+	}
+	
+	/*
+	 * Smallest statistic d such that alpha >= 1-ksDist.cdf(d). The quantile returned by inverseF is 
+	 * only used as a starting point: bisection on the p-value narrows the bracket down to adjacent 
+	 * doubles, so that comparing a statistic against the critical value yields exactly the same 
+	 * outcome as comparing its p-value against alpha.
+	 */
+	static double criticalValue(KolmogorovSmirnovDist ksDist, double alpha){
+		double low = 0;
+		double high = 1;
+		if(alpha >= 1.0-ksDist.cdf(low))
+			return low;
+		if(alpha < 1.0-ksDist.cdf(high))
+			return Double.POSITIVE_INFINITY;
+		if(alpha > 0 && alpha < 1){
+			double quantile = ksDist.inverseF(1.0-alpha);
+			if(quantile > low && quantile < high){
+				if(alpha >= 1.0-ksDist.cdf(quantile))
+					high = quantile;
+				else
+					low = quantile;
+			}
+		}
+		while(true){
+			double mid = low + (high-low)/2;
+			if(mid <= low || mid >= high)
+				return high;
+			if(alpha >= 1.0-ksDist.cdf(mid))
+				high = mid;
+			else
+				low = mid;
+		}
+	}
+	
 	public double getKSQuantile(){
-		return this.ksDist.inverseF(this.confidence);
+		return DistributionCache.kolmogorovSmirnovInverseF(this.ksDist.getN(), this.confidence);
 	}
 	
 	public boolean testE1NeqD1(){
@@ -69,66 +138,125 @@ public class KolmogorovSmirnovTest {
 		return (1.0-confidence)*2 >= this.pValueD1GeqE1() ? false : true;
 	}
 	
-	public double KSstatisticsTwoTailed(){
-		double supDiscrepancy = 0;
-		for(int i = 0; i < emp.getN(); i++){
+	private double[] statistics(){
+		if(this.statistics == null){
+			double[] statistics = new double[3];
+			statistics(this.emp, this.dist, statistics);
+			this.statistics = statistics;
+		}
+		return this.statistics;
+	}
+	
+	private double pValue(int statistic){
+		if(this.pValues == null){
+			double[] statistics = statistics();
+			double[] pValues = new double[3];
+			for(int i = 0; i < pValues.length; i++)
+				pValues[i] = 1.0-this.ksDist.cdf(statistics[i]);
+			this.pValues = pValues;
+		}
+		return this.pValues[statistic];
+	}
+	
+	/**
+	 * Computes the statistics D, D+ and D- in a single pass over the sorted observations, 
+	 * evaluating the cdf of {@code dist} once per distinct observation. The results are 
+	 * identical to those of {@link #KSstatisticsTwoTailed(EmpiricalDist, Distribution)}, 
+	 * {@link #KSstatisticsSingleTailedE1GeqD1(EmpiricalDist, Distribution)} and 
+	 * {@link #KSstatisticsSingleTailedD1GeqE1(EmpiricalDist, Distribution)}.
+	 * 
+	 * @param emp the empirical distribution
+	 * @param dist the target distribution
+	 * @param statistics receives D, D+ and D- in this order
+	 */
+	public static void statistics(EmpiricalDist emp, Distribution dist, double[] statistics){
+		int n = emp.getN();
+		double supE1GeqD1 = 0;
+		double supD1GeqE1 = 0;
+		for(int i = 0; i < n;){
+			// ties share the step of the empirical cdf from i/n to j/n
 			double observation = emp.getObs(i);
-			double discrepancy = 
-					Math.max(
-					Math.abs(emp.cdf(observation)-dist.cdf(observation)),
-					i == 0 ? Math.abs(0-dist.cdf(observation)) : Math.abs(emp.cdf(emp.getObs(i-1))-dist.cdf(observation))
-					);
-			if(discrepancy>supDiscrepancy){
-				supDiscrepancy = discrepancy;
-			}
+			int j = i + 1;
+			while(j < n && emp.getObs(j) == observation) j++;
+			double cdf = dist.cdf(observation);
+			double discrepancy = (double)j/n - cdf;
+			if(discrepancy > supE1GeqD1)
+				supE1GeqD1 = discrepancy;
+			discrepancy = cdf - (double)i/n;
+			if(discrepancy > supD1GeqE1)
+				supD1GeqE1 = discrepancy;
+			i = j;
 		}
-		return supDiscrepancy;
+		statistics[TWO_TAILED] = Math.max(supE1GeqD1, supD1GeqE1);
+		statistics[E1_GEQ_D1] = supE1GeqD1;
+		statistics[D1_GEQ_E1] = supD1GeqE1;
+	}
+	
+	public double KSstatisticsTwoTailed(){
+		return statistics()[TWO_TAILED];
+	}
+	
+	public static double KSstatisticsTwoTailed(EmpiricalDist emp, Distribution dist){
+		return Math.max(KSstatisticsSingleTailedE1GeqD1(emp, dist), KSstatisticsSingleTailedD1GeqE1(emp, dist));
 	}
 	
 	public double KSstatisticsSingleTailedE1GeqD1(){
+		return statistics()[E1_GEQ_D1];
+	}
+	
+	public static double KSstatisticsSingleTailedE1GeqD1(EmpiricalDist emp, Distribution dist){
+		return KSstatisticsSingleTailedE1GeqD1(emp, CumulativeDistribution.of(dist));
+	}
+	
+	public static double KSstatisticsSingleTailedE1GeqD1(EmpiricalDist emp, CumulativeDistribution dist){
+		int n = emp.getN();
 		double supDiscrepancy = 0;
-		for(int i = 0; i < emp.getN(); i++){
+		for(int i = 0; i < n;){
 			double observation = emp.getObs(i);
-			double discrepancy = 
-					Math.max(
-					(emp.cdf(observation)-dist.cdf(observation)),
-					i == 0 ? (0-dist.cdf(observation)) : (emp.cdf(emp.getObs(i-1))-dist.cdf(observation))
-					);
+			int j = i + 1;
+			while(j < n && emp.getObs(j) == observation) j++;
+			double discrepancy = (double)j/n - dist.cdf(observation);
 			if(discrepancy>supDiscrepancy){
 				supDiscrepancy = discrepancy;
 			}
+			i = j;
 		}
 		return supDiscrepancy;
 	}
 	
 	public double KSstatisticsSingleTailedD1GeqE1(){
+		return statistics()[D1_GEQ_E1];
+	}
+	
+	public static double KSstatisticsSingleTailedD1GeqE1(EmpiricalDist emp, Distribution dist){
+		return KSstatisticsSingleTailedD1GeqE1(emp, CumulativeDistribution.of(dist));
+	}
+	
+	public static double KSstatisticsSingleTailedD1GeqE1(EmpiricalDist emp, CumulativeDistribution dist){
+		int n = emp.getN();
 		double supDiscrepancy = 0;
-		for(int i = 0; i < emp.getN(); i++){
+		for(int i = 0; i < n;){
 			double observation = emp.getObs(i);
-			double discrepancy = 
-					Math.max(
-					(dist.cdf(observation)-emp.cdf(observation)),
-					i == 0 ? (dist.cdf(observation)-0) : (dist.cdf(observation)-emp.cdf(emp.getObs(i-1)))
-					);
+			int j = i + 1;
+			while(j < n && emp.getObs(j) == observation) j++;
+			double discrepancy = dist.cdf(observation) - (double)i/n;
 			if(discrepancy>supDiscrepancy){
 				supDiscrepancy = discrepancy;
 			}
+			i = j;
 		}
 		return supDiscrepancy;
 	}
 	
 	public double pValueE1NeqD1(){
-		double supDiscrepancy = this.KSstatisticsTwoTailed();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return pValue(TWO_TAILED);
 	}
 	
 	public double pValueE1GeqD1(){
-		double supDiscrepancy = this.KSstatisticsSingleTailedE1GeqD1();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return pValue(E1_GEQ_D1);
 	}
 	
 	public double pValueD1GeqE1(){
-		double supDiscrepancy = this.KSstatisticsSingleTailedD1GeqE1();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return pValue(D1_GEQ_E1);
 	}
 }
@@ -27,13 +27,11 @@
 package org.syat.statistics;
 
 import umontreal.iro.lecuyer.probdist.EmpiricalDist;
-import umontreal.iro.lecuyer.probdist.KolmogorovSmirnovDist;
 
 public class KolmogorovSmirnovTestTwoSamples {
 	EmpiricalDist emp1;
 	EmpiricalDist emp2;
 	double confidence;
-	KolmogorovSmirnovDist ksDist;
 	
 	/*
 	 * http://www.math.nsysu.edu.tw/~lomn/homepage/class/92/kstest/kolmogorov.pdf
@@ -44,11 +42,38 @@ public class KolmogorovSmirnovTestTwoSamples {
 		this.emp1 = emp1;
 		this.emp2 = emp2;
 		this.confidence = confidence;
-		this.ksDist = new KolmogorovSmirnovDist((emp1.getN()*emp2.getN())/(emp1.getN()+emp2.getN()));
+	}
+	
+	/**
+	 * Critical value of the single tailed tests {@link #testE1GeqE2()} and {@link #testE2GeqE1()}: 
+	 * for samples of size {@code n1} and {@code n2} a test rejects the null hypothesis if and only if 
+	 * the relevant statistic is greater or equal to this value.
+	 * 
+	 * @param n1 size of the first sample
+	 * @param n2 size of the second sample
+	 * @param confidence test confidence level
+	 * @return the critical value
+	 */
+	public static double criticalValueSingleTailed(int n1, int n2, double confidence){
+		return KolmogorovSmirnovTwoSamplesDist.criticalValue(n1, n2, (1.0-confidence)*2);
+	}
+	
+	/**
+	 * Critical value of the two tailed test {@link #testE2NeqE1()}: for samples of size {@code n1} 
+	 * and {@code n2} the test rejects the null hypothesis if and only if the statistic is greater 
+	 * or equal to this value.
+	 * 
+	 * @param n1 size of the first sample
+	 * @param n2 size of the second sample
+	 * @param confidence test confidence level
+	 * @return the critical value
+	 */
+	public static double criticalValueTwoTailed(int n1, int n2, double confidence){
+		return KolmogorovSmirnovTwoSamplesDist.criticalValue(n1, n2, 1.0-confidence);
 	}
 	
 	public double getKSQuantile(){
-		return this.ksDist.inverseF(this.confidence);
+		return KolmogorovSmirnovTwoSamplesDist.criticalValue(emp1.getN(), emp2.getN(), 1.0-this.confidence);
 	}
 	
 	public boolean testE2NeqE1(){
@@ -63,16 +88,24 @@ public class KolmogorovSmirnovTestTwoSamples {
 		return (1.0-confidence)*2 >= this.pValueE2GeqE1() ? false : true;
 	}
 	
-	private boolean constantDistributions(){
+	private static boolean constantDistributions(EmpiricalDist emp1, EmpiricalDist emp2){
 		if(emp1.getXinf() == emp2.getXinf() && emp1.getXinf() == emp2.getXinf() && emp1.getXinf() == emp2.getXsup())
 			return true;
 		else
 			return false;
 	}
 	
+	private static boolean constantDistributions(double[] sorted1, double[] sorted2){
+		return sorted1[0] == sorted2[0] && sorted1[0] == sorted2[sorted2.length-1];
+	}
+	
 	public double KSstatisticsTwoTailed(){
+		return KSstatisticsTwoTailed(this.emp1, this.emp2);
+	}
+	
+	public static double KSstatisticsTwoTailed(EmpiricalDist emp1, EmpiricalDist emp2){
 		double supDiscrepancy = 0;
-		if(constantDistributions()) return supDiscrepancy;
+		if(constantDistributions(emp1, emp2)) return supDiscrepancy;
 		for(int i = 0; i < emp1.getN(); i++){
 			double observation = emp1.getObs(i);
 			double discrepancy = 
@@ -102,8 +135,12 @@ public class KolmogorovSmirnovTestTwoSamples {
 	 * Emp 1 > Emp 2
 	 */
 	public double KSstatisticsSingleTailedE1GeqE2(){
+		return KSstatisticsSingleTailedE1GeqE2(this.emp1, this.emp2);
+	}
+	
+	public static double KSstatisticsSingleTailedE1GeqE2(EmpiricalDist emp1, EmpiricalDist emp2){
 		double supDiscrepancy = 0;
-		if(constantDistributions()) return supDiscrepancy;
+		if(constantDistributions(emp1, emp2)) return supDiscrepancy;
 		for(int i = 0; i < emp1.getN(); i++){
 			double observation = emp1.getObs(i);
 			double discrepancy = 
@@ -129,12 +166,50 @@ public class KolmogorovSmirnovTestTwoSamples {
 		return supDiscrepancy;
 	}
 	
+	/**
+	 * Computes {@link #KSstatisticsSingleTailedE1GeqE2(EmpiricalDist, EmpiricalDist)} in a single merge pass 
+	 * over two samples sorted in increasing order; this costs {@code O(n1+n2)} and does not allocate.
+	 * 
+	 * @param sorted1 first sample, sorted in increasing order
+	 * @param sorted2 second sample, sorted in increasing order
+	 * @return the statistic
+	 */
+	public static double KSstatisticsSingleTailedE1GeqE2(double[] sorted1, double[] sorted2){
+		int n1 = sorted1.length;
+		int n2 = sorted2.length;
+		double supDiscrepancy = 0;
+		if(constantDistributions(sorted1, sorted2)) return supDiscrepancy;
+		int i = 0, j = 0;
+		while(i < n1 || j < n2){
+			double observation = j == n2 || (i < n1 && sorted1[i] <= sorted2[j]) ? sorted1[i] : sorted2[j];
+			int below1 = i;
+			int below2 = j;
+			while(i < n1 && sorted1[i] == observation) i++;
+			while(j < n2 && sorted2[j] == observation) j++;
+			double cdf1 = (double)i/n1;
+			double cdf2 = (double)j/n2;
+			double discrepancy = 0;
+			if(i > below1)
+				discrepancy = cdf1-cdf2;
+			if(j > below2)
+				discrepancy = Math.max(discrepancy, below2 == 0 ? cdf1-cdf2 : cdf1-(double)below2/n2);
+			if(discrepancy>supDiscrepancy){
+				supDiscrepancy = discrepancy;
+			}
+		}
+		return supDiscrepancy;
+	}
+	
 	/*
 	 * Emp 2 > Emp 1
 	 */
 	public double KSstatisticsSingleTailedE2GeqE1(){
+		return KSstatisticsSingleTailedE2GeqE1(this.emp1, this.emp2);
+	}
+	
+	public static double KSstatisticsSingleTailedE2GeqE1(EmpiricalDist emp1, EmpiricalDist emp2){
 		double supDiscrepancy = 0;
-		if(constantDistributions()) return supDiscrepancy;
+		if(constantDistributions(emp1, emp2)) return supDiscrepancy;
 		for(int i = 0; i < emp1.getN(); i++){
 			double observation = emp1.getObs(i);
 			double discrepancy = 
@@ -160,18 +235,52 @@ public class KolmogorovSmirnovTestTwoSamples {
 		return supDiscrepancy;
 	}
 	
+	/**
+	 * Computes {@link #KSstatisticsSingleTailedE2GeqE1(EmpiricalDist, EmpiricalDist)} in a single merge pass 
+	 * over two samples sorted in increasing order; this costs {@code O(n1+n2)} and does not allocate.
+	 * 
+	 * @param sorted1 first sample, sorted in increasing order
+	 * @param sorted2 second sample, sorted in increasing order
+	 * @return the statistic
+	 */
+	public static double KSstatisticsSingleTailedE2GeqE1(double[] sorted1, double[] sorted2){
+		int n1 = sorted1.length;
+		int n2 = sorted2.length;
+		double supDiscrepancy = 0;
+		if(constantDistributions(sorted1, sorted2)) return supDiscrepancy;
+		int i = 0, j = 0;
+		while(i < n1 || j < n2){
+			double observation = j == n2 || (i < n1 && sorted1[i] <= sorted2[j]) ? sorted1[i] : sorted2[j];
+			int below1 = i;
+			int below2 = j;
+			while(i < n1 && sorted1[i] == observation) i++;
+			while(j < n2 && sorted2[j] == observation) j++;
+			double cdf1 = (double)i/n1;
+			double cdf2 = (double)j/n2;
+			double discrepancy = 0;
+			if(i > below1)
+				discrepancy = cdf2-(double)below1/n1;
+			if(j > below2)
+				discrepancy = Math.max(discrepancy, below2 == 0 ? cdf2 : cdf2-cdf1);
+			if(discrepancy>supDiscrepancy){
+				supDiscrepancy = discrepancy;
+			}
+		}
+		return supDiscrepancy;
+	}
+	
 	public double pValueE2NeqE1(){
 		double supDiscrepancy = this.KSstatisticsTwoTailed();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return KolmogorovSmirnovTwoSamplesDist.pValue(emp1.getN(), emp2.getN(), supDiscrepancy);
 	}
 	
 	public double pValueE1GeqE2(){
 		double supDiscrepancy = this.KSstatisticsSingleTailedE1GeqE2();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return KolmogorovSmirnovTwoSamplesDist.pValue(emp1.getN(), emp2.getN(), supDiscrepancy);
 	}
 	
 	public double pValueE2GeqE1(){
 		double supDiscrepancy = this.KSstatisticsSingleTailedE2GeqE1();
-		return 1.0-this.ksDist.cdf(supDiscrepancy);
+		return KolmogorovSmirnovTwoSamplesDist.pValue(emp1.getN(), emp2.getN(), supDiscrepancy);
 	}
 }
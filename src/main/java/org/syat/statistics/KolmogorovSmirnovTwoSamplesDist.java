@@ -0,0 +1,243 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syat.statistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Null distribution of the two-sample Kolmogorov-Smirnov statistic D for samples of size 
+ * {@code n} and {@code m} drawn from the same continuous distribution.
+ * 
+ * When {@code n*m} is below {@link #EXACT_LIMIT} the distribution is computed exactly by 
+ * counting the lattice paths from {@code (0,0)} to {@code (n,m)} that remain within the band 
+ * of the statistic; above it the asymptotic Kolmogorov distribution is used with the effective 
+ * sample size {@code n*m/(n+m)}. Critical values are memoised per {@code (n, m, alpha)} in a 
+ * bounded cache that may be shared by concurrent tests.
+ * 
+ * http://www.itl.nist.gov/div898/handbook/eda/section3/eda35g.htm
+ * Hodges, J.L. (1958) The significance probability of the Smirnov two-sample test, Arkiv for Matematik 3
+ * 
+ * @author Roberto Rossi
+ *
+ */
+public final class KolmogorovSmirnovTwoSamplesDist {
+	
+	/**
+	 * Largest product of the sample sizes for which the exact distribution is used
+	 */
+	public static final int EXACT_LIMIT = 10000;
+	
+	/* largest number of critical values memoised */
+	private static final int CACHE_CAPACITY = 1024;
+	
+	private static final Map<Key, Double> criticalValues = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+			return size() > CACHE_CAPACITY;
+		}
+	};
+	
+	private static final class Key {
+		final int n;
+		final int m;
+		final double alpha;
+		
+		Key(int n, int m, double alpha) {
+			this.n = n;
+			this.m = m;
+			this.alpha = alpha;
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31*(31*n + m) + Double.hashCode(alpha);
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Key))
+				return false;
+			Key key = (Key)obj;
+			return n == key.n && m == key.m && Double.compare(alpha, key.alpha) == 0;
+		}
+	}
+	
+	private KolmogorovSmirnovTwoSamplesDist(){}
+	
+	/**
+	 * Probability that the statistic D is greater or equal to {@code statistic} under the null hypothesis
+	 * 
+	 * @param n size of the first sample
+	 * @param m size of the second sample
+	 * @param statistic value of the statistic
+	 * @return the p-value of {@code statistic}
+	 */
+	public static double pValue(int n, int m, double statistic){
+		if(n > m)
+			return pValue(m, n, statistic);
+		if(isExact(n, m)){
+			long lcm = lcm(n, m);
+			return pValueExact(n, m, Math.round(statistic*lcm));
+		}
+		return pValueAsymptotic(n, m, statistic);
+	}
+	
+	/**
+	 * Critical value of a test of size {@code alpha}: the statistic of samples of size {@code n} and 
+	 * {@code m} is greater or equal to this value if and only if its p-value is less or equal to {@code alpha}.
+	 * 
+	 * @param n size of the first sample
+	 * @param m size of the second sample
+	 * @param alpha size of the test
+	 * @return the critical value
+	 */
+	public static double criticalValue(int n, int m, double alpha){
+		Key key = new Key(Math.min(n, m), Math.max(n, m), alpha);
+		synchronized(criticalValues){
+			Double criticalValue = criticalValues.get(key);
+			if(criticalValue != null)
+				return criticalValue;
+		}
+		double criticalValue = isExact(n, m) ? criticalValueExact(key.n, key.m, alpha) : criticalValueAsymptotic(key.n, key.m, alpha);
+		synchronized(criticalValues){
+			criticalValues.put(key, criticalValue);
+		}
+		return criticalValue;
+	}
+	
+	private static boolean isExact(int n, int m){
+		return (long)n*m < EXACT_LIMIT;
+	}
+	
+	private static long lcm(int n, int m){
+		int a = n, b = m;
+		while(b != 0){
+			int t = a % b;
+			a = b;
+			b = t;
+		}
+		return (long)n/a*m;
+	}
+	
+	/*
+	 * P(D >= k/lcm(n,m)): the statistics of two samples are multiples of 1/lcm(n,m), and so are 
+	 * compared exactly with integer arithmetic. In row i, u[j] holds the number of paths to (i,j) 
+	 * that remain in the band, divided by the binomial coefficient (i+m choose m): moving to row i 
+	 * multiplies the row by w = i/(i+m), the ratio of (i-1+m choose m) to (i+m choose m), so that 
+	 * u[m] is the probability of the band in the last row, as in R's psmirnov.
+	 */
+	private static double pValueExact(int n, int m, long k){
+		long lcm = lcm(n, m);
+		long stepN = lcm/n;
+		long stepM = lcm/m;
+		double[] u = new double[m + 1];
+		for(int j = 0; j <= m; j++)
+			u[j] = j*stepM < k ? 1 : 0;
+		for(int i = 1; i <= n; i++){
+			double w = (double)i/(i + m);
+			u[0] = i*stepN < k ? w*u[0] : 0;
+			for(int j = 1; j <= m; j++)
+				u[j] = Math.abs(i*stepN - j*stepM) < k ? w*u[j] + u[j-1] : 0;
+		}
+		return Math.max(0, Math.min(1, 1 - u[m]));
+	}
+	
+	/*
+	 * Smallest multiple k/lcm(n,m) whose p-value does not exceed alpha; the returned threshold 
+	 * lies half a step below it, so that statistics computed in floating point compare safely.
+	 */
+	private static double criticalValueExact(int n, int m, double alpha){
+		long lcm = lcm(n, m);
+		if(alpha >= pValueExact(n, m, 0))
+			return 0;
+		if(alpha < pValueExact(n, m, lcm))
+			return Double.POSITIVE_INFINITY;
+		long low = 0;
+		long high = lcm;
+		while(high - low > 1){
+			long mid = (low + high) >>> 1;
+			if(alpha >= pValueExact(n, m, mid))
+				high = mid;
+			else
+				low = mid;
+		}
+		return (high - 0.5)/lcm;
+	}
+	
+	private static double pValueAsymptotic(int n, int m, double statistic){
+		return kolmogorovComplementary(Math.sqrt((double)n*m/(n + m))*statistic);
+	}
+	
+	/*
+	 * Bisection on the p-value down to adjacent doubles, as in KolmogorovSmirnovTest.criticalValue
+	 */
+	private static double criticalValueAsymptotic(int n, int m, double alpha){
+		double low = 0;
+		double high = 1;
+		if(alpha >= pValueAsymptotic(n, m, low))
+			return low;
+		if(alpha < pValueAsymptotic(n, m, high))
+			return Double.POSITIVE_INFINITY;
+		while(true){
+			double mid = low + (high-low)/2;
+			if(mid <= low || mid >= high)
+				return high;
+			if(alpha >= pValueAsymptotic(n, m, mid))
+				high = mid;
+			else
+				low = mid;
+		}
+	}
+	
+	/*
+	 * 1-K(x) for the limiting Kolmogorov distribution K, with the series that converges 
+	 * fastest on either side of x = 1
+	 */
+	static double kolmogorovComplementary(double x){
+		if(x <= 0)
+			return 1;
+		if(x < 1){
+			double sum = 0;
+			for(int k = 1; k <= 6; k++){
+				double t = (2*k - 1)*Math.PI/x;
+				sum += Math.exp(-t*t/8);
+			}
+			return Math.max(0, Math.min(1, 1 - Math.sqrt(2*Math.PI)/x*sum));
+		}
+		double sum = 0;
+		for(int k = 1; k <= 100; k++){
+			double term = Math.exp(-2.0*k*k*x*x);
+			sum += (k % 2 == 1) ? term : -term;
+			if(term < 1e-17)
+				break;
+		}
+		return Math.max(0, Math.min(1, 2*sum));
+	}
+}
@@ -26,8 +26,6 @@
 
 package org.syat.statistics;
 
-import umontreal.iro.lecuyer.probdist.ChiSquareDist;
-
 public class MultinomialProportion {
 	
 	double[][] observations;
@@ -65,8 +63,7 @@ public class MultinomialProportion {
 	/* http://www.jstor.org/stable/1266673?seq=1 */
 	public double[][] computeQuesenberryHurstCI(double confidence){
 		double[][] intervals = new double[frequencies.length][2];
-		ChiSquareDist chiSq = new ChiSquareDist(frequencies.length-1);
-		double A = chiSq.inverseF(confidence);
+		double A = DistributionCache.chiSquareInverseF(frequencies.length-1, confidence);
 		
 		double[] n = new double[frequencies.length];
 		
@@ -83,8 +80,7 @@ public class MultinomialProportion {
 	
 	public double[][] computeGoodmanCI(double confidence){
 		double[][] intervals = new double[frequencies.length][2];
-		ChiSquareDist chiSq = new ChiSquareDist(1);
-		double A = chiSq.inverseF(1-(1-confidence)/frequencies.length);
+		double A = DistributionCache.chiSquareInverseF(1, 1-(1-confidence)/frequencies.length);
 		
 		double[] n = new double[frequencies.length];
 		
@@ -58,7 +58,7 @@ public class PearsonChiSquaredTest {
 	}
 	
 	public double getChiSqQuantile(){
-		return this.chiSqDist.inverseF(this.confidence);
+		return DistributionCache.chiSquareInverseF(this.chiSqDist.getN(), this.confidence);
 	}
 	
 	public boolean test(){
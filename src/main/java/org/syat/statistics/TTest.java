@@ -43,7 +43,7 @@ public class TTest {
 	}
 	
 	public double getTQuantile(){
-		return this.tDist.inverseF(this.confidence);
+		return DistributionCache.studentInverseF(this.tDist.getN(), this.confidence);
 	}
 	
 	public boolean testE1NeqTM(){
@@ -56,7 +56,7 @@ public class TTest {
 	public boolean testTMGeqE1(double confidence){
 		double sampleMean = this.emp.getSampleMean();
 		double sampleStandardDeviation = this.emp.getSampleStandardDeviation();
-		if(sampleMean-this.tDist.inverseF(confidence)*sampleStandardDeviation/Math.sqrt(this.emp.getN())>=this.targetMean)
+		if(sampleMean-DistributionCache.studentInverseF(this.tDist.getN(), confidence)*sampleStandardDeviation/Math.sqrt(this.emp.getN())>=this.targetMean)
 			return false;
 		else
 			return true;
@@ -71,7 +71,7 @@ public class TTest {
 	public boolean testE1GeqTM(double confidence){
 		double sampleMean = this.emp.getSampleMean();
 		double sampleStandardDeviation = this.emp.getSampleStandardDeviation();
-		if(sampleMean+this.tDist.inverseF(confidence)*sampleStandardDeviation/Math.sqrt(this.emp.getN())<=this.targetMean)
+		if(sampleMean+DistributionCache.studentInverseF(this.tDist.getN(), confidence)*sampleStandardDeviation/Math.sqrt(this.emp.getN())<=this.targetMean)
 			return false;
 		else
 			return true;
@@ -82,4 +82,171 @@ public class TTest {
 		double sampleStandardDeviation = this.emp.getSampleStandardDeviation();
 		return sampleMean+this.tDist.inverseF(confidence)*sampleStandardDeviation/Math.sqrt(this.emp.getN());
 	}*/
+	
+	/*
+	 * Batch evaluation over replicated samples: samples holds the replications one after the 
+	 * other (row-major), each of size sampleSize. Sample means and variances are computed as in 
+	 * EmpiricalDist, and quantiles once per call.
+	 */
+	
+	static int replications(double[] samples, int sampleSize){
+		if(sampleSize < 2 || samples.length % sampleSize != 0)
+			throw new IllegalArgumentException("Samples should be stored consecutively, each of size "+sampleSize);
+		return samples.length/sampleSize;
+	}
+	
+	static void sampleMoments(double[] samples, int sampleSize, double[] means, double[] variances){
+		for(int r = 0, offset = 0; r < means.length; r++, offset += sampleSize){
+			double sum = 0;
+			for(int i = offset; i < offset + sampleSize; i++)
+				sum += samples[i];
+			double mean = sum/sampleSize;
+			sum = 0;
+			for(int i = offset; i < offset + sampleSize; i++){
+				double coeff = samples[i] - mean;
+				sum += coeff*coeff;
+			}
+			means[r] = mean;
+			variances[r] = sum/(sampleSize-1);
+		}
+	}
+	
+	private static double[][] sampleMoments(double[] samples, int sampleSize){
+		int replications = replications(samples, sampleSize);
+		double[] means = new double[replications];
+		double[] standardDeviations = new double[replications];
+		sampleMoments(samples, sampleSize, means, standardDeviations);
+		for(int r = 0; r < replications; r++)
+			standardDeviations[r] = Math.sqrt(standardDeviations[r]);
+		return new double[][]{means, standardDeviations};
+	}
+	
+	/**
+	 * Batch version of {@link #testE1NeqTM()}.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each sample
+	 */
+	public static boolean[] testE1NeqTM(double[] samples, int sampleSize, double targetMean, double confidence){
+		double[][] moments = sampleMoments(samples, sampleSize);
+		double[] means = moments[0];
+		double[] standardDeviations = moments[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize-1, 1-(1-confidence)/2);
+		double root = Math.sqrt(sampleSize);
+		boolean[] outcomes = new boolean[means.length];
+		for(int r = 0; r < means.length; r++){
+			double halfWidth = quantile*standardDeviations[r]/root;
+			outcomes[r] = !(means[r]-halfWidth>=targetMean) && !(means[r]+halfWidth<=targetMean);
+		}
+		return outcomes;
+	}
+	
+	/**
+	 * Batch version of {@link #testTMGeqE1(double)}.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each sample
+	 */
+	public static boolean[] testTMGeqE1(double[] samples, int sampleSize, double targetMean, double confidence){
+		double[][] moments = sampleMoments(samples, sampleSize);
+		double[] means = moments[0];
+		double[] standardDeviations = moments[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize-1, confidence);
+		double root = Math.sqrt(sampleSize);
+		boolean[] outcomes = new boolean[means.length];
+		for(int r = 0; r < means.length; r++)
+			outcomes[r] = !(means[r]-quantile*standardDeviations[r]/root>=targetMean);
+		return outcomes;
+	}
+	
+	/**
+	 * Batch version of {@link #testE1GeqTM(double)}.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each sample
+	 */
+	public static boolean[] testE1GeqTM(double[] samples, int sampleSize, double targetMean, double confidence){
+		double[][] moments = sampleMoments(samples, sampleSize);
+		double[] means = moments[0];
+		double[] standardDeviations = moments[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize-1, confidence);
+		double root = Math.sqrt(sampleSize);
+		boolean[] outcomes = new boolean[means.length];
+		for(int r = 0; r < means.length; r++)
+			outcomes[r] = !(means[r]+quantile*standardDeviations[r]/root<=targetMean);
+		return outcomes;
+	}
+	
+	/**
+	 * Statistics (m-targetMean)/(s/sqrt(n)) of replicated samples, where m and s are 
+	 * the sample mean and standard deviation.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @return the statistic of each sample
+	 */
+	public static double[] tStatistics(double[] samples, int sampleSize, double targetMean){
+		double[][] moments = sampleMoments(samples, sampleSize);
+		double[] statistics = moments[0];
+		double[] standardDeviations = moments[1];
+		double root = Math.sqrt(sampleSize);
+		for(int r = 0; r < statistics.length; r++)
+			statistics[r] = (statistics[r]-targetMean)/(standardDeviations[r]/root);
+		return statistics;
+	}
+	
+	/**
+	 * p-values of the two tailed test {@link #testE1NeqTM()} for replicated samples.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @return the p-value of each sample
+	 */
+	public static double[] pValueE1NeqTM(double[] samples, int sampleSize, double targetMean){
+		double[] pValues = tStatistics(samples, sampleSize, targetMean);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = Math.min(1, 2*StudentDist.barF(sampleSize-1, Math.abs(pValues[r])));
+		return pValues;
+	}
+	
+	/**
+	 * p-values of the test {@link #testTMGeqE1(double)} for replicated samples.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @return the p-value of each sample
+	 */
+	public static double[] pValueTMGeqE1(double[] samples, int sampleSize, double targetMean){
+		double[] pValues = tStatistics(samples, sampleSize, targetMean);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = StudentDist.barF(sampleSize-1, pValues[r]);
+		return pValues;
+	}
+	
+	/**
+	 * p-values of the test {@link #testE1GeqTM(double)} for replicated samples.
+	 * 
+	 * @param samples replicated samples stored one after the other
+	 * @param sampleSize size of each sample
+	 * @param targetMean target mean
+	 * @return the p-value of each sample
+	 */
+	public static double[] pValueE1GeqTM(double[] samples, int sampleSize, double targetMean){
+		double[] pValues = tStatistics(samples, sampleSize, targetMean);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = StudentDist.cdf(sampleSize-1, pValues[r]);
+		return pValues;
+	}
 }
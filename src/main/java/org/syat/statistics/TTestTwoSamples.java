@@ -47,7 +47,7 @@ public class TTestTwoSamples {
 	}
 	
 	public double getTQuantile(){
-		return this.tDist.inverseF(this.confidence);
+		return DistributionCache.studentInverseF(this.tDist.getN(), this.confidence);
 	}
 	
 	public boolean testE2NeqE1(){
@@ -64,7 +64,7 @@ public class TTestTwoSamples {
 		double s2 = this.emp2.getSampleVariance()*this.emp2.getN();
 		double sSq = (s1+s2)/(this.emp1.getN()+this.emp2.getN()-2);
 		double populations = (1.0/this.emp1.getN()+1.0/this.emp2.getN());
-		if(sampleMean1-sampleMean2-this.tDist.inverseF(confidence)*Math.sqrt(sSq*populations)>=0)
+		if(sampleMean1-sampleMean2-DistributionCache.studentInverseF(this.tDist.getN(), confidence)*Math.sqrt(sSq*populations)>=0)
 			return false;
 		else
 			return true;
@@ -77,9 +77,168 @@ public class TTestTwoSamples {
 		double s2 = this.emp2.getSampleVariance()*this.emp2.getN();
 		double sSq = (s1+s2)/(this.emp1.getN()+this.emp2.getN()-2);
 		double populations = (1.0/this.emp1.getN()+1.0/this.emp2.getN());
-		if(sampleMean1-sampleMean2+this.tDist.inverseF(confidence)*Math.sqrt(sSq*populations)<=0)
+		if(sampleMean1-sampleMean2+DistributionCache.studentInverseF(this.tDist.getN(), confidence)*Math.sqrt(sSq*populations)<=0)
 			return false;
 		else
 			return true;
 	}
+	
+	/*
+	 * Batch evaluation over replicated pairs of samples: samples1 and samples2 hold the 
+	 * replications one after the other (row-major), each of size sampleSize1 and sampleSize2 
+	 * respectively. Statistics are computed as by the instance methods, quantiles once per call.
+	 */
+	
+	/* (m1-m2) and sqrt(sSq*populations) of each pair of samples */
+	private static double[][] differences(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2){
+		int replications = TTest.replications(samples1, sampleSize1);
+		if(TTest.replications(samples2, sampleSize2) != replications)
+			throw new IllegalArgumentException("Samples should have the same number of replications");
+		double[] means1 = new double[replications];
+		double[] variances1 = new double[replications];
+		double[] means2 = new double[replications];
+		double[] variances2 = new double[replications];
+		TTest.sampleMoments(samples1, sampleSize1, means1, variances1);
+		TTest.sampleMoments(samples2, sampleSize2, means2, variances2);
+		double populations = (1.0/sampleSize1+1.0/sampleSize2);
+		for(int r = 0; r < replications; r++){
+			double s1 = variances1[r]*sampleSize1;
+			double s2 = variances2[r]*sampleSize2;
+			double sSq = (s1+s2)/(sampleSize1+sampleSize2-2);
+			means1[r] -= means2[r];
+			variances1[r] = Math.sqrt(sSq*populations);
+		}
+		return new double[][]{means1, variances1};
+	}
+	
+	/**
+	 * Batch version of {@link #testE2NeqE1()}.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each pair of samples
+	 */
+	public static boolean[] testE2NeqE1(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2, double confidence){
+		double[][] differences = differences(samples1, sampleSize1, samples2, sampleSize2);
+		double[] meanDifferences = differences[0];
+		double[] standardErrors = differences[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize1+sampleSize2-2, 1-(1-confidence)/2);
+		boolean[] outcomes = new boolean[meanDifferences.length];
+		for(int r = 0; r < meanDifferences.length; r++){
+			double halfWidth = quantile*standardErrors[r];
+			outcomes[r] = !(meanDifferences[r]-halfWidth>=0) && !(meanDifferences[r]+halfWidth<=0);
+		}
+		return outcomes;
+	}
+	
+	/**
+	 * Batch version of {@link #testE2GeqE1(double)}.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each pair of samples
+	 */
+	public static boolean[] testE2GeqE1(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2, double confidence){
+		double[][] differences = differences(samples1, sampleSize1, samples2, sampleSize2);
+		double[] meanDifferences = differences[0];
+		double[] standardErrors = differences[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize1+sampleSize2-2, confidence);
+		boolean[] outcomes = new boolean[meanDifferences.length];
+		for(int r = 0; r < meanDifferences.length; r++)
+			outcomes[r] = !(meanDifferences[r]-quantile*standardErrors[r]>=0);
+		return outcomes;
+	}
+	
+	/**
+	 * Batch version of {@link #testE1GeqE2(double)}.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @param confidence test confidence level
+	 * @return the outcome of the test for each pair of samples
+	 */
+	public static boolean[] testE1GeqE2(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2, double confidence){
+		double[][] differences = differences(samples1, sampleSize1, samples2, sampleSize2);
+		double[] meanDifferences = differences[0];
+		double[] standardErrors = differences[1];
+		double quantile = DistributionCache.studentInverseF(sampleSize1+sampleSize2-2, confidence);
+		boolean[] outcomes = new boolean[meanDifferences.length];
+		for(int r = 0; r < meanDifferences.length; r++)
+			outcomes[r] = !(meanDifferences[r]+quantile*standardErrors[r]<=0);
+		return outcomes;
+	}
+	
+	/**
+	 * Statistics (m1-m2)/sqrt(sSq*(1/n1+1/n2)) of replicated pairs of samples.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @return the statistic of each pair of samples
+	 */
+	public static double[] tStatistics(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2){
+		double[][] differences = differences(samples1, sampleSize1, samples2, sampleSize2);
+		double[] statistics = differences[0];
+		double[] standardErrors = differences[1];
+		for(int r = 0; r < statistics.length; r++)
+			statistics[r] /= standardErrors[r];
+		return statistics;
+	}
+	
+	/**
+	 * p-values of the two tailed test {@link #testE2NeqE1()} for replicated pairs of samples.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @return the p-value of each pair of samples
+	 */
+	public static double[] pValueE2NeqE1(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2){
+		double[] pValues = tStatistics(samples1, sampleSize1, samples2, sampleSize2);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = Math.min(1, 2*StudentDist.barF(sampleSize1+sampleSize2-2, Math.abs(pValues[r])));
+		return pValues;
+	}
+	
+	/**
+	 * p-values of the test {@link #testE2GeqE1(double)} for replicated pairs of samples.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @return the p-value of each pair of samples
+	 */
+	public static double[] pValueE2GeqE1(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2){
+		double[] pValues = tStatistics(samples1, sampleSize1, samples2, sampleSize2);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = StudentDist.barF(sampleSize1+sampleSize2-2, pValues[r]);
+		return pValues;
+	}
+	
+	/**
+	 * p-values of the test {@link #testE1GeqE2(double)} for replicated pairs of samples.
+	 * 
+	 * @param samples1 first samples stored one after the other
+	 * @param sampleSize1 size of each first sample
+	 * @param samples2 second samples stored one after the other
+	 * @param sampleSize2 size of each second sample
+	 * @return the p-value of each pair of samples
+	 */
+	public static double[] pValueE1GeqE2(double[] samples1, int sampleSize1, double[] samples2, int sampleSize2){
+		double[] pValues = tStatistics(samples1, sampleSize1, samples2, sampleSize2);
+		for(int r = 0; r < pValues.length; r++)
+			pValues[r] = StudentDist.cdf(sampleSize1+sampleSize2-2, pValues[r]);
+		return pValues;
+	}
 }
@@ -0,0 +1,260 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syat.statistics;
+
+import umontreal.iro.lecuyer.probdist.ChiSquareDist;
+import umontreal.iro.lecuyer.probdist.FisherFDist;
+
+/**
+ * Online Hotelling T-squared test for observation vectors arriving one at a time, see {@link tSquareTest}.
+ * 
+ * The running means and the matrix of co-moments are updated as in Welford's algorithm, and the 
+ * inverse of the co-moment matrix by rank-one Sherman-Morrison updates, so that each observation 
+ * and each query cost O(p^2). The inverse is recomputed from a Cholesky factorisation of the 
+ * co-moments once every p updates, which bounds the drift of the rank-one updates at the same 
+ * amortised cost. After each observation the statistic and p-value coincide, up to rounding, 
+ * with those of a {@link tSquareTest} on all observations received so far.
+ * 
+ * @author Roberto Rossi
+ *
+ */
+
+public class tSquareMonitor {
+
+   double[] mu;
+   double[][] sigma;
+   int n;
+   
+   private final boolean estimatedCovariance;
+   private final int p;
+   
+   /* totals of the deviations from mu, running means and co-moments */
+   private final double[] totals;
+   private final double[] means;
+   private final double[][] comoments;
+   /* inverse of the co-moments, or of sigma */
+   private final double[][] inverse;
+   private boolean invertible;
+   private int updates;
+   
+   /* workspace */
+   private final double[] delta;
+   private final double[] product;
+   private final double[][] factor;
+   
+   /**
+    * Creates a monitor whose covariance matrix is estimated from the observations.
+    * 
+    * @param mu target mean
+    */
+   public tSquareMonitor(double[] mu){
+      this(mu, null);
+   }
+   
+   /**
+    * Creates a monitor with a known covariance matrix.
+    * 
+    * @param mu target mean
+    * @param sigma covariance matrix
+    * @throws IllegalArgumentException if sigma is not positive definite
+    */
+   public tSquareMonitor(double[] mu, double[][] sigma){
+      this.mu = mu;
+      this.sigma = sigma;
+      this.estimatedCovariance = sigma == null;
+      this.p = mu.length;
+      this.totals = new double[p];
+      this.means = new double[p];
+      this.comoments = new double[p][p];
+      this.inverse = new double[p][p];
+      this.delta = new double[p];
+      this.product = new double[p];
+      this.factor = new double[p][p];
+      if(!estimatedCovariance){
+         tSquareTest.cholesky(sigma, 1, factor);
+         invert(factor, inverse);
+         invertible = true;
+      }
+   }
+   
+   /**
+    * Adds an observation.
+    * 
+    * @param observation the observation
+    * @return the statistic of the observations received so far, or NaN if the 
+    * estimated covariance matrix is not positive definite yet
+    */
+   public double add(double[] observation){
+      n++;
+      for(int i = 0; i < p; i++){
+         totals[i] += observation[i] - mu[i];
+         delta[i] = observation[i] - means[i];
+         means[i] += delta[i]/n;
+      }
+      if(estimatedCovariance){
+         // co-moments grow by (n-1)/n delta delta'
+         double weight = (double)(n-1)/n;
+         for(int i = 0; i < p; i++){
+            double[] row = comoments[i];
+            double scaled = weight*delta[i];
+            for(int j = 0; j < p; j++){
+               row[j] += scaled*delta[j];
+            }
+         }
+         if(invertible && ++updates < p){
+            shermanMorrison(weight);
+         }else if(n > p){
+            refactor();
+         }
+      }
+      return invertible ? tSquareStatistic() : Double.NaN;
+   }
+   
+   /*
+    * A^-1 - w (A^-1 d)(A^-1 d)' / (1 + w d'A^-1 d), for the update A + w d d'
+    */
+   private void shermanMorrison(double weight){
+      double quadratic = 0;
+      for(int i = 0; i < p; i++){
+         double[] row = inverse[i];
+         double sum = 0;
+         for(int j = 0; j < p; j++){
+            sum += row[j]*delta[j];
+         }
+         product[i] = sum;
+         quadratic += delta[i]*sum;
+      }
+      double scale = weight/(1 + weight*quadratic);
+      for(int i = 0; i < p; i++){
+         double[] row = inverse[i];
+         double scaled = scale*product[i];
+         for(int j = 0; j < p; j++){
+            row[j] -= scaled*product[j];
+         }
+      }
+   }
+   
+   private void refactor(){
+      try{
+         tSquareTest.cholesky(comoments, 1, factor);
+      }catch(IllegalArgumentException e){
+         invertible = false;
+         return;
+      }
+      invert(factor, inverse);
+      invertible = true;
+      updates = 0;
+   }
+   
+   /*
+    * (LL')^-1 = L^-T L^-1, where L^-1 overwrites the lower triangle of factor
+    */
+   private static void invert(double[][] factor, double[][] inverse){
+      int p = factor.length;
+      for(int j = 0; j < p; j++){
+         factor[j][j] = 1/factor[j][j];
+         for(int i = j+1; i < p; i++){
+            double sum = 0;
+            for(int k = j; k < i; k++){
+               sum -= factor[i][k]*factor[k][j];
+            }
+            factor[i][j] = sum/factor[i][i];
+         }
+      }
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j <= i; j++){
+            double sum = 0;
+            for(int k = i; k < p; k++){
+               sum += factor[k][i]*factor[k][j];
+            }
+            inverse[i][j] = sum;
+            inverse[j][i] = sum;
+         }
+      }
+   }
+   
+   public int getN(){
+      return n;
+   }
+   
+   public double[] getMeans(){
+      return means.clone();
+   }
+   
+   /**
+    * @return the estimated covariance matrix, or sigma if it is known
+    */
+   public double[][] getCovarianceMatrix(){
+      double[][] matrix = new double[p][p];
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j < p; j++){
+            matrix[i][j] = estimatedCovariance ? comoments[i][j]/(n-1) : sigma[i][j];
+         }
+      }
+      return matrix;
+   }
+   
+   /**
+    * @return the statistic of {@link tSquareTest#tSquareStatistic()} on the observations received so far
+    * @throws IllegalStateException if the estimated covariance matrix is not positive definite yet
+    */
+   public double tSquareStatistic(){
+      if(n == 0 || !invertible)
+         throw new IllegalStateException("Covariance matrix is not positive definite");
+      // t'(c A)^-1 t, where A^-1 is the current inverse
+      double statistic = 0;
+      for(int i = 0; i < p; i++){
+         double[] row = inverse[i];
+         double sum = 0;
+         for(int j = 0; j < p; j++){
+            sum += row[j]*totals[j];
+         }
+         statistic += totals[i]*sum;
+      }
+      return estimatedCovariance ? statistic : statistic/n;
+   }
+   
+   /**
+    * @return the p-value of {@link tSquareTest#tSquareTestPValue()} on the observations received so far
+    */
+   public double tSquareTestPValue(){
+      double cdf;
+      if(estimatedCovariance){
+         ChiSquareDist dist = new ChiSquareDist(this.p);
+         cdf = dist.cdf(tSquareStatistic());
+      }else{
+         FisherFDist dist = new FisherFDist(this.p, this.n - this.p);
+         double statistic = tSquareStatistic()*(this.n - this.p)/((this.n - 1) * this.p);
+         cdf = dist.cdf(statistic);
+      }
+      return 1 - cdf;
+   }
+   
+   public boolean tSquareTestBoolean(double significance){
+      return tSquareTestPValue() > significance;
+   }
+}
@@ -26,23 +26,20 @@
 
 package org.syat.statistics;
 
-import org.la4j.Matrix;
-import org.la4j.matrix.dense.Basic2DMatrix;
+import java.util.Arrays;
 
 import umontreal.iro.lecuyer.probdist.ChiSquareDist;
 import umontreal.iro.lecuyer.probdist.FisherFDist;
-
 import umontreal.iro.lecuyer.randvar.NormalGen;
 import umontreal.iro.lecuyer.randvarmulti.MultinormalCholeskyGen;
 import umontreal.iro.lecuyer.rng.MRG32k3a;
 
-import org.apache.commons.math3.stat.correlation.Covariance;
-
-import org.la4j.inversion.GaussJordanInverter;
-
 /**
  * https://en.wikipedia.org/wiki/Hotelling%27s_T-squared_distribution
  * 
+ * The quadratic form is solved with a Cholesky factorisation of the covariance matrix and 
+ * a triangular solve, in workspace arrays reused across calls.
+ * 
  * @author Roberto Rossi
  *
  */
@@ -55,6 +52,10 @@ public class tSquareTest {
    
    private boolean estimatedCovariance;
    
+   /* workspace: totals, then the solution of the triangular system, and the Cholesky factor */
+   private double[] totals;
+   private double[][] factor;
+   
    public tSquareTest(double[] mu, double[][] sigma, double[][] observations){
       this.mu = mu;
       this.sigma = sigma;
@@ -69,21 +70,60 @@ public class tSquareTest {
       estimatedCovariance = true;
    }
    
+   /**
+    * Computes t'(c*sigma)^-1 t, where t holds the totals of the deviations of the observations 
+    * from mu and c is the number of observations, less one if sigma is estimated.
+    * 
+    * @return the statistic
+    * @throws IllegalArgumentException if sigma is not positive definite
+    */
    public double tSquareStatistic(){
-      double[] totals = getTotals(observations, mu);
-      double[][] sigmaM = new double[sigma.length][sigma[0].length];
-      for(int i = 0; i < sigmaM.length; i++){
-         for(int j = 0; j < sigmaM[i].length; j++){
-            sigmaM[i][j] = sigma[i][j] * (estimatedCovariance ? (observations.length-1) : observations.length);
+      int p = mu.length;
+      if(totals == null){
+         totals = new double[p];
+         factor = new double[p][p];
+      }
+      getTotals(observations, mu, totals);
+      double scale = estimatedCovariance ? (observations.length-1) : observations.length;
+      cholesky(sigma, scale, factor);
+      // forward substitution L z = t, then t'(LL')^-1 t = z'z
+      double statistic = 0;
+      for(int i = 0; i < p; i++){
+         double[] row = factor[i];
+         double sum = totals[i];
+         for(int k = 0; k < i; k++){
+            sum -= row[k]*totals[k];
          }
+         totals[i] = sum/row[i];
+         statistic += totals[i]*totals[i];
       }
-      Matrix a = new Basic2DMatrix(sigmaM);
-      Matrix b = new GaussJordanInverter(a).inverse(); 
-      double[] result = dotProduct(totals, toArray(b));
-      double statistic = dotProduct(result, totals);
       return statistic;
    }
    
+   /*
+    * Lower triangular factor L of scale*matrix = LL', stored in the lower triangle of factor
+    */
+   static void cholesky(double[][] matrix, double scale, double[][] factor){
+      int p = factor.length;
+      for(int i = 0; i < p; i++){
+         double[] row = factor[i];
+         for(int j = 0; j <= i; j++){
+            double[] other = factor[j];
+            double sum = matrix[i][j]*scale;
+            for(int k = 0; k < j; k++){
+               sum -= row[k]*other[k];
+            }
+            if(i == j){
+               if(!(sum > 0))
+                  throw new IllegalArgumentException("Covariance matrix is not positive definite");
+               row[i] = Math.sqrt(sum);
+            }else{
+               row[j] = sum/other[j];
+            }
+         }
+      }
+   }
+   
    public double tSquareTestPValue(){
       double p;
       if(estimatedCovariance){
@@ -101,57 +141,48 @@ public class tSquareTest {
       return tSquareTestPValue() > significance;
    }
    
-   double[] getTotals(double[][] observations, double[] mu){
-      double[] totals = new double[observations[0].length];
+   static void getTotals(double[][] observations, double[] mu, double[] totals){
+      Arrays.fill(totals, 0);
       for(int i = 0; i < observations.length; i++){
-         for(int j = 0; j < observations[i].length; j++){
-            totals[j] += observations[i][j] - mu[j];
+         double[] observation = observations[i];
+         for(int j = 0; j < totals.length; j++){
+            totals[j] += observation[j] - mu[j];
          }
       }
-      return totals;
    }
    
-   double[][] toArray(Matrix matrix){
-      double[][] result = new double[matrix.rows()][matrix.columns()];
-      for(int i = 0; i < matrix.rows(); i++){
-         for(int j = 0; j < matrix.columns(); j++){
-            result[i][j] = matrix.get(i, j);
+   /**
+    * Unbiased sample covariance matrix, computed in a single pass over the observations 
+    * by updating the means and the co-moments.
+    * 
+    * @param observations the observations, one per row
+    * @return the covariance matrix
+    */
+   static double[][] computeCovarianceMatrix(double[][] observations){
+      if(observations.length < 2)
+         throw new IllegalArgumentException("At least two observations are required");
+      int p = observations[0].length;
+      double[] means = new double[p];
+      double[] deltas = new double[p];
+      double[][] matrix = new double[p][p];
+      for(int k = 0; k < observations.length; k++){
+         double[] observation = observations[k];
+         for(int i = 0; i < p; i++){
+            deltas[i] = observation[i] - means[i];
+            means[i] += deltas[i]/(k+1);
          }
-      }
-      return result;
-   }
-   
-   double[] dotProduct(double[] vect, double[][] matrix){
-      double [] result = new double[matrix[0].length];
-      for(int j = 0; j < matrix[0].length; j++){
-         for(int i = 0; i < vect.length; i++){
-            result[j] += vect[i]*matrix[i][j];
+         for(int i = 0; i < p; i++){
+            double[] row = matrix[i];
+            double delta = deltas[i];
+            for(int j = 0; j <= i; j++){
+               row[j] += delta*(observation[j] - means[j]);
+            }
          }
       }
-      return result;
-   }
-   
-   double dotProduct(double[] vect1, double[] vect2){
-      double result = 0;
-      for(int i = 0; i < vect1.length; i++){
-         result += vect1[i]*vect2[i];
-      }
-      return result;
-   }
-   
-   double[] getArray(int j, double[][] observations){
-      double[] result = new double[observations.length];
-      for(int i = 0; i < observations.length; i++){
-         result[i] = observations[i][j];
-      }
-      return result;
-   }
-   
-   double[][] computeCovarianceMatrix(double[][] observations){
-      double[][] matrix = new double[observations[0].length][observations[0].length];
-      for(int i = 0; i < matrix.length; i++){
-         for(int j = 0; j < matrix.length; j++){
-            matrix[i][j] = (new Covariance()).covariance(getArray(i, observations), getArray(j, observations));
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j <= i; j++){
+            matrix[i][j] /= observations.length - 1;
+            matrix[j][i] = matrix[i][j];
          }
       }
       return matrix;
@@ -53,6 +53,8 @@ public class EmpiricalDist extends DiscreteDistribution {
    private double sampleMean;
    private double sampleVariance;
    private double sampleStandardDeviation;
+   /* whether mean, variance and standard deviation reflect the observations */
+   private boolean statistics;
 
 
 
@@ -124,6 +126,64 @@ public class EmpiricalDist extends DiscreteDistribution {
    }
 
 
+   /**
+    * Reinitialises the distribution with the observations stored in <TT>obs</TT>,
+    *   which do not have to be sorted. The observations are copied into the internal
+    *   array, which is only reallocated when it is too small, so that a single instance
+    *   can be reused for many samples.
+    * 
+    * @param obs the observations
+    */
+   public void reset (double[] obs) {
+      reset (obs, obs.length);
+   }
+
+
+   /**
+    * Reinitialises the distribution with the first <TT>n</TT> observations
+    *   stored in <TT>obs</TT>, see {@link #reset(double[])}.
+    * 
+    * @param obs the observations
+    * @param n the number of observations
+    */
+   public void reset (double[] obs, int n) {
+      if (n <= 1)
+         throw new IllegalArgumentException
+            ("Two or more observations are needed");
+      if (sortedVal.length < n)
+         sortedVal = new double[n];
+      nVal = this.n = n;
+      System.arraycopy (obs, 0, sortedVal, 0, n);
+      init();
+   }
+
+
+   /**
+    * Replaces one observation equal to <TT>oldValue</TT> by <TT>newValue</TT>,
+    *   keeping the observations sorted in <SPAN CLASS="MATH"><I>O</I>(<I>n</I>)</SPAN> time.
+    * 
+    * @param oldValue the observation removed
+    * @param newValue the observation inserted
+    */
+   public void replace (double oldValue, double newValue) {
+      int i = countBelow (oldValue);
+      if (i == n || sortedVal[i] != oldValue)
+         throw new IllegalArgumentException (oldValue + " is not an observation");
+      while (i > 0 && sortedVal[i-1] > newValue) {
+         sortedVal[i] = sortedVal[i-1];
+         i--;
+      }
+      while (i < n-1 && sortedVal[i+1] < newValue) {
+         sortedVal[i] = sortedVal[i+1];
+         i++;
+      }
+      sortedVal[i] = newValue;
+      supportA = sortedVal[0];
+      supportB = sortedVal[n-1];
+      statistics = false;
+   }
+
+
    public double prob (int i) {
       if (i >= 0 && i < n)
          return 1.0 / n;
@@ -135,11 +195,9 @@ public class EmpiricalDist extends DiscreteDistribution {
          return 0;
       if (x >= sortedVal[n-1])
          return 1;
-      for (int i = 0; i < (n-1); i++) {
-         if (x >= sortedVal[i] && x < sortedVal[i+1])
-            return (double)(i + 1)/n;
-      }
-      throw new IllegalStateException();
+      if (Double.isNaN (x))
+         throw new IllegalStateException();
+      return (double)countAtMost (x)/n;
    }
 
    public double barF (double x) {
@@ -147,11 +205,55 @@ public class EmpiricalDist extends DiscreteDistribution {
          return 1;
       if (x > sortedVal[n-1])
          return 0;
-      for (int i = 0; i < (n-1); i++) {
-         if (x > sortedVal[i] && x <= sortedVal[i+1])
-            return ((double)n-1-i)/n;
+      if (Double.isNaN (x))
+         throw new IllegalStateException();
+      return ((double)n - countBelow (x))/n;
+   }
+
+   /**
+    * Evaluates the distribution function at every point of <TT>sortedQueries</TT>,
+    *    which must be sorted in increasing numerical order, in a single pass
+    *    over the observations. The results are identical to those of {@link #cdf(double)}.
+    * 
+    * @param sortedQueries the points sorted in increasing numerical order
+    * @param out the array receiving the distribution function at each point
+    */
+   public void cdf (double[] sortedQueries, double[] out) {
+      int i = 0;
+      for (int q = 0; q < sortedQueries.length; q++) {
+         double x = sortedQueries[q];
+         if (Double.isNaN (x))
+            throw new IllegalStateException();
+         while (i < n && sortedVal[i] <= x)
+            i++;
+         out[q] = (double)i/n;
       }
-      throw new IllegalStateException();
+   }
+
+   /* number of observations less than or equal to x */
+   private int countAtMost (double x) {
+      int low = 0, high = n;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (sortedVal[mid] <= x)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      return low;
+   }
+
+   /* number of observations strictly less than x */
+   private int countBelow (double x) {
+      int low = 0, high = n;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (sortedVal[mid] < x)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      return low;
    }
 
    public double inverseF (double u) {
@@ -167,11 +269,22 @@ public class EmpiricalDist extends DiscreteDistribution {
       /**********BUG FIX***************/
       /* The arrray must be sorted */
       
-      Arrays.sort (sortedVal);
+      Arrays.sort (sortedVal, 0, n);
       
       /*******************************/
+      supportA = sortedVal[0];
+      supportB = sortedVal[n-1];
+      xmin = 0;
+      xmax = n - 1;
+      statistics = false;
+   }
+
+   /* mean, variance and standard deviation are only computed when asked for */
+   private void computeStatistics() {
+      if (statistics)
+         return;
       double sum = 0.0;
-      for (int i = 0; i < sortedVal.length; i++) {
+      for (int i = 0; i < n; i++) {
          sum += sortedVal[i];
       }
       sampleMean = sum / n;
@@ -182,21 +295,21 @@ public class EmpiricalDist extends DiscreteDistribution {
       }
       sampleVariance = sum / (n-1);
       sampleStandardDeviation = Math.sqrt (sampleVariance);
-      supportA = sortedVal[0];
-      supportB = sortedVal[n-1];
-      xmin = 0;
-      xmax = n - 1;
+      statistics = true;
    }
 
    public double getMean() {
+      computeStatistics();
       return sampleMean;
    }
 
    public double getStandardDeviation() {
+      computeStatistics();
       return sampleStandardDeviation;
    }
 
    public double getVariance() {
+      computeStatistics();
       return sampleVariance;
    }
 
@@ -272,6 +385,7 @@ public class EmpiricalDist extends DiscreteDistribution {
     * @return the sample mean
     */
    public double getSampleMean() {
+      computeStatistics();
       return sampleMean;
    }
 
@@ -282,6 +396,7 @@ public class EmpiricalDist extends DiscreteDistribution {
     * @return the sample variance
     */
    public double getSampleVariance() {
+      computeStatistics();
       return sampleVariance;
    }
 
@@ -292,6 +407,7 @@ public class EmpiricalDist extends DiscreteDistribution {
     * @return the sample standard deviation
     */
    public double getSampleStandardDeviation() {
+      computeStatistics();
       return sampleStandardDeviation;
    }
 
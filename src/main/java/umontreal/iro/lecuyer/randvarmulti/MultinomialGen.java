@@ -26,20 +26,40 @@
 
 package umontreal.iro.lecuyer.randvarmulti;
 
+import java.util.Arrays;
+
 import umontreal.iro.lecuyer.randvar.UniformGen;
 
 /**
  * Multinomial random variates generator
  * 
+ * <p>When the number of trials does not exceed the number of categories, each trial is 
+ * located by binary search over the cumulative probabilities. Otherwise a point is drawn 
+ * as a chain of conditional binomials, each one sampled by inversion for small means and 
+ * by the BTRD rejection method of Hörmann (1993) for large ones, so that the cost per 
+ * point is O(k) irrespective of the number of trials.
+ * 
  * @author Roberto Rossi
  *
  */
 
 public class MultinomialGen extends RandomMultivariateGen {
 	
+	/* Stirling series corrections log(k!) - [(k+0.5)log(k+1) - (k+1) + log(2pi)/2] for k < 10 */
+	private static final double[] STIRLING_CORRECTION = {
+		0.08106146679532726, 0.04134069595540929, 0.02767792568499834,
+		0.02079067210376509, 0.01664469118982119, 0.01387612882307075,
+		0.01189670994589177, 0.01041126526197209, 0.009255462182712733,
+		0.008330563433362871
+	};
+	
 	UniformGen rng;
 	double p[];
 	int N;
+	/* cumulative probabilities, used to locate single trials */
+	private final double[] cumulative;
+	/* probability mass of the categories from i onwards */
+	private final double[] tail;
 	
 	/**
 	 * Multinomial random variates generator constructor
@@ -52,21 +72,182 @@ public class MultinomialGen extends RandomMultivariateGen {
 		this.rng = rng;
 		this.p = p;
 		this.N = N;
+		this.dimension = p.length;
+		this.cumulative = new double[p.length];
+		double sum = 0;
+		for(int i = 0; i < p.length; i++){
+			sum += p[i];
+			this.cumulative[i] = sum;
+		}
+		this.tail = new double[p.length + 1];
+		for(int i = p.length - 1; i >= 0; i--){
+			this.tail[i] = this.tail[i + 1] + p[i];
+		}
 	}
 
+	/**
+	 * Generates a new point; the content of {@code p} is overwritten.
+	 * 
+	 * @param p array receiving the counts of each category
+	 */
 	@Override
 	public void nextPoint(double[] p) {
-		// TODO Auto-generated method stub
-		for(int j = 0; j < this.N; j++){
-			double mass = this.rng.nextDouble();
-			double cumulative = 0;
-			for(int i = 0; i < this.p.length; i++){
-				cumulative += this.p[i];
-				if(cumulative > mass){
+		Arrays.fill(p, 0, this.p.length, 0);
+		if(this.N <= this.p.length){
+			for(int j = 0; j < this.N; j++){
+				int i = locate(this.rng.nextDouble());
+				if(i < this.p.length)
 					p[i] += 1;
-					break;
+			}
+		}else{
+			int remaining = this.N;
+			for(int i = 0; i < this.p.length && remaining > 0; i++){
+				double q = this.tail[i] > 0 ? this.p[i] / this.tail[i] : 0;
+				int x = q >= 1 ? remaining : nextBinomial(remaining, q);
+				p[i] = x;
+				remaining -= x;
+			}
+		}
+	}
+	
+	/**
+	 * Generates {@code count} new points.
+	 * 
+	 * @param out array receiving the points, each one of length at least the number of categories
+	 * @param count number of points
+	 */
+	public void nextPoints(double[][] out, int count){
+		if(count > out.length)
+			throw new IllegalArgumentException("Output array too small");
+		for(int j = 0; j < count; j++){
+			nextPoint(out[j]);
+		}
+	}
+	
+	/**
+	 * Finds the first category whose cumulative probability exceeds {@code mass}.
+	 * 
+	 * @param mass uniform variate
+	 * @return the category, or the number of categories if probabilities sum up to less than {@code mass}
+	 */
+	private int locate(double mass){
+		int lo = 0, hi = this.cumulative.length;
+		while(lo < hi){
+			int mid = (lo + hi) >>> 1;
+			if(this.cumulative[mid] > mass)
+				hi = mid;
+			else
+				lo = mid + 1;
+		}
+		return lo;
+	}
+	
+	/**
+	 * Draws a binomial variate.
+	 * 
+	 * @param n trials
+	 * @param q success probability, in [0,1)
+	 * @return number of successes
+	 */
+	private int nextBinomial(int n, double q){
+		if(q <= 0)
+			return 0;
+		if(q > 0.5)
+			return n - nextBinomial(n, 1 - q);
+		if(n * q < 10)
+			return binomialInversion(n, q);
+		else
+			return binomialBTRD(n, q);
+	}
+	
+	/**
+	 * Sequential search inversion, in expected O(nq) steps.
+	 */
+	private int binomialInversion(int n, double q){
+		double s = q / (1 - q);
+		double a = (n + 1) * s;
+		double r = Math.pow(1 - q, n);
+		double u = this.rng.nextDouble();
+		int x = 0;
+		while(u > r && x < n){
+			u -= r;
+			x++;
+			r *= a / x - s;
+		}
+		return x;
+	}
+	
+	/**
+	 * Transformed rejection with decomposition, in O(1) expected steps; requires nq >= 10 and q <= 0.5.
+	 */
+	private int binomialBTRD(int n, double q){
+		double npq = n * q * (1 - q);
+		double spq = Math.sqrt(npq);
+		int m = (int) Math.floor((n + 1) * q);
+		double r = q / (1 - q);
+		double nr = (n + 1) * r;
+		double b = 1.15 + 2.53 * spq;
+		double a = -0.0873 + 0.0248 * b + 0.01 * q;
+		double c = n * q + 0.5;
+		double alpha = (2.83 + 5.1 / b) * spq;
+		double vr = 0.92 - 4.2 / b;
+		double urvr = 0.86 * vr;
+		while(true){
+			double u;
+			double v = this.rng.nextDouble();
+			if(v <= urvr){
+				u = v / vr - 0.43;
+				return (int) Math.floor((2 * a / (0.5 - Math.abs(u)) + b) * u + c);
+			}
+			if(v >= vr){
+				u = this.rng.nextDouble() - 0.5;
+			}else{
+				u = v / vr - 0.93;
+				u = Math.signum(u) * 0.5 - u;
+				v = this.rng.nextDouble() * vr;
+			}
+			double us = 0.5 - Math.abs(u);
+			int k = (int) Math.floor((2 * a / us + b) * u + c);
+			if(k < 0 || k > n)
+				continue;
+			v = v * alpha / (a / (us * us) + b);
+			int km = Math.abs(k - m);
+			if(km <= 15){
+				// recursive evaluation of f(k)/f(m)
+				double f = 1;
+				if(m < k){
+					for(int i = m + 1; i <= k; i++)
+						f *= nr / i - r;
+				}else if(m > k){
+					for(int i = k + 1; i <= m; i++)
+						v *= nr / i - r;
 				}
+				if(v <= f)
+					return k;
+				continue;
 			}
+			// squeeze on the normal approximation of log f(k)/f(m)
+			v = Math.log(v);
+			double rho = (km / npq) * (((km / 3.0 + 0.625) * km + 1.0 / 6.0) / npq + 0.5);
+			double t = -km * (double) km / (2 * npq);
+			if(v < t - rho)
+				return k;
+			if(v > t + rho)
+				continue;
+			int nm = n - m + 1;
+			double h = (m + 0.5) * Math.log((m + 1) / (r * nm)) + stirlingCorrection(m) + stirlingCorrection(n - m);
+			int nk = n - k + 1;
+			if(v <= h + (n + 1) * Math.log((double) nm / nk) + (k + 0.5) * Math.log(nk * r / (k + 1)) 
+					- stirlingCorrection(k) - stirlingCorrection(n - k))
+				return k;
 		}
 	}
-}
\ No newline at end of file
+	
+	private static double stirlingCorrection(int k){
+		if(k < STIRLING_CORRECTION.length)
+			return STIRLING_CORRECTION[k];
+		double r = 1.0 / (k + 1);
+		double rr = r * r;
+		return (1.0 / 12 - (1.0 / 360 - rr / 1260) * rr) * r;
+	}
+}
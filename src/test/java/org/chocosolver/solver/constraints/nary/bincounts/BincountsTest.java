@@ -28,15 +28,20 @@ package org.chocosolver.solver.constraints.nary.bincounts;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.chocosolver.samples.AbstractProblem;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.SyatConstraintFactory;
 import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.strategy.IntStrategyFactory;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.RealVar;
 import org.chocosolver.solver.variables.VariableFactory;
 import org.chocosolver.util.iterators.DisposableValueIterator;
 import org.junit.After;
@@ -85,6 +90,228 @@ public class BincountsTest {
       assertTrue("Bincounts: ", bc.checkFilteredDomains(expectedFilteredDomains, expectedFilteredBins));
    }
    
+   @Test
+   public void testInstance1Native() {
+      String[] str={"-log","SILENT"};
+      int[][] values = {{1},{2},{3}};
+      int[][] binCounts = {{0,3},{0,3}};
+      int[] binBounds = {1,3,4};
+      
+      Bincounts bc = new Bincounts(values, binCounts, binBounds, BincountsDecompositionType.Native_EQ);
+      try{
+         bc.execute(str);
+      }catch (AssertionError e) {}
+      int[][] expectedFilteredDomains = new int[][]{{1},{2},{3}};
+      int[][] expectedFilteredBins = new int[][]{{2},{1}};
+      assertTrue("Bincounts: ", bc.checkFilteredDomains(expectedFilteredDomains, expectedFilteredBins));
+   }
+   
+   @Test
+   public void testInstance2Native() {
+      String[] str={"-log","SILENT"};
+      int[][] values = {{3,4},{1,2,4},{2,3,4}};
+      int[][] binCounts = {{1,3},{0,1}};
+      int[] binBounds = {1,3,5};
+      
+      Bincounts bc = new Bincounts(values, binCounts, binBounds, BincountsDecompositionType.Native_EQ);
+      try{
+         bc.execute(str);
+      }catch (AssertionError e) {}
+      int[][] expectedFilteredDomains = new int[][]{{3,4},{1,2},{2}};
+      int[][] expectedFilteredBins = new int[][]{{2},{1}};
+      assertTrue("Bincounts: ", bc.checkFilteredDomains(expectedFilteredDomains, expectedFilteredBins));
+   }
+   
+   @Test
+   public void testInstance3Native() {
+      String[] str={"-log","SILENT"};
+      int[][] values = {{0,1,2,3,4,5},{1,4},{2,5,6}};
+      int[][] binCounts = {{0,0},{2,3},{0,0}};
+      int[] binBounds = {0,2,5,7};
+      
+      Bincounts bc = new Bincounts(values, binCounts, binBounds, BincountsDecompositionType.Native_LE);
+      try{
+         bc.execute(str);
+      }catch (AssertionError e) {}
+      int[][] expectedFilteredDomains = new int[][]{{2,3,4},{4},{2}};
+      int[][] expectedFilteredBins = new int[][]{{0},{3},{0}};
+      assertTrue("Bincounts: ", bc.checkFilteredDomains(expectedFilteredDomains, expectedFilteredBins));
+   }
+   
+   @Test
+   public void testNativeSolutions() {
+      Random rnd = new Random(1234);
+      for(int r = 0; r < 60; r++){
+         int[][] values = new int[2 + rnd.nextInt(4)][];
+         for(int i = 0; i < values.length; i++){
+            values[i] = rnd.ints(0, 12).distinct().limit(1 + rnd.nextInt(4)).sorted().toArray();
+         }
+         int[] binBounds = {1 + rnd.nextInt(2), 4, 6 + rnd.nextInt(2), 10};
+         int[][] binCounts = new int[binBounds.length - 1][];
+         for(int j = 0; j < binCounts.length; j++){
+            int lb = rnd.nextInt(2);
+            binCounts[j] = new int[]{lb, lb + rnd.nextInt(values.length + 1)};
+         }
+         assertEquals("Instance "+r, 
+               solutions(values, binCounts, binBounds, BincountsDecompositionType.Agkun2016_2_EQ),
+               solutions(values, binCounts, binBounds, BincountsDecompositionType.Native_EQ));
+         assertEquals("Instance "+r, 
+               solutions(values, binCounts, binBounds, BincountsDecompositionType.Agkun2016_2_LE),
+               solutions(values, binCounts, binBounds, BincountsDecompositionType.Native_LE));
+      }
+   }
+   
+   @Test
+   public void testNoOpLastEvent() throws ContradictionException {
+      // an observation leaves a bin, then another one moves within its bins: the filtering must not be dropped
+      Solver solver = new Solver("Bincounts");
+      IntVar[] values = VariableFactory.boundedArray("Value", 2, 1, 5, solver);
+      IntVar[] bins = VariableFactory.boundedArray("Bin", 2, 0, 2, solver);
+      SyatConstraintFactory.bincountsDecomposition(values, bins, new int[]{1,3,6}, BincountsDecompositionType.Native_LE);
+      solver.propagate();
+      values[0].updateUpperBound(2, Cause.Null);
+      values[1].updateUpperBound(4, Cause.Null);
+      solver.propagate();
+      assertEquals(1, bins[0].getLB());
+      assertEquals(2, bins[0].getUB());
+      assertEquals(0, bins[1].getLB());
+      assertEquals(1, bins[1].getUB());
+   }
+   
+   @Test
+   public void testRealNative() throws ContradictionException {
+      Solver solver = new Solver("Bincounts");
+      double[][] bounds = {{1.5,2.5},{3,3.5},{0,1},{4.5,5}};
+      RealVar[] valueVariables = new RealVar[bounds.length];
+      for(int i = 0; i < bounds.length; i++)
+         valueVariables[i] = VariableFactory.real("Value "+(i+1), bounds[i][0], bounds[i][1], 0.01, solver);
+      IntVar[] binVariables = VariableFactory.boundedArray("Bin", 3, 0, 4, solver);
+      double[] binBounds = {1, 3, 4, 5};
+      
+      SyatConstraintFactory.bincountsDecomposition(valueVariables, binVariables, binBounds, 0.01, BincountsDecompositionType.Native_EQ);
+      solver.propagate();
+      assertEquals(1, valueVariables[2].getLB(), 0);
+      assertEquals(2, binVariables[0].getLB());
+      assertEquals(2, binVariables[0].getUB());
+      assertEquals(1, binVariables[1].getLB());
+      assertEquals(1, binVariables[1].getUB());
+      assertEquals(1, binVariables[2].getLB());
+      assertEquals(1, binVariables[2].getUB());
+   }
+   
+   @Test
+   public void testRealNativePruning() throws ContradictionException {
+      Solver solver = new Solver("Bincounts");
+      double[][] bounds = {{1.5,2.5},{1,1.2},{0.5,1.5}};
+      RealVar[] valueVariables = new RealVar[bounds.length];
+      for(int i = 0; i < bounds.length; i++)
+         valueVariables[i] = VariableFactory.real("Value "+(i+1), bounds[i][0], bounds[i][1], 0.01, solver);
+      IntVar[] binVariables = new IntVar[]{
+            VariableFactory.bounded("Bin 1", 1, 3, solver),
+            VariableFactory.bounded("Bin 2", 0, 1, solver),
+            VariableFactory.bounded("Bin 3", 0, 3, solver)};
+      double[] binBounds = {0, 1, 2, 3};
+      
+      SyatConstraintFactory.bincountsDecomposition(valueVariables, binVariables, binBounds, 0.01, BincountsDecompositionType.Native_LE);
+      solver.propagate();
+      assertEquals(2, valueVariables[0].getLB(), 0);
+      assertEquals(Math.nextDown(1.0), valueVariables[2].getUB(), 0);
+      assertEquals(1, binVariables[0].getValue());
+      assertEquals(1, binVariables[1].getValue());
+      assertEquals(1, binVariables[2].getValue());
+   }
+   
+   @Test
+   public void testRealNativeSoundness() {
+      Random rnd = new Random(4321);
+      double[] binBounds = {0, 1.5, 2, 3.25, 5};
+      for(int r = 0; r < 200; r++){
+         boolean forceEquality = rnd.nextBoolean();
+         Solver solver = new Solver("Bincounts");
+         RealVar[] valueVariables = new RealVar[2 + rnd.nextInt(5)];
+         for(int i = 0; i < valueVariables.length; i++){
+            double lb = rnd.nextInt(12)/2.0 - 0.5;
+            valueVariables[i] = VariableFactory.real("Value "+(i+1), lb, lb + rnd.nextInt(6)/4.0, 0.01, solver);
+         }
+         IntVar[] binVariables = VariableFactory.boundedArray("Bin", binBounds.length - 1, 0, valueVariables.length, solver);
+         SyatConstraintFactory.bincountsDecomposition(valueVariables, binVariables, binBounds, 0.01, 
+               forceEquality ? BincountsDecompositionType.Native_EQ : BincountsDecompositionType.Native_LE);
+         double[][] points = new double[20][valueVariables.length];
+         for(double[] point : points)
+            for(int i = 0; i < point.length; i++)
+               point[i] = valueVariables[i].getLB() + rnd.nextInt(5)*(valueVariables[i].getUB() - valueVariables[i].getLB())/4;
+         try{
+            solver.propagate();
+         }catch(ContradictionException e){
+            for(double[] point : points)
+               assertTrue("Instance "+r, forceEquality && histogram(point, binBounds, forceEquality) == null);
+            continue;
+         }
+         for(double[] point : points){
+            int[] histogram = histogram(point, binBounds, forceEquality);
+            if(forceEquality && histogram == null)
+               continue;
+            for(int j = 0; j < binVariables.length; j++)
+               assertTrue("Instance "+r, binVariables[j].contains(histogram[j]));
+            solver.getEnvironment().worldPush();
+            try{
+               for(int i = 0; i < point.length; i++)
+                  valueVariables[i].updateBounds(point[i], point[i], Cause.Null);
+               solver.propagate();
+               for(int j = 0; j < binVariables.length; j++)
+                  assertEquals("Instance "+r, histogram[j], binVariables[j].getValue());
+            }catch(ContradictionException e){
+               fail("Instance "+r);
+            }
+            solver.getEngine().flush();
+            solver.getEnvironment().worldPop();
+         }
+      }
+   }
+   
+   /**
+    * Bin counts of real valued observations; if all observations must fall within the bins, 
+    * the last breakpoint belongs to the last bin and {@code null} is returned if some 
+    * observation falls outside the bins.
+    */
+   private static int[] histogram(double[] observations, double[] binBounds, boolean forceEquality){
+      int k = binBounds.length - 1;
+      int[] histogram = new int[k];
+      for(double observation : observations){
+         if(forceEquality && observation == binBounds[k]){
+            histogram[k - 1]++;
+         }else if(observation < binBounds[0] || observation >= binBounds[k]){
+            if(forceEquality)
+               return null;
+         }else{
+            int j = 0;
+            while(observation >= binBounds[j + 1])
+               j++;
+            histogram[j]++;
+         }
+      }
+      return histogram;
+   }
+   
+   private List<String> solutions(int[][] values, int[][] binCounts, int[] binBounds, BincountsDecompositionType decompositionType){
+      Bincounts bc = new Bincounts(values, binCounts, binBounds, decompositionType);
+      bc.createSolver();
+      bc.buildModel();
+      Solver solver = bc.getSolver();
+      IntVar[] all = bc.mergeArrays(bc.valueVariables, bc.binVariables);
+      solver.set(IntStrategyFactory.lexico_LB(all));
+      List<String> solutions = new ArrayList<String>();
+      if(solver.findSolution()){
+         do{
+            int[] solution = new int[all.length];
+            for(int i = 0; i < all.length; i++)
+               solution[i] = all[i].getValue();
+            solutions.add(Arrays.toString(solution));
+         }while(solver.nextSolution());
+      }
+      return solutions;
+   }
+   
    class Bincounts extends AbstractProblem {
       public IntVar[] valueVariables;
       public IntVar[] binVariables;
@@ -92,13 +319,22 @@ public class BincountsTest {
       int[][] binCounts;
       int[][] values;
       int[] binBounds;
+      BincountsDecompositionType decompositionType;
       
       public Bincounts(int[][] values,
                        int[][] binCounts, 
                        int[] binBounds){
+         this(values, binCounts, binBounds, BincountsDecompositionType.Agkun2016_2_EQ);
+      }
+      
+      public Bincounts(int[][] values,
+                       int[][] binCounts, 
+                       int[] binBounds,
+                       BincountsDecompositionType decompositionType){
          this.values = values.clone();
          this.binCounts = binCounts.clone();
          this.binBounds = binBounds.clone();
+         this.decompositionType = decompositionType;
       }
       
       @Override
@@ -117,7 +353,7 @@ public class BincountsTest {
          for(int i = 0; i < this.binCounts.length; i++)
             binVariables[i] = VariableFactory.bounded("Bin "+(i+1), this.binCounts[i][0], this.binCounts[i][1], solver);
          
-         SyatConstraintFactory.bincountsDecomposition(valueVariables, binVariables, binBounds, BincountsDecompositionType.Agkun2016_2_EQ);      
+         SyatConstraintFactory.bincountsDecomposition(valueVariables, binVariables, binBounds, decompositionType);
       }
       
       private IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
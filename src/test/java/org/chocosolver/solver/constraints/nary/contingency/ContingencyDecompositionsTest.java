@@ -28,10 +28,16 @@ package org.chocosolver.solver.constraints.nary.contingency;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.chocosolver.samples.AbstractProblem;
+import org.chocosolver.solver.Cause;
 import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.SyatConstraintFactory;
+import org.chocosolver.solver.exception.ContradictionException;
 import org.chocosolver.solver.search.strategy.IntStrategyFactory;
 import org.chocosolver.solver.search.strategy.RealStrategyFactory;
 import org.chocosolver.solver.variables.IntVar;
@@ -82,6 +88,345 @@ public class ContingencyDecompositionsTest {
       cd.getSolver().getIbex().release();
    }
 
+   @Test
+   public void testIntegerNative() {
+      String[] str={"-log","SOLUTION"};
+      
+      int[][] valuesA = {{3},{3},{1},{1},{2}};
+      int[][] valuesB = {{1},{1},{2},{2},{3}};
+      int[] binCounts = {0,valuesA.length};
+      int[][] binBounds = {{1,2,3,4},{1,2,3,4}};
+      
+      ContingencyDecompositionsInteger cd = new ContingencyDecompositionsInteger(valuesA, valuesB, binCounts, binBounds, true);
+      cd.execute(str);
+   }
+   
+   @Test
+   public void testRealNative() {
+      String[] str={"-log","SOLUTION"};
+      
+      double[][] valuesA = {{3},{3},{1},{1},{2}};
+      double[][] valuesB = {{1},{1},{2},{2},{3}};
+      int[] binCounts = {0,valuesA.length};
+      double[][] binBounds = {{0.5,1.5,2.5,3.5},{0.5,1.5,2.5,3.5}};
+      
+      ContingencyDecompositionsReal cd = new ContingencyDecompositionsReal(valuesA, valuesB, binCounts, binBounds, true);
+      cd.execute(str);
+   }
+   
+   @Test
+   public void testIntegerNativePruning() throws ContradictionException {
+      Solver solver = new Solver("ContingencyInteger");
+      IntVar[] seriesA = {
+            VariableFactory.enumerated("Value A1", new int[]{1,2,3}, solver),
+            VariableFactory.enumerated("Value A2", new int[]{1,3}, solver),
+            VariableFactory.enumerated("Value A3", new int[]{2}, solver)};
+      IntVar[] seriesB = {
+            VariableFactory.enumerated("Value B1", new int[]{1}, solver),
+            VariableFactory.enumerated("Value B2", new int[]{1,2}, solver),
+            VariableFactory.enumerated("Value B3", new int[]{1,3}, solver)};
+      int[][] binBounds = {{1,2,3,4},{1,2,4}};
+      IntVar[][] binVariables = VariableFactory.boundedMatrix("CD_Bin", 3, 2, 0, 3, solver);
+      IntVar[] marginalsH = VariableFactory.boundedArray("CD_Marginals H", 3, 0, 3, solver);
+      IntVar[] marginalsV = VariableFactory.boundedArray("CD_Marginals V", 2, 0, 3, solver);
+      ContingencyDecompositions.contingencyPropagator(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+      solver.propagate();
+      
+      assertEquals(2, binVariables[1][1].getUB());
+      assertEquals(1, marginalsH[1].getLB());
+      assertEquals(1, marginalsV[0].getLB());
+      
+      // empty cells are removed from the pairs whose row or column is fixed
+      binVariables[1][1].updateUpperBound(0, Cause.Null);
+      binVariables[2][0].instantiateTo(0, Cause.Null);
+      solver.propagate();
+      assertEquals(1, seriesB[2].getValue());
+      assertEquals(2, seriesA[0].getUB());
+      
+      // the third pair fills cell (1,0)
+      binVariables[1][0].updateUpperBound(1, Cause.Null);
+      solver.propagate();
+      assertEquals(1, seriesA[0].getValue());
+      assertEquals(1, binVariables[0][0].getLB());
+   }
+   
+   @Test
+   public void testIntegerNonSquareMarginals() {
+      // more rows than columns: each column sum runs over the rows
+      Solver solver = new Solver("ContingencyInteger");
+      IntVar[] seriesA = {
+            VariableFactory.enumerated("Value A1", new int[]{1}, solver),
+            VariableFactory.enumerated("Value A2", new int[]{3}, solver),
+            VariableFactory.enumerated("Value A3", new int[]{3}, solver),
+            VariableFactory.enumerated("Value A4", new int[]{2}, solver)};
+      IntVar[] seriesB = {
+            VariableFactory.enumerated("Value B1", new int[]{1}, solver),
+            VariableFactory.enumerated("Value B2", new int[]{3}, solver),
+            VariableFactory.enumerated("Value B3", new int[]{1}, solver),
+            VariableFactory.enumerated("Value B4", new int[]{2}, solver)};
+      int[][] binBounds = {{1,2,3,4},{1,2,4}};
+      IntVar[][] binVariables = VariableFactory.boundedMatrix("CD_Bin", 3, 2, 0, 4, solver);
+      IntVar[] marginalsH = VariableFactory.boundedArray("CD_Marginals H", 3, 0, 4, solver);
+      IntVar[] marginalsV = VariableFactory.boundedArray("CD_Marginals V", 2, 0, 4, solver);
+      ContingencyDecompositions.decompose(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+      assertTrue(solver.findSolution());
+      
+      int[][] counts = {{1,0},{0,1},{1,1}};
+      for(int i = 0; i < counts.length; i++){
+         for(int j = 0; j < counts[i].length; j++){
+            assertEquals(counts[i][j], binVariables[i][j].getValue());
+         }
+      }
+      assertArrayEquals(new int[]{1,1,2}, new int[]{marginalsH[0].getValue(), marginalsH[1].getValue(), marginalsH[2].getValue()});
+      assertArrayEquals(new int[]{2,2}, new int[]{marginalsV[0].getValue(), marginalsV[1].getValue()});
+   }
+   
+   @Test
+   public void testNativeSolutions() {
+      Random rnd = new Random(1234);
+      int[][] binBounds = {{1,3,5,8},{0,2,4,7}};
+      for(int r = 0; r < 60; r++){
+         int observations = 2 + rnd.nextInt(2);
+         int[][] valuesA = new int[observations][];
+         int[][] valuesB = new int[observations][];
+         for(int s = 0; s < observations; s++){
+            valuesA[s] = rnd.ints(0, 9).distinct().limit(1 + rnd.nextInt(3)).sorted().toArray();
+            valuesB[s] = rnd.ints(0, 8).distinct().limit(1 + rnd.nextInt(3)).sorted().toArray();
+         }
+         int[][][] cellCounts = new int[binBounds[0].length - 1][binBounds[1].length - 1][];
+         for(int i = 0; i < cellCounts.length; i++){
+            for(int j = 0; j < cellCounts[i].length; j++){
+               int lb = rnd.nextInt(12) == 0 ? 1 : 0;
+               cellCounts[i][j] = new int[]{lb, lb + rnd.nextInt(observations + 1)};
+            }
+         }
+         List<String> solutions = solutions(valuesA, valuesB, binBounds, cellCounts, false, false);
+         assertEquals("Instance "+r, solutions, solutions(valuesA, valuesB, binBounds, cellCounts, true, false));
+         assertEquals("Instance "+r, solutions, solutions(valuesA, valuesB, binBounds, cellCounts, false, true));
+         assertEquals("Instance "+r, solutions, solutions(valuesA, valuesB, binBounds, cellCounts, true, true));
+      }
+   }
+   
+   @Test
+   public void testSparseBinVariables() {
+      Solver solver = new Solver("ContingencyInteger");
+      IntVar[] seriesA = {
+            VariableFactory.bounded("Value A1", 1, 2, solver),
+            VariableFactory.bounded("Value A2", 5, 9, solver),
+            VariableFactory.bounded("Value A3", 2, 3, solver)};
+      IntVar[] seriesB = {
+            VariableFactory.bounded("Value B1", 0, 1, solver),
+            VariableFactory.bounded("Value B2", 7, 8, solver),
+            VariableFactory.bounded("Value B3", 0, 3, solver)};
+      int[][] binBounds = {{1,3,5,8},{0,2,4,7}};
+      IntVar[][] binVariables = ContingencyDecompositions.sparseBinVariables("CD_Bin", seriesA, seriesB, binBounds);
+      
+      // the first pair falls in cell (0,0), the third one spans cells (0,0) to (1,1), the second one falls outside the table
+      int[][] upperBounds = {{2,1,-1},{1,1,-1},{-1,-1,-1}};
+      for(int i = 0; i < upperBounds.length; i++){
+         for(int j = 0; j < upperBounds[i].length; j++){
+            if(upperBounds[i][j] < 0){
+               assertNull(binVariables[i][j]);
+            }else{
+               assertEquals(0, binVariables[i][j].getLB());
+               assertEquals(upperBounds[i][j], binVariables[i][j].getUB());
+            }
+         }
+      }
+   }
+   
+   @Test
+   public void testRealNativeSoundness() {
+      Random rnd = new Random(4321);
+      double[][] binBounds = {{0, 1.5, 2, 3.25, 5},{1, 2, 2.5}};
+      for(int r = 0; r < 200; r++){
+         Solver solver = new Solver("ContingencyReal");
+         int observations = 2 + rnd.nextInt(4);
+         RealVar[] seriesA = new RealVar[observations];
+         RealVar[] seriesB = new RealVar[observations];
+         for(int s = 0; s < observations; s++){
+            double lb = rnd.nextInt(12)/2.0 - 0.5;
+            seriesA[s] = VariableFactory.real("Value A"+(s+1), lb, lb + rnd.nextInt(6)/4.0, 0.01, solver);
+            lb = rnd.nextInt(8)/4.0 + 0.5;
+            seriesB[s] = VariableFactory.real("Value B"+(s+1), lb, lb + rnd.nextInt(4)/4.0, 0.01, solver);
+         }
+         boolean sparse = rnd.nextBoolean();
+         IntVar[][] binVariables = sparse ?
+               ContingencyDecompositions.sparseBinVariables("CD_Bin", seriesA, seriesB, binBounds) :
+               VariableFactory.boundedMatrix("CD_Bin", binBounds[0].length - 1, binBounds[1].length - 1, 0, observations, solver);
+         IntVar[] marginalsH = VariableFactory.boundedArray("CD_Marginals H", binVariables.length, 0, observations, solver);
+         IntVar[] marginalsV = VariableFactory.boundedArray("CD_Marginals V", binVariables[0].length, 0, observations, solver);
+         for(int i = 0; i < binVariables.length; i++){
+            for(int j = 0; j < binVariables[i].length; j++){
+               if(binVariables[i][j] != null && rnd.nextInt(4) == 0)
+                  binVariables[i][j] = VariableFactory.bounded("CD_Bin "+i+","+j, 0, rnd.nextInt(2), solver);
+            }
+         }
+         ContingencyDecompositions.contingencyPropagator(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+         double[][][] points = new double[20][2][observations];
+         for(double[][] point : points){
+            for(int s = 0; s < observations; s++){
+               point[0][s] = seriesA[s].getLB() + rnd.nextInt(5)*(seriesA[s].getUB() - seriesA[s].getLB())/4;
+               point[1][s] = seriesB[s].getLB() + rnd.nextInt(5)*(seriesB[s].getUB() - seriesB[s].getLB())/4;
+            }
+         }
+         try{
+            solver.propagate();
+         }catch(ContradictionException e){
+            for(double[][] point : points)
+               assertFalse("Instance "+r, fits(contingencyTable(point, binBounds), binVariables));
+            continue;
+         }
+         for(double[][] point : points){
+            int[][] table = contingencyTable(point, binBounds);
+            if(!fits(table, binVariables))
+               continue;
+            solver.getEnvironment().worldPush();
+            try{
+               for(int s = 0; s < observations; s++){
+                  seriesA[s].updateBounds(point[0][s], point[0][s], Cause.Null);
+                  seriesB[s].updateBounds(point[1][s], point[1][s], Cause.Null);
+               }
+               solver.propagate();
+               int[] columnCounts = new int[table[0].length];
+               for(int i = 0; i < table.length; i++){
+                  int rowCount = 0;
+                  for(int j = 0; j < table[i].length; j++){
+                     if(binVariables[i][j] != null)
+                        assertEquals("Instance "+r, table[i][j], binVariables[i][j].getValue());
+                     rowCount += table[i][j];
+                     columnCounts[j] += table[i][j];
+                  }
+                  assertEquals("Instance "+r, rowCount, marginalsH[i].getValue());
+               }
+               for(int j = 0; j < columnCounts.length; j++)
+                  assertEquals("Instance "+r, columnCounts[j], marginalsV[j].getValue());
+            }catch(ContradictionException e){
+               fail("Instance "+r);
+            }
+            solver.getEngine().flush();
+            solver.getEnvironment().worldPop();
+         }
+      }
+   }
+   
+   @Test
+   public void testRealNativeTopEdge() throws ContradictionException {
+      Solver solver = new Solver("ContingencyReal");
+      RealVar[] seriesA = {
+            VariableFactory.real("Value A1", 3.5, 3.5, 0.01, solver),
+            VariableFactory.real("Value A2", 0.5, 3.5, 0.01, solver)};
+      RealVar[] seriesB = {
+            VariableFactory.real("Value B1", 2.5, 2.5, 0.01, solver),
+            VariableFactory.real("Value B2", 1, 1, 0.01, solver)};
+      double[][] binBounds = {{0.5,1.5,2.5,3.5},{0.5,1.5,2.5}};
+      IntVar[][] binVariables = VariableFactory.boundedMatrix("CD_Bin", 3, 2, 0, 2, solver);
+      IntVar[] marginalsH = VariableFactory.boundedArray("CD_Marginals H", 3, 0, 2, solver);
+      IntVar[] marginalsV = VariableFactory.boundedArray("CD_Marginals V", 2, 0, 2, solver);
+      ContingencyDecompositions.contingencyPropagator(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+      // the last breakpoints belong to the last row and column, as with the Ibex decomposition
+      solver.propagate();
+      assertEquals(1, binVariables[2][1].getValue());
+      assertEquals(1, marginalsV[1].getValue());
+      
+      // restricting the second pair to the last row keeps the last breakpoint
+      binVariables[2][0].updateLowerBound(1, Cause.Null);
+      solver.propagate();
+      assertEquals(2.5, seriesA[1].getLB(), 0);
+      assertEquals(3.5, seriesA[1].getUB(), 0);
+      assertEquals(2, marginalsH[2].getValue());
+   }
+   
+   /**
+    * Contingency table of pairs of real valued observations; the last breakpoints belong to 
+    * the last bins and pairs falling outside the bins are not counted.
+    */
+   private static int[][] contingencyTable(double[][] observations, double[][] binBounds){
+      int[][] table = new int[binBounds[0].length - 1][binBounds[1].length - 1];
+      for(int s = 0; s < observations[0].length; s++){
+         int i = bin(observations[0][s], binBounds[0]);
+         int j = bin(observations[1][s], binBounds[1]);
+         if(i >= 0 && j >= 0)
+            table[i][j]++;
+      }
+      return table;
+   }
+   
+   private static int bin(double observation, double[] binBounds){
+      int k = binBounds.length - 1;
+      if(observation == binBounds[k])
+         return k - 1;
+      if(observation < binBounds[0] || observation > binBounds[k])
+         return -1;
+      int j = 0;
+      while(observation >= binBounds[j + 1])
+         j++;
+      return j;
+   }
+   
+   private static boolean fits(int[][] table, IntVar[][] binVariables){
+      for(int i = 0; i < table.length; i++){
+         for(int j = 0; j < table[i].length; j++){
+            if(binVariables[i][j] == null ? table[i][j] != 0 : !binVariables[i][j].contains(table[i][j]))
+               return false;
+         }
+      }
+      return true;
+   }
+   
+   private List<String> solutions(int[][] valuesA, int[][] valuesB, int[][] binBounds, int[][][] cellCounts, boolean propagator, boolean sparse){
+      Solver solver = new Solver("ContingencyInteger");
+      int observations = valuesA.length;
+      IntVar[] seriesA = new IntVar[observations];
+      IntVar[] seriesB = new IntVar[observations];
+      for(int s = 0; s < observations; s++){
+         seriesA[s] = VariableFactory.enumerated("Value A"+(s+1), valuesA[s], solver);
+         seriesB[s] = VariableFactory.enumerated("Value B"+(s+1), valuesB[s], solver);
+      }
+      IntVar[][] binVariables = sparse ? 
+            ContingencyDecompositions.sparseBinVariables("CD_Bin", seriesA, seriesB, binBounds) :
+            new IntVar[cellCounts.length][cellCounts[0].length];
+      List<String> solutions = new ArrayList<String>();
+      for(int i = 0; i < binVariables.length; i++){
+         for(int j = 0; j < binVariables[0].length; j++){
+            if(!sparse)
+               binVariables[i][j] = VariableFactory.bounded("CD_Bin "+(i+1)+","+(j+1), cellCounts[i][j][0], cellCounts[i][j][1], solver);
+            else if(binVariables[i][j] == null && cellCounts[i][j][0] > 0)
+               return solutions;
+            else if(binVariables[i][j] != null)
+               solver.post(SyatConstraintFactory.member(binVariables[i][j], cellCounts[i][j][0], cellCounts[i][j][1]));
+         }
+      }
+      IntVar[] marginalsH = VariableFactory.boundedArray("CD_Marginals H", binVariables.length, 0, observations, solver);
+      IntVar[] marginalsV = VariableFactory.boundedArray("CD_Marginals V", binVariables[0].length, 0, observations, solver);
+      SyatConstraintFactory.contingencyDecomposition(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV, 
+            propagator ? ContingencyDecompositionType.Native : ContingencyDecompositionType.Decomposition);
+      
+      IntVar[] all = new IntVar[2 * observations + binVariables.length * binVariables[0].length + marginalsH.length + marginalsV.length];
+      System.arraycopy(seriesA, 0, all, 0, observations);
+      System.arraycopy(seriesB, 0, all, observations, observations);
+      for(int i = 0; i < binVariables.length; i++)
+         System.arraycopy(binVariables[i], 0, all, 2 * observations + binVariables[0].length * i, binVariables[0].length);
+      System.arraycopy(marginalsH, 0, all, all.length - marginalsH.length - marginalsV.length, marginalsH.length);
+      System.arraycopy(marginalsV, 0, all, all.length - marginalsV.length, marginalsV.length);
+      // cells fixed to zero are not variables of sparse tables
+      List<IntVar> variables = new ArrayList<IntVar>();
+      for(IntVar variable : all){
+         if(variable != null)
+            variables.add(variable);
+      }
+      solver.set(IntStrategyFactory.lexico_LB(variables.toArray(new IntVar[variables.size()])));
+      if(solver.findSolution()){
+         do{
+            int[] solution = new int[all.length];
+            for(int i = 0; i < all.length; i++)
+               solution[i] = all[i] == null ? 0 : all[i].getValue();
+            solutions.add(Arrays.toString(solution));
+         }while(solver.nextSolution());
+      }
+      return solutions;
+   }
+
    class ContingencyDecompositionsInteger extends AbstractProblem {
       public IntVar[] seriesA;
       public IntVar[] seriesB;
@@ -93,15 +438,25 @@ public class ContingencyDecompositionsTest {
       int[][] valuesB;
       int[] binCounts;
       int[][] binBounds;
+      boolean propagator;
       
       public ContingencyDecompositionsInteger(int[][] valuesA,
                                               int[][] valuesB, 
                                               int[] binCounts,
                                               int[][] binBounds){
+         this(valuesA, valuesB, binCounts, binBounds, false);
+      }
+      
+      public ContingencyDecompositionsInteger(int[][] valuesA,
+                                              int[][] valuesB, 
+                                              int[] binCounts,
+                                              int[][] binBounds,
+                                              boolean propagator){
          this.valuesA = valuesA.clone();
          this.valuesB = valuesB.clone();
          this.binCounts = binCounts.clone();
          this.binBounds = binBounds.clone();
+         this.propagator = propagator;
       }
       
       @Override
@@ -132,7 +487,8 @@ public class ContingencyDecompositionsTest {
          
          marginalsV = VariableFactory.boundedArray("CD_Marginals V", binVariables[0].length, 0, observations, solver);
          
-         ContingencyDecompositions.decompose(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+         SyatConstraintFactory.contingencyDecomposition(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV, 
+               propagator ? ContingencyDecompositionType.Native : ContingencyDecompositionType.Decomposition);
       }
       
       @Override
@@ -190,6 +546,7 @@ public class ContingencyDecompositionsTest {
       double[][] valuesB;
       int[] binCounts;
       double[][] binBounds;
+      boolean propagator;
       
       double precision = 1.e-4;
       
@@ -197,10 +554,19 @@ public class ContingencyDecompositionsTest {
                                            double[][] valuesB, 
                                            int[] binCounts,
                                            double[][] binBounds){
+         this(valuesA, valuesB, binCounts, binBounds, false);
+      }
+      
+      public ContingencyDecompositionsReal(double[][] valuesA,
+                                           double[][] valuesB, 
+                                           int[] binCounts,
+                                           double[][] binBounds,
+                                           boolean propagator){
          this.valuesA = valuesA.clone();
          this.valuesB = valuesB.clone();
          this.binCounts = binCounts.clone();
          this.binBounds = binBounds.clone();
+         this.propagator = propagator;
       }
       
       @Override
@@ -231,7 +597,8 @@ public class ContingencyDecompositionsTest {
          
          marginalsV = VariableFactory.boundedArray("CD_Marginals V", binVariables[0].length, 0, observations, solver);
          
-         ContingencyDecompositions.decompose(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV);
+         SyatConstraintFactory.contingencyDecomposition(seriesA, seriesB, binVariables, binBounds, marginalsH, marginalsV, 
+               propagator ? ContingencyDecompositionType.Native : ContingencyDecompositionType.Decomposition);
       }
       
       @Override
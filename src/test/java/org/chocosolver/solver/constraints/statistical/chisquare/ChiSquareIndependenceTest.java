@@ -87,6 +87,56 @@ public class ChiSquareIndependenceTest {
       cs.getSolver().getIbex().release();
    }
 
+   @Test
+   public void testIntegerSparse() {
+      String[] str={"-log","SOLUTION"};
+      
+      int[][] valuesA = {{3},{3},{1},{1},{2}};
+      int[][] valuesB = {{1},{1},{2},{2},{3}};
+      int[] binCounts = {0,valuesA.length};
+      int[][] binBounds = {{1,2,3,4},{1,2,3,4}};
+      double confidence = 0.95;
+      double chiSqUB = new ChiSquareDist((binBounds[0].length-1)*(binBounds[1].length-1)).inverseF(confidence);
+      
+      double[] chiSqStatistic = {0,chiSqUB};
+      
+      ChiSquareIndependenceInteger dense = new ChiSquareIndependenceInteger(valuesA, valuesB, binCounts, binBounds, chiSqStatistic, false);
+      dense.execute(str);
+      dense.getSolver().getIbex().release();
+      
+      // only 3 of the 9 cells can be reached, the others contribute their expected count
+      ChiSquareIndependenceInteger sparse = new ChiSquareIndependenceInteger(valuesA, valuesB, binCounts, binBounds, chiSqStatistic, true);
+      sparse.execute(str);
+      sparse.getSolver().getIbex().release();
+      
+      assertEquals(dense.statistic[0], sparse.statistic[0], sparse.precision);
+      assertEquals(dense.statistic[1], sparse.statistic[1], sparse.precision);
+   }
+   
+   @Test
+   public void testRealSparse() {
+      String[] str={"-log","SOLUTION"};
+      
+      double[][] valuesA = {{3,3},{3,3},{1,1},{1,1},{2,2}};
+      double[][] valuesB = {{1,1},{1,1},{2,2},{2,2},{3,3}};
+      double[][] binBounds = {{0.5,1.5,2.5,3.5},{0.5,1.5,2.5,3.5}};
+      double confidence = 0.95;
+      double chiSqUB = new ChiSquareDist((binBounds[0].length-1)*(binBounds[1].length-1)).inverseF(confidence);
+      
+      double[] chiSqStatistic = {0,chiSqUB};
+      
+      ChiSquareIndependenceReal dense = new ChiSquareIndependenceReal(valuesA, valuesB, binBounds, chiSqStatistic, false);
+      dense.execute(str);
+      dense.getSolver().getIbex().release();
+      
+      ChiSquareIndependenceReal sparse = new ChiSquareIndependenceReal(valuesA, valuesB, binBounds, chiSqStatistic, true);
+      sparse.execute(str);
+      sparse.getSolver().getIbex().release();
+      
+      assertEquals(dense.statistic[0], sparse.statistic[0], sparse.precision);
+      assertEquals(dense.statistic[1], sparse.statistic[1], sparse.precision);
+   }
+
    class ChiSquareIndependenceInteger extends AbstractProblem {
       public IntVar[] seriesA;
       public IntVar[] seriesB;
@@ -101,6 +151,9 @@ public class ChiSquareIndependenceTest {
       int[][] binBounds;
       
       double[] chiSqStatistic;
+      boolean sparse;
+      /* bounds of the statistic in the first solution */
+      double[] statistic = new double[2];
       
       double precision = 1.e-4;
       
@@ -109,11 +162,21 @@ public class ChiSquareIndependenceTest {
                                           int[] binCounts,
                                           int[][] binBounds,
                                           double[] chiSqStatistic){
+         this(valuesA, valuesB, binCounts, binBounds, chiSqStatistic, false);
+      }
+      
+      public ChiSquareIndependenceInteger(int[][] valuesA,
+                                          int[][] valuesB, 
+                                          int[] binCounts,
+                                          int[][] binBounds,
+                                          double[] chiSqStatistic,
+                                          boolean sparse){
          this.valuesA = valuesA.clone();
          this.valuesB = valuesB.clone();
          this.binCounts = binCounts.clone();
          this.binBounds = binBounds.clone();
          this.chiSqStatistic = chiSqStatistic.clone();
+         this.sparse = sparse;
       }
       
       @Override
@@ -133,7 +196,7 @@ public class ChiSquareIndependenceTest {
          
          chiSqstatisticVariable = VF.real("chiSqStatistics", chiSqStatistic[0], chiSqStatistic[1], precision, solver);
          
-         ChiSquareIndependence.decomposition("chiSqConstraint", seriesA, seriesB, this.binBounds, chiSqstatisticVariable, precision, false);
+         ChiSquareIndependence.decomposition("chiSqConstraint", seriesA, seriesB, this.binBounds, chiSqstatisticVariable, precision, false, sparse);
       }
       
       @Override
@@ -156,6 +219,8 @@ public class ChiSquareIndependenceTest {
               assertTrue(chiSqstatisticVariable.getLB() <= 10+precision);
               assertTrue(chiSqstatisticVariable.getUB() >= 10-precision);
               
+              statistic[0] = chiSqstatisticVariable.getLB();
+              statistic[1] = chiSqstatisticVariable.getUB();
               st.append(chiSqstatisticVariable.getLB()+" "+chiSqstatisticVariable.getUB());
            }else{
               st.append("No solution!");
@@ -184,6 +249,9 @@ public class ChiSquareIndependenceTest {
       double[][] binBounds;
       
       double[] chiSqStatistic;
+      boolean sparse;
+      /* bounds of the statistic in the first solution */
+      double[] statistic = new double[2];
       
       double precision = 1.e-4;
       
@@ -191,10 +259,19 @@ public class ChiSquareIndependenceTest {
                                        double[][] valuesB, 
                                        double[][] binBounds,
                                        double[] chiSqStatistic){
+         this(valuesA, valuesB, binBounds, chiSqStatistic, false);
+      }
+      
+      public ChiSquareIndependenceReal(double[][] valuesA,
+                                       double[][] valuesB, 
+                                       double[][] binBounds,
+                                       double[] chiSqStatistic,
+                                       boolean sparse){
          this.valuesA = valuesA.clone();
          this.valuesB = valuesB.clone();
          this.binBounds = binBounds.clone();
          this.chiSqStatistic = chiSqStatistic.clone();
+         this.sparse = sparse;
       }
       
       @Override
@@ -214,7 +291,7 @@ public class ChiSquareIndependenceTest {
          
          chiSqstatisticVariable = VF.real("chiSqStatistics", chiSqStatistic[0], chiSqStatistic[1], precision, solver);
          
-         ChiSquareIndependence.decomposition("chiSqConstraint", seriesA, seriesB, this.binBounds, chiSqstatisticVariable, precision, false);
+         ChiSquareIndependence.decomposition("chiSqConstraint", seriesA, seriesB, this.binBounds, chiSqstatisticVariable, precision, false, sparse);
       }
       
       @Override
@@ -237,6 +314,8 @@ public class ChiSquareIndependenceTest {
               assertTrue(chiSqstatisticVariable.getLB() <= 10+precision);
               assertTrue(chiSqstatisticVariable.getUB() >= 10-precision);
               
+              statistic[0] = chiSqstatisticVariable.getLB();
+              statistic[1] = chiSqstatisticVariable.getUB();
               st.append(chiSqstatisticVariable.getLB()+" "+chiSqstatisticVariable.getUB());
            }else{
               st.append("No solution!");
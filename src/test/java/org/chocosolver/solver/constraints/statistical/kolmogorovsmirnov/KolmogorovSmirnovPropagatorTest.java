@@ -0,0 +1,426 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.chocosolver.solver.Cause;
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.constraints.Constraint;
+import org.chocosolver.solver.constraints.Operator;
+import org.chocosolver.solver.constraints.Propagator;
+import org.chocosolver.solver.constraints.SyatConstraintFactory;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.CachedDistributionVar;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.DistributionVar;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.ExponentialDistVar;
+import org.chocosolver.solver.exception.ContradictionException;
+import org.chocosolver.solver.search.strategy.IntStrategyFactory;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.VariableFactory;
+import org.junit.Test;
+import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
+
+import umontreal.iro.lecuyer.probdist.Distribution;
+import umontreal.iro.lecuyer.probdist.EmpiricalDist;
+import umontreal.iro.lecuyer.probdist.ExponentialDist;
+import umontreal.iro.lecuyer.probdist.NormalDist;
+
+/**
+ * Checks the Kolmogorov-Smirnov propagators against a decomposition that enumerates all the 
+ * assignments of the observations and evaluates the test on each of them.
+ */
+public class KolmogorovSmirnovPropagatorTest {
+   
+   private static final Distribution TARGET = new NormalDist(4, 2);
+   
+   private static IntVar[] mergeArrays(IntVar[] var1, IntVar[] var2){
+      IntVar[] var3 = new IntVar[var1.length+var2.length];
+      System.arraycopy(var1, 0, var3, 0, var1.length);
+      System.arraycopy(var2, 0, var3, var1.length, var2.length);
+      return var3;
+   }
+   
+   @Test
+   public void testTwoSampleNonMonotoneStatisticY() throws ContradictionException {
+      // statistics .667/.667/.667/0/.333 for y1 in 3..7: only y1 = 6 is accepted
+      Solver solver = new Solver("KS");
+      IntVar[] x = {VariableFactory.fixed("x1", 6, solver), VariableFactory.fixed("x2", 6, solver)};
+      IntVar[] y = {VariableFactory.bounded("y1", 3, 7, solver), VariableFactory.fixed("y2", 6, solver)};
+      solver.post(new Constraint("KS", new PropGreaterOrEqualX_YStDist(x, y, 0.3)));
+      solver.propagate();
+      assertEquals(6, y[0].getUB());
+      assertEquals(countTwoSampleGeq(x, y, 0.3), countSolutions(solver, mergeArrays(x, y)));
+      
+      solver = new Solver("KS");
+      x = new IntVar[]{VariableFactory.fixed("x1", 5, solver), VariableFactory.fixed("x2", 5, solver)};
+      y = new IntVar[]{VariableFactory.bounded("y1", 2, 7, solver), VariableFactory.fixed("y2", 5, solver)};
+      solver.post(new Constraint("KS", new PropGreaterOrEqualX_YStDist(x, y, 0.3)));
+      solver.propagate();
+      assertEquals(5, y[0].getUB());
+      assertEquals(countTwoSampleGeq(x, y, 0.3), countSolutions(solver, mergeArrays(x, y)));
+   }
+   
+   @Test
+   public void testTwoSampleGeqSolutions() {
+      Random rnd = new Random(2016);
+      for(int r = 0; r < 80; r++){
+         Solver solver = new Solver("KS");
+         IntVar[] x = randomObservations("x", 2 + rnd.nextInt(2), rnd, solver);
+         IntVar[] y = randomObservations("y", 2 + rnd.nextInt(2), rnd, solver);
+         double criticalValue = 0.2 + rnd.nextInt(6)/10.0;
+         long expected = countTwoSampleGeq(x, y, criticalValue);
+         solver.post(new Constraint("KS", new PropGreaterOrEqualX_YStDist(x, y, criticalValue)));
+         assertEquals("Instance "+r, expected, countSolutions(solver, mergeArrays(x, y)));
+      }
+   }
+   
+   @Test
+   public void testOneSampleSolutions() {
+      Random rnd = new Random(2017);
+      for(int r = 0; r < 60; r++){
+         for(Operator op : new Operator[]{Operator.GE, Operator.LE, Operator.GT, Operator.LT}){
+            Solver solver = new Solver("KS");
+            IntVar[] x = randomObservations("x", 2 + rnd.nextInt(3), rnd, solver);
+            double criticalValue = 0.2 + rnd.nextInt(6)/10.0;
+            long expected = countOneSample(op, x, null, criticalValue);
+            solver.post(new Constraint("KS", propagator(op, x, null, criticalValue)));
+            assertEquals("Instance "+r+" "+op, expected, countSolutions(solver, x));
+         }
+      }
+   }
+   
+   @Test
+   public void testOneSampleBounds() {
+      // the statistic of a dominance test is monotone in each observation: the filtered bound is the tightest one
+      Random rnd = new Random(2018);
+      for(int r = 0; r < 60; r++){
+         for(Operator op : new Operator[]{Operator.GE, Operator.LE}){
+            Solver solver = new Solver("KS");
+            IntVar[] x = randomObservations("x", 2 + rnd.nextInt(3), rnd, solver);
+            double criticalValue = 0.2 + rnd.nextInt(6)/10.0;
+            int[][] bounds = new int[2][x.length];
+            long expected = enumerate(x, values -> accepts(op, values, null, criticalValue), bounds);
+            solver.post(new Constraint("KS", propagator(op, x, null, criticalValue)));
+            try{
+               solver.propagate();
+               assertTrue("Instance "+r+" "+op, expected > 0);
+            }catch(ContradictionException e){
+               assertEquals("Instance "+r+" "+op, 0, expected);
+               continue;
+            }
+            for(int i = 0; i < x.length; i++){
+               if(op == Operator.GE)
+                  assertEquals("Instance "+r+" "+op, bounds[0][i], x[i].getLB());
+               else
+                  assertEquals("Instance "+r+" "+op, bounds[1][i], x[i].getUB());
+            }
+         }
+      }
+   }
+   
+   @Test
+   public void testOneSampleParameterSolutions() {
+      Random rnd = new Random(2019);
+      for(int r = 0; r < 40; r++){
+         for(Operator op : new Operator[]{Operator.GE, Operator.LE}){
+            Solver solver = new Solver("KS");
+            IntVar[] x = randomObservations("x", 2 + rnd.nextInt(2), rnd, solver);
+            int mean = 1 + rnd.nextInt(4);
+            IntVar lambda = VariableFactory.bounded("mean", mean, mean + rnd.nextInt(4), solver);
+            double criticalValue = 0.2 + rnd.nextInt(6)/10.0;
+            long expected = countOneSample(op, x, lambda, criticalValue);
+            solver.post(new Constraint("KS", propagator(op, x, lambda, criticalValue)));
+            assertEquals("Instance "+r+" "+op, expected, countSolutions(solver, mergeArrays(x, new IntVar[]{lambda})));
+         }
+      }
+   }
+   
+   @Test
+   public void testSharedDistributionVar() {
+      // a single distribution instance evaluated by two constraints
+      Random rnd = new Random(2020);
+      for(int r = 0; r < 20; r++){
+         Solver solver = new Solver("KS");
+         IntVar[] x = randomObservations("x", 2, rnd, solver);
+         IntVar[] y = randomObservations("y", 2, rnd, solver);
+         IntVar lambda = VariableFactory.bounded("mean", 1, 5, solver);
+         DistributionVar dist = new ExponentialDistVar(lambda);
+         solver.post(SyatConstraintFactory.kolmogorov_smirnov(x, dist, ">=", 0.8));
+         solver.post(SyatConstraintFactory.kolmogorov_smirnov(y, dist, "<=", 0.8));
+         double criticalValue = org.syat.statistics.KolmogorovSmirnovTest.criticalValueSingleTailed(x.length + 1, 0.8);
+         long expected = count(mergeArrays(mergeArrays(x, y), new IntVar[]{lambda}), values -> 
+               accepts(Operator.GE, new int[]{values[0], values[1], values[4]}, new ExponentialDist(1.0/values[4]), criticalValue) &&
+               accepts(Operator.LE, new int[]{values[2], values[3], values[4]}, new ExponentialDist(1.0/values[4]), criticalValue));
+         assertEquals("Instance "+r, expected, countSolutions(solver, mergeArrays(mergeArrays(x, y), new IntVar[]{lambda})));
+      }
+   }
+   
+   @Test
+   public void testNoOpLastEvent() throws ContradictionException {
+      // a bound the propagator watches moves, then a bound it ignores: the filtering must not be dropped
+      Random rnd = new Random(2021);
+      for(int r = 0; r < 60; r++){
+         for(Operator op : new Operator[]{Operator.GE, Operator.LE, Operator.GT, Operator.LT}){
+            for(boolean parameterised : new boolean[]{false, true}){
+               if(parameterised && (op == Operator.GT || op == Operator.LT))
+                  continue;
+               Solver solver = new Solver("KS");
+               IntVar[] x = new IntVar[3];
+               for(int i = 0; i < x.length; i++)
+                  x[i] = VariableFactory.bounded("x"+(i+1), 0, 8, solver);
+               IntVar lambda = parameterised ? VariableFactory.bounded("mean", 2, 6, solver) : null;
+               double criticalValue = 0.3 + rnd.nextInt(4)/10.0;
+               solver.post(new Constraint("KS", propagator(op, x, lambda, criticalValue)));
+               try{
+                  solver.propagate();
+               }catch(ContradictionException e){
+                  continue;
+               }
+               // upper bounds drive GE and GT, lower bounds drive LE and LT
+               boolean upper = op == Operator.GE || op == Operator.GT;
+               int watched = rnd.nextInt(x.length);
+               int ignored = (watched + 1 + rnd.nextInt(x.length - 1)) % x.length;
+               if(x[watched].getLB() == x[watched].getUB() || x[ignored].getLB() == x[ignored].getUB())
+                  continue;
+               boolean failed = false;
+               try{
+                  if(upper){
+                     x[watched].updateUpperBound(x[watched].getUB() - 1 - rnd.nextInt(x[watched].getUB() - x[watched].getLB()), Cause.Null);
+                     x[ignored].updateLowerBound(x[ignored].getLB() + 1, Cause.Null);
+                  }else{
+                     x[watched].updateLowerBound(x[watched].getLB() + 1 + rnd.nextInt(x[watched].getUB() - x[watched].getLB()), Cause.Null);
+                     x[ignored].updateUpperBound(x[ignored].getUB() - 1, Cause.Null);
+                  }
+                  solver.propagate();
+               }catch(ContradictionException e){
+                  failed = true;
+               }
+               
+               // the same domains filtered from scratch
+               Solver fresh = new Solver("KS");
+               IntVar[] y = copy(x, fresh);
+               IntVar mean = parameterised ? copy(new IntVar[]{lambda}, fresh)[0] : null;
+               fresh.post(new Constraint("KS", propagator(op, y, mean, criticalValue)));
+               try{
+                  fresh.propagate();
+                  assertFalse("Instance "+r+" "+op, failed);
+               }catch(ContradictionException e){
+                  assertTrue("Instance "+r+" "+op, failed);
+                  continue;
+               }
+               for(int i = 0; i < x.length; i++){
+                  assertEquals("Instance "+r+" "+op, y[i].getLB(), x[i].getLB());
+                  assertEquals("Instance "+r+" "+op, y[i].getUB(), x[i].getUB());
+               }
+            }
+         }
+      }
+   }
+   
+   @Test
+   public void testCdfCacheBudget() {
+      // the cdf of every parameter vector is cached over the widest support range allowed
+      Solver solver = new Solver("KS");
+      IntVar[] x = VariableFactory.boundedArray("x", 3, 0, KolmogorovSmirnov.CDF_CACHE_POINTS - 1, solver);
+      IntVar mean = VariableFactory.bounded("mean", 1, 1000, solver);
+      DistributionVar dist = KolmogorovSmirnov.cache(x, new ExponentialDistVar(mean));
+      assertTrue(dist instanceof CachedDistributionVar);
+      CachedDistributionVar cached = (CachedDistributionVar)dist;
+      for(int m = 1; m <= 1000; m++){
+         assertEquals(ExponentialDist.cdf(1.0/m, 10), cached.cdf(10, new double[]{m}), 0);
+         assertTrue(cached.size() >= 1);
+         assertTrue((long)cached.size() * KolmogorovSmirnov.CDF_CACHE_POINTS <= KolmogorovSmirnov.CDF_CACHE_BUDGET);
+      }
+   }
+   
+   /**
+    * One-sample propagator against {@link #TARGET} or, if {@code mean} is given, against 
+    * an exponential distribution whose mean is {@code mean}
+    */
+   private static Propagator<IntVar> propagator(Operator op, IntVar[] x, IntVar mean, double criticalValue){
+      if(mean != null){
+         DistributionVar dist = new ExponentialDistVar(mean);
+         switch(op){
+         case GE: 
+            return new PropGreaterOrEqualX_DStDist(x, dist, criticalValue);
+         case LE: 
+            return new PropLessOrEqualX_DStDist(x, dist, criticalValue);
+         default: 
+            throw new IllegalArgumentException();
+         }
+      }
+      switch(op){
+      case GE: 
+         return new PropGreaterOrEqualXCStDist(x, TARGET, criticalValue);
+      case LE: 
+         return new PropLessOrEqualXCStDist(x, TARGET, criticalValue);
+      case GT: 
+         return new PropGreaterXCStDist(x, TARGET, criticalValue);
+      case LT: 
+         return new PropLessXCStDist(x, TARGET, criticalValue);
+      default: 
+         throw new IllegalArgumentException();
+      }
+   }
+   
+   /**
+    * Outcome of a one-sample test on {@code values} against {@code dist}, or against {@link #TARGET} if {@code dist} is {@code null}
+    */
+   private static boolean accepts(Operator op, int[] values, Distribution dist, double criticalValue){
+      double[] statistics = new double[3];
+      org.syat.statistics.KolmogorovSmirnovTest.statistics(new EmpiricalDist(sorted(values, 0, values.length)), dist == null ? TARGET : dist, statistics);
+      boolean greaterOrEqual = statistics[1] < criticalValue;
+      boolean lessOrEqual = statistics[2] < criticalValue;
+      switch(op){
+      case GE: 
+         return greaterOrEqual;
+      case LE: 
+         return lessOrEqual;
+      case GT: 
+         return greaterOrEqual && !lessOrEqual;
+      case LT: 
+         return lessOrEqual && !greaterOrEqual;
+      default: 
+         throw new IllegalArgumentException();
+      }
+   }
+   
+   /**
+    * Number of assignments accepted by a one-sample test; the mean of the exponential distribution, 
+    * if any, is an observation as well
+    */
+   private static long countOneSample(Operator op, IntVar[] x, IntVar mean, double criticalValue){
+      if(mean == null)
+         return count(x, values -> accepts(op, values, null, criticalValue));
+      return count(mergeArrays(x, new IntVar[]{mean}), values -> 
+            accepts(op, values, new ExponentialDist(1.0/values[values.length - 1]), criticalValue));
+   }
+   
+   private static IntVar[] copy(IntVar[] variables, Solver solver){
+      IntVar[] copy = new IntVar[variables.length];
+      for(int i = 0; i < variables.length; i++){
+         int[] values = new int[variables[i].getDomainSize()];
+         int k = 0;
+         for(int value = variables[i].getLB(); value <= variables[i].getUB(); value = variables[i].nextValue(value))
+            values[k++] = value;
+         copy[i] = VariableFactory.enumerated(variables[i].getName(), values, solver);
+      }
+      return copy;
+   }
+   
+   /**
+    * Observations with random, possibly holed, domains over small values.
+    */
+   private static IntVar[] randomObservations(String name, int n, Random rnd, Solver solver){
+      IntVar[] observations = new IntVar[n];
+      for(int i = 0; i < n; i++){
+         int[] values = rnd.ints(0, 8).distinct().limit(1 + rnd.nextInt(4)).sorted().toArray();
+         observations[i] = VariableFactory.enumerated(name+(i+1), values, solver);
+      }
+      return observations;
+   }
+   
+   private static long countSolutions(Solver solver, IntVar[] variables){
+      solver.set(IntStrategyFactory.lexico_LB(variables));
+      long solutions = 0;
+      if(solver.findSolution()){
+         do{
+            solutions++;
+         }while(solver.nextSolution());
+      }
+      return solutions;
+   }
+   
+   /**
+    * Enumerates the assignments of {@code variables} and counts those for which {@code test} holds.
+    */
+   private static long count(IntVar[] variables, Assignment test){
+      return enumerate(variables, test, null);
+   }
+   
+   /**
+    * Enumerates the assignments of {@code variables} and counts those for which {@code test} holds; 
+    * {@code bounds}, if given, receives the smallest and the largest value of each variable in these assignments.
+    */
+   private static long enumerate(IntVar[] variables, Assignment test, int[][] bounds){
+      int[][] domains = new int[variables.length][];
+      for(int i = 0; i < variables.length; i++){
+         domains[i] = new int[variables[i].getDomainSize()];
+         int k = 0;
+         for(int value = variables[i].getLB(); value <= variables[i].getUB(); value = variables[i].nextValue(value))
+            domains[i][k++] = value;
+      }
+      if(bounds != null){
+         Arrays.fill(bounds[0], Integer.MAX_VALUE);
+         Arrays.fill(bounds[1], Integer.MIN_VALUE);
+      }
+      int[] position = new int[variables.length];
+      int[] values = new int[variables.length];
+      long count = 0;
+      while(true){
+         for(int i = 0; i < variables.length; i++)
+            values[i] = domains[i][position[i]];
+         if(test.holds(values)){
+            count++;
+            for(int i = 0; bounds != null && i < variables.length; i++){
+               bounds[0][i] = Math.min(bounds[0][i], values[i]);
+               bounds[1][i] = Math.max(bounds[1][i], values[i]);
+            }
+         }
+         int i = 0;
+         while(i < variables.length && position[i] == domains[i].length - 1)
+            position[i++] = 0;
+         if(i == variables.length)
+            return count;
+         position[i]++;
+      }
+   }
+   
+   private static long countTwoSampleGeq(IntVar[] x, IntVar[] y, double criticalValue){
+      final int n = x.length;
+      return count(mergeArrays(x, y), values -> {
+         double[] sampleX = sorted(values, 0, n);
+         double[] sampleY = sorted(values, n, values.length);
+         return KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(sampleX, sampleY) < criticalValue;
+      });
+   }
+   
+   private static double[] sorted(int[] values, int from, int to){
+      double[] sample = new double[to - from];
+      for(int i = from; i < to; i++)
+         sample[i - from] = values[i];
+      Arrays.sort(sample);
+      return sample;
+   }
+   
+   private interface Assignment {
+      boolean holds(int[] values);
+   }
+}
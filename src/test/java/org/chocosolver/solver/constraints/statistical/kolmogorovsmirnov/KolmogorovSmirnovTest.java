@@ -32,6 +32,9 @@ import org.chocosolver.samples.AbstractProblem;
 import org.chocosolver.solver.Solver;
 import org.chocosolver.solver.constraints.SyatConstraintFactory;
 import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.ExponentialDistVar;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.NormalDistVar;
+import org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions.WeibullDistVar;
+import org.chocosolver.solver.exception.SolverException;
 import org.chocosolver.solver.search.strategy.IntStrategyFactory;
 import org.chocosolver.solver.search.strategy.strategy.AbstractStrategy;
 import org.chocosolver.solver.variables.IntVar;
@@ -41,6 +44,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import umontreal.iro.lecuyer.probdist.Distribution;
+import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 import umontreal.iro.lecuyer.probdist.NormalDist;
 
 public class KolmogorovSmirnovTest {
@@ -69,6 +73,15 @@ public class KolmogorovSmirnovTest {
       ks.execute(str);
    }
    
+   @Test
+   public void testStrictDominanceKolmogorovSmirnovTest() {
+      String[] str={"-log","SILENT"};
+      StrictDominanceKolmogorovSmirnovTest ks = new StrictDominanceKolmogorovSmirnovTest(">", true);
+      ks.execute(str);
+      ks = new StrictDominanceKolmogorovSmirnovTest("<", false);
+      ks.execute(str);
+   }
+   
    @Test
    public void testTwoSampleKolmogorovSmirnovTest() {
       String[] str={"-log","SILENT"};
@@ -83,6 +96,25 @@ public class KolmogorovSmirnovTest {
       ks.execute(str);
    }
    
+   @Test(expected=SolverException.class)
+   public void testNormalNonPositiveStandardDeviation() {
+      Solver solver = new Solver();
+      new NormalDistVar(VariableFactory.bounded("mean", 1, 40, solver), VariableFactory.bounded("standardDeviation", 0, 15, solver));
+   }
+   
+   @Test(expected=SolverException.class)
+   public void testWeibullNonPositiveShape() {
+      Solver solver = new Solver();
+      new WeibullDistVar(VariableFactory.bounded("shape", -1, 5, solver), VariableFactory.bounded("scale", 1, 15, solver));
+   }
+   
+   @Test
+   public void testMultiParameterDistributionTest() {
+      String[] str={"-log","SILENT"};
+      MultiParameterDistributionTest ks = new MultiParameterDistributionTest();
+      ks.execute(str);
+   }
+   
    class OneSampleKolmogorovSmirnovTest extends AbstractProblem {
 
       // input data
@@ -145,6 +177,65 @@ public class KolmogorovSmirnovTest {
       }
   }
    
+   class StrictDominanceKolmogorovSmirnovTest extends AbstractProblem {
+
+      // input data
+      int[] dataX = {8, 14, 6, 12, 12, 9, 10, 9, 10, 5}; //Poisson[10]
+      
+      String op;
+      boolean feasible;
+
+      // variables
+      public IntVar[] populationX;
+      
+      public StrictDominanceKolmogorovSmirnovTest(String op, boolean feasible){
+         this.op = op;
+         this.feasible = feasible;
+      }
+
+      @Override
+      public void createSolver() {
+          solver = new Solver("StrictDominanceKolmogorovSmirnovTest");
+      }
+
+      @Override
+      public void buildModel() {
+          int populationXSize = dataX.length;
+          populationX = new IntVar[populationXSize];
+          for(int i = 0; i < populationXSize; i++)
+           populationX[i] = VariableFactory.bounded("sample "+i, dataX[i] - 3, dataX[i], solver);
+          
+          Distribution dist = new NormalDist(5,Math.sqrt(5));
+          
+          solver.post(SyatConstraintFactory.kolmogorov_smirnov(populationX, dist, op, 0.95));
+      }
+
+      @Override
+      public void configureSearch() {
+          AbstractStrategy<IntVar> strat = IntStrategyFactory.lexico_UB(populationX);
+          solver.set(strat);
+      }
+
+      @Override
+      public void solve() {
+        boolean solution = solver.findSolution();
+        assertEquals("StrictDominanceKolmogorovSmirnovTest "+op, feasible, solution);
+        if(solution){
+           double[] sample = new double[populationX.length];
+           for(int i = 0; i < populationX.length; i++){
+              sample[i] = populationX[i].getValue();
+           }
+           org.syat.statistics.KolmogorovSmirnovTest kst = new org.syat.statistics.KolmogorovSmirnovTest(new EmpiricalDist(sample), new NormalDist(5,Math.sqrt(5)), 0.95);
+           assertTrue("StrictDominanceKolmogorovSmirnovTest", kst.testE1GeqD1() && !kst.testD1GeqE1());
+        }
+      }
+
+      @Override
+      public void prettyOut() {
+          
+      }
+  }
+   
    class TwoSampleKolmogorovSmirnovTest extends AbstractProblem {
 
       // input data
@@ -291,6 +382,73 @@ public class KolmogorovSmirnovTest {
       @Override
       public void prettyOut() {
           
+      }
+  }
+   
+   class MultiParameterDistributionTest extends AbstractProblem {
+
+      // input data
+      int[] dataX = {22, 17, 25, 19, 28, 21, 14, 20, 23, 18, 26, 16, 21, 24, 19, 12, 22, 20, 27, 18}; //Normal[20,4]
+
+      // variables
+      public IntVar[] populationX;
+      public IntVar mean;
+      public IntVar standardDeviation;
+
+      @Override
+      public void createSolver() {
+          solver = new Solver("MultiParameterDistributionTest");
+      }
+
+      @Override
+      public void buildModel() {
+          int populationXSize = dataX.length;
+          populationX = new IntVar[populationXSize];
+          for(int i = 0; i < populationXSize; i++)
+           populationX[i] = VariableFactory.bounded("sample "+i, dataX[i], dataX[i], solver);
+
+          mean = VariableFactory.bounded("mean", 1, 40, solver);
+          standardDeviation = VariableFactory.bounded("standardDeviation", 1, 15, solver);
+          
+          solver.post(SyatConstraintFactory.kolmogorov_smirnov(populationX, new NormalDistVar(mean, standardDeviation), "=", 0.95));
+      }
+
+      @Override
+      public void configureSearch() {
+          AbstractStrategy<IntVar> strat = IntStrategyFactory.lexico_LB(new IntVar[]{mean, standardDeviation});
+          solver.set(strat);
+      }
+
+      @Override
+      public void solve() {
+        // the constraint appends the parameters to the observations, see SyatConstraintFactory.kolmogorov_smirnov, 
+        // hence the reference test is run on the observations and the parameter values
+        double[] sample = new double[dataX.length + 2];
+        for(int i = 0; i < dataX.length; i++)
+           sample[i] = dataX[i];
+        StringBuilder expected = new StringBuilder();
+        for(int m = 1; m <= 40; m++){
+           for(int s = 1; s <= 15; s++){
+              sample[dataX.length] = m;
+              sample[dataX.length + 1] = s;
+              org.syat.statistics.KolmogorovSmirnovTest kst = new org.syat.statistics.KolmogorovSmirnovTest(new EmpiricalDist(sample), new NormalDist(m, s), 1-(1-0.95)/2.0);
+              if(kst.testE1GeqD1() && kst.testD1GeqE1())
+                 expected.append(m+":"+s+", ");
+           }
+        }
+        StringBuilder st = new StringBuilder();
+        if(solver.findSolution()){
+           do{
+              st.append(mean.getValue()+":"+standardDeviation.getValue()+", ");
+           }while(solver.nextSolution());
+        }
+        assertTrue("MultiParameterDistributionTest", expected.length() > 0);
+        assertEquals("MultiParameterDistributionTest", expected.toString(), st.toString());
+      }
+
+      @Override
+      public void prettyOut() {
+          
       }
   }
 }
@@ -0,0 +1,135 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.chocosolver.solver.constraints.statistical.kolmogorovsmirnov.distributions;
+
+import static org.junit.Assert.*;
+
+import org.chocosolver.solver.Solver;
+import org.chocosolver.solver.variables.IntVar;
+import org.chocosolver.solver.variables.VariableFactory;
+import org.junit.Test;
+
+import umontreal.iro.lecuyer.probdist.ContinuousDistribution;
+import umontreal.iro.lecuyer.probdist.NormalDist;
+
+public class CachedDistributionVarTest {
+
+   @Test
+   public void testCdf() {
+      CountingNormalDistVar dist = new CountingNormalDistVar(new Solver());
+      CachedDistributionVar cached = new CachedDistributionVar(dist, 0, 40, 4);
+      for(int mean = 10; mean <= 30; mean += 5){
+         for(int standardDeviation = 1; standardDeviation <= 8; standardDeviation++){
+            double[] params = {mean, standardDeviation};
+            for(int x = -5; x <= 45; x++){
+               assertEquals(NormalDist.cdf(mean, standardDeviation, x), cached.cdf(x, params), 0);
+               assertEquals(NormalDist.cdf(mean, standardDeviation, x), cached.cdf(x, params), 0);
+               assertEquals(NormalDist.cdf(mean, standardDeviation, x + 0.5), cached.cdf(x + 0.5, params), 0);
+            }
+         }
+      }
+      cached.setParameters(new double[]{20, 4});
+      assertEquals(NormalDist.cdf(20, 4, 17), cached.cdf(17), 0);
+      assertEquals(NormalDist.inverseF(20, 4, 0.3), cached.inverseF(0.3), 0);
+   }
+   
+   @Test
+   public void testEviction() {
+      CountingNormalDistVar dist = new CountingNormalDistVar(new Solver());
+      CachedDistributionVar cached = new CachedDistributionVar(dist, 0, 40, 2);
+      double[] a = {20, 4};
+      double[] b = {20, 5};
+      double[] c = {21, 4};
+      cached.cdf(18, a);
+      cached.cdf(18, b);
+      assertEquals(2, dist.calls);
+      // a becomes the most recently used parameter vector, c evicts b
+      cached.cdf(18, a);
+      cached.cdf(18, c);
+      assertEquals(3, dist.calls);
+      cached.cdf(18, a);
+      assertEquals(3, dist.calls);
+      cached.cdf(18, b);
+      assertEquals(4, dist.calls);
+      // c was evicted by b, a is still held
+      cached.cdf(18, a);
+      assertEquals(4, dist.calls);
+      cached.cdf(18, c);
+      assertEquals(5, dist.calls);
+   }
+   
+   /**
+    * Normal distribution counting the evaluations of its cdf
+    */
+   @SuppressWarnings("serial")
+   private static class CountingNormalDistVar extends ContinuousDistribution implements DistributionVar {
+      
+      final IntVar[] parameters;
+      int calls;
+      
+      CountingNormalDistVar(Solver solver) {
+         this.parameters = VariableFactory.boundedArray("parameters", 2, 1, 40, solver);
+      }
+      
+      public double cdf(double x, double[] params) {
+         this.calls++;
+         return NormalDist.cdf(params[0], params[1], x);
+      }
+      
+      public double inverseF(double u, double[] params) {
+         return NormalDist.inverseF(params[0], params[1], u);
+      }
+      
+      public int getNumberOfVarParameters() {
+         return 2;
+      }
+      
+      public IntVar[] getVarParatemers() {
+         return this.parameters;
+      }
+      
+      public void setParameters(double[] params) {
+         throw new UnsupportedOperationException();
+      }
+      
+      public double density(double x) {
+         throw new UnsupportedOperationException();
+      }
+      
+      public double cdf(double x) {
+         throw new UnsupportedOperationException();
+      }
+      
+      public double inverseF(double u) {
+         throw new UnsupportedOperationException();
+      }
+      
+      public double[] getParams() {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -28,6 +28,8 @@ package org.syad.statistics.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -96,4 +98,25 @@ public class BinomialProportionTest {
       coverageProbabilityAC/=replications;
       assertEquals("AgrestiCoullCI: "+coverageProbabilityAC,0.9, coverageProbabilityAC,0.01);
    }
+
+   @Test
+   public void batch() {
+      double confidence = 0.90;
+      double p = 0.3;
+      int replications = 2000;
+      int sampleSize = 50;
+      
+      MRG32k3a rng = new MRG32k3a();
+      BinomialGen binomial = new BinomialGen(rng, 1, p);
+      double[] variates = new double[sampleSize*replications];
+      binomial.nextArrayOfDouble(variates, 0, variates.length);
+      double[] intervalsCP = BinomialProportion.computeClopperPearsonCI(variates, sampleSize, confidence);
+      double[] intervalsAC = BinomialProportion.computeAgrestiCoullCI(variates, sampleSize, confidence);
+      for(int i = 0; i < replications; i++){
+         EmpiricalDist empDist = new EmpiricalDist(Arrays.copyOfRange(variates, i*sampleSize, (i+1)*sampleSize));
+         BinomialProportion bp = new BinomialProportion(empDist);
+         assertArrayEquals(bp.computeClopperPearsonCI(confidence), Arrays.copyOfRange(intervalsCP, 2*i, 2*i+2), 0);
+         assertArrayEquals(bp.computeAgrestiCoullCI(confidence), Arrays.copyOfRange(intervalsAC, 2*i, 2*i+2), 0);
+      }
+   }
 }
@@ -0,0 +1,132 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syad.statistics.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.syat.statistics.DistributionCache;
+import org.syat.statistics.KolmogorovSmirnovTest;
+
+import umontreal.iro.lecuyer.probdist.BetaDist;
+import umontreal.iro.lecuyer.probdist.ChiSquareDist;
+import umontreal.iro.lecuyer.probdist.EmpiricalDist;
+import umontreal.iro.lecuyer.probdist.FisherFDist;
+import umontreal.iro.lecuyer.probdist.KolmogorovSmirnovDist;
+import umontreal.iro.lecuyer.probdist.StudentDist;
+import umontreal.iro.lecuyer.probdist.UniformDist;
+
+public class DistributionCacheTest {
+
+	@Before
+	public void setUp() throws Exception {
+		DistributionCache.setCapacity(DistributionCache.DEFAULT_CAPACITY);
+		DistributionCache.clear();
+	}
+
+	@Test
+	public void values() {
+		for(int n = 1; n < 30; n++){
+			for(int k = 1; k < 20; k++){
+				double u = k/20.0;
+				assertEquals(new StudentDist(n).inverseF(u), DistributionCache.studentInverseF(n, u), 0);
+				assertEquals(new ChiSquareDist(n).inverseF(u), DistributionCache.chiSquareInverseF(n, u), 0);
+				assertEquals(new FisherFDist(n, k).inverseF(u), DistributionCache.fisherFInverseF(n, k, u), 0);
+				double criticalValue = DistributionCache.kolmogorovSmirnovCriticalValue(n, u);
+				assertTrue(u >= 1.0-new KolmogorovSmirnovDist(n).cdf(criticalValue));
+				assertTrue(u < 1.0-new KolmogorovSmirnovDist(n).cdf(Math.nextDown(criticalValue)));
+				assertEquals(new BetaDist(n, k).inverseF(u), DistributionCache.betaInverseF(n, k, u), 0);
+			}
+		}
+		assertEquals(0, DistributionCache.getHits());
+		assertEquals(new StudentDist(5).inverseF(0.975), DistributionCache.studentInverseF(5, 0.975), 0);
+		assertEquals(new StudentDist(5).inverseF(0.975), DistributionCache.studentInverseF(5, 0.975), 0);
+		assertEquals(1, DistributionCache.getHits());
+	}
+	
+	@Test
+	public void counters() {
+		for(int i = 0; i < 10; i++)
+			DistributionCache.chiSquareInverseF(3, 0.9);
+		assertEquals(9, DistributionCache.getHits());
+		assertEquals(1, DistributionCache.getMisses());
+		assertEquals(0.9, DistributionCache.getHitRate(), 1e-12);
+		DistributionCache.resetCounters();
+		assertEquals(0, DistributionCache.getHitRate(), 0);
+		assertEquals(1, DistributionCache.size());
+	}
+	
+	@Test
+	public void pValues() {
+		double[] observations = {0.1, 0.4, 0.45, 0.7, 0.9};
+		KolmogorovSmirnovTest test = new KolmogorovSmirnovTest(new EmpiricalDist(observations), new UniformDist(0, 1), 0.95);
+		test.pValueE1NeqD1();
+		test.pValueE1GeqD1();
+		assertEquals(0, DistributionCache.size());
+		KolmogorovSmirnovTest.criticalValueTwoTailed(5, 0.95);
+		KolmogorovSmirnovTest.criticalValueTwoTailed(5, 0.95);
+		assertEquals(1, DistributionCache.size());
+		assertEquals(1, DistributionCache.getHits());
+	}
+	
+	@Test
+	public void capacity() {
+		DistributionCache.setCapacity(10);
+		for(int n = 1; n <= 20; n++)
+			DistributionCache.studentInverseF(n, 0.95);
+		assertEquals(10, DistributionCache.size());
+		DistributionCache.studentInverseF(20, 0.95);
+		DistributionCache.studentInverseF(1, 0.95);
+		assertEquals(1, DistributionCache.getHits());
+		DistributionCache.setCapacity(5);
+		assertEquals(5, DistributionCache.size());
+	}
+	
+	@Test
+	public void concurrentAccess() throws Exception {
+		Thread[] threads = new Thread[4];
+		final boolean[] failed = new boolean[1];
+		for(int t = 0; t < threads.length; t++){
+			threads[t] = new Thread(new Runnable(){
+				public void run(){
+					for(int i = 0; i < 1000; i++){
+						int n = 1 + i % 7;
+						if(DistributionCache.studentInverseF(n, 0.9) != StudentDist.inverseF(n, 0.9))
+							failed[0] = true;
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		assertFalse(failed[0]);
+		assertEquals(4000, DistributionCache.getHits() + DistributionCache.getMisses());
+		assertEquals(7, DistributionCache.size());
+	}
+}
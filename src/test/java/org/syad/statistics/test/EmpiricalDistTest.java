@@ -0,0 +1,94 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syad.statistics.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import umontreal.iro.lecuyer.probdist.EmpiricalDist;
+
+public class EmpiricalDistTest {
+	
+	@Test
+	public void stepFunction() {
+		Random rnd = new Random(12345);
+		for(int r = 0; r < 1000; r++){
+			double[] sample = new double[2 + rnd.nextInt(20)];
+			for(int i = 0; i < sample.length; i++)
+				sample[i] = rnd.nextInt(10);
+			EmpiricalDist emp = new EmpiricalDist(sample);
+			double[] queries = new double[50];
+			for(int q = 0; q < queries.length; q++)
+				queries[q] = rnd.nextInt(24)/2.0 - 1;
+			Arrays.sort(queries);
+			double[] bulk = new double[queries.length];
+			emp.cdf(queries, bulk);
+			for(int q = 0; q < queries.length; q++){
+				int below = 0, atMost = 0;
+				for(double v : sample){
+					if(v < queries[q]) below++;
+					if(v <= queries[q]) atMost++;
+				}
+				assertEquals((double)atMost/sample.length, emp.cdf(queries[q]), 0);
+				assertEquals((double)(sample.length - below)/sample.length, emp.barF(queries[q]), 0);
+				assertEquals(emp.cdf(queries[q]), bulk[q], 0);
+			}
+		}
+	}
+	
+	@Test
+	public void reuse() {
+		Random rnd = new Random(54321);
+		double[] buffer = new double[30];
+		EmpiricalDist emp = new EmpiricalDist(new double[]{0, 1});
+		for(int r = 0; r < 1000; r++){
+			int n = 2 + rnd.nextInt(buffer.length - 1);
+			for(int i = 0; i < n; i++)
+				buffer[i] = rnd.nextInt(10);
+			emp.reset(buffer, n);
+			for(int k = 0; k < 5; k++){
+				int i = rnd.nextInt(n);
+				double value = rnd.nextInt(12) - 1;
+				emp.replace(buffer[i], value);
+				buffer[i] = value;
+			}
+			EmpiricalDist expected = new EmpiricalDist(Arrays.copyOf(buffer, n));
+			assertEquals(expected.getN(), emp.getN());
+			for(int i = 0; i < n; i++)
+				assertEquals(expected.getObs(i), emp.getObs(i), 0);
+			assertEquals(expected.getMean(), emp.getMean(), 0);
+			assertEquals(expected.getVariance(), emp.getVariance(), 0);
+			assertEquals(expected.getMedian(), emp.getMedian(), 0);
+			for(double x = -1.5; x < 12; x += 0.5)
+				assertEquals(expected.cdf(x), emp.cdf(x), 0);
+		}
+	}
+}
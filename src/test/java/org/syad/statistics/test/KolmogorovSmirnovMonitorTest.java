@@ -0,0 +1,97 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syad.statistics.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.syat.statistics.KolmogorovSmirnovMonitor;
+import org.syat.statistics.KolmogorovSmirnovMonitor.Window;
+import org.syat.statistics.KolmogorovSmirnovTest;
+
+import umontreal.iro.lecuyer.probdist.EmpiricalDist;
+import umontreal.iro.lecuyer.probdist.NormalDist;
+import umontreal.iro.lecuyer.randvar.UniformGen;
+import umontreal.iro.lecuyer.rng.MRG31k3p;
+
+public class KolmogorovSmirnovMonitorTest {
+	
+	private static double[] stream(int length){
+		MRG31k3p lfsr = new MRG31k3p();
+		int[] seed = {5,2,3,4,5,6};
+		lfsr.setSeed(seed);
+		UniformGen rngUnif = new UniformGen(lfsr, 0, 1);
+		double[] stream = new double[length];
+		for(int i = 0; i < length; i++){
+			// rounded and drifting, so that windows share observations and are eventually rejected
+			stream[i] = Math.round(NormalDist.inverseF01(rngUnif.nextDouble())*4)/4.0 + i/1000.0;
+		}
+		return stream;
+	}
+
+	@Test
+	public void slidingWindow() {
+		int w = 50;
+		double[] stream = stream(2000);
+		NormalDist dist = new NormalDist(0, 1);
+		KolmogorovSmirnovMonitor monitor = new KolmogorovSmirnovMonitor(dist, w, Window.SLIDING, KolmogorovSmirnovMonitor.Test.E1_NEQ_D1, 0.95);
+		boolean rejected = false;
+		for(int i = 0; i < stream.length; i++){
+			rejected |= monitor.add(stream[i]);
+			if(i + 1 >= w){
+				EmpiricalDist emp = new EmpiricalDist(Arrays.copyOfRange(stream, i + 1 - w, i + 1));
+				KolmogorovSmirnovTest kst = new KolmogorovSmirnovTest(emp, dist, 0.95);
+				assertEquals(kst.KSstatisticsTwoTailed(), monitor.KSstatisticsTwoTailed(), 1e-12);
+				assertEquals(kst.KSstatisticsSingleTailedE1GeqD1(), monitor.KSstatisticsSingleTailedE1GeqD1(), 1e-12);
+				assertEquals(kst.KSstatisticsSingleTailedD1GeqE1(), monitor.KSstatisticsSingleTailedD1GeqE1(), 1e-12);
+				assertEquals(!kst.testE1NeqD1(), monitor.isRejected());
+			}
+		}
+		assertTrue(rejected);
+	}
+	
+	@Test
+	public void tumblingWindow() {
+		int w = 40;
+		double[] stream = stream(2000);
+		NormalDist dist = new NormalDist(0, 1);
+		KolmogorovSmirnovMonitor monitor = new KolmogorovSmirnovMonitor(dist, w, Window.TUMBLING, KolmogorovSmirnovMonitor.Test.D1_GEQ_E1, 0.95);
+		for(int start = 0; start + w <= stream.length; start += w){
+			EmpiricalDist emp = new EmpiricalDist(Arrays.copyOfRange(stream, start, start + w));
+			KolmogorovSmirnovTest kst = new KolmogorovSmirnovTest(emp, dist, 0.95);
+			int rejection = monitor.add(Arrays.copyOfRange(stream, start, start + w));
+			assertTrue(monitor.isComplete());
+			assertEquals(kst.KSstatisticsSingleTailedD1GeqE1(), monitor.KSstatisticsSingleTailedD1GeqE1(), 1e-12);
+			assertEquals(kst.KSstatisticsSingleTailedE1GeqD1(), monitor.KSstatisticsSingleTailedE1GeqD1(), 1e-12);
+			// a rejection raised early is never withdrawn by the complete window
+			assertEquals(!kst.testD1GeqE1(), rejection >= 0);
+			assertEquals(rejection >= 0, monitor.isRejected());
+		}
+	}
+}
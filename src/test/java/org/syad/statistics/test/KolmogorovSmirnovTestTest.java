@@ -77,6 +77,25 @@ public class KolmogorovSmirnovTestTest {
 		assertEquals("K-S statistics: "+kst.KSstatisticsTwoTailed(),0.290, kst.KSstatisticsTwoTailed(),0.001);
 	}
 	
+	@Test
+	public void criticalValue() throws Exception {
+		MRG31k3p lfsr = new MRG31k3p();
+		int[] seed = {1,2,3,4,5,6};
+		lfsr.setSeed(seed);
+		UniformGen rngUnif = new UniformGen(lfsr, 0, 1);
+		int samples = 50;
+		double criticalValueSingleTailed = KolmogorovSmirnovTest.criticalValueSingleTailed(samples, 0.95);
+		double criticalValueTwoTailed = KolmogorovSmirnovTest.criticalValueTwoTailed(samples, 0.95);
+		for(int i = 0; i < 1000; i++){
+			double[] randomSample = new double[samples];
+			rngUnif.nextArrayOfDouble(randomSample, 0, samples);
+			KolmogorovSmirnovTest kst = new KolmogorovSmirnovTest(new EmpiricalDist(randomSample), new UniformDist(0,0.8+0.4*(i%2)), 0.95);
+			assertEquals(kst.testE1GeqD1(), kst.KSstatisticsSingleTailedE1GeqD1() < criticalValueSingleTailed);
+			assertEquals(kst.testD1GeqE1(), kst.KSstatisticsSingleTailedD1GeqE1() < criticalValueSingleTailed);
+			assertEquals(kst.testE1NeqD1(), kst.KSstatisticsTwoTailed() < criticalValueTwoTailed);
+		}
+	}
+	
 	@Test
 	public void pValue() {
 		//System.out.println("K-S pValue: "+kst.pValue());
@@ -154,4 +173,45 @@ public class KolmogorovSmirnovTestTest {
 		//System.out.println((successFrequency/replications));
 		assertEquals("K-S success frequency: "+(successFrequency/replications),0.95, (successFrequency/replications),0.01);
 	}
+	
+	@Test
+	public void singlePassStatistics() {
+		java.util.Random rnd = new java.util.Random(2016);
+		for(int r = 0; r < 10000; r++){
+			double[] sample = new double[2 + rnd.nextInt(30)];
+			for(int i = 0; i < sample.length; i++)
+				sample[i] = rnd.nextInt(20)/20.0;
+			EmpiricalDist emp = new EmpiricalDist(sample);
+			UniformDist dist = new UniformDist(0, 0.8 + 0.4*rnd.nextDouble());
+			KolmogorovSmirnovTest kst = new KolmogorovSmirnovTest(emp, dist, 0.95);
+			double[] statistics = new double[3];
+			KolmogorovSmirnovTest.statistics(emp, dist, statistics);
+			assertEquals(scan(emp, dist, true, true), kst.KSstatisticsTwoTailed(), 0);
+			assertEquals(scan(emp, dist, true, false), kst.KSstatisticsSingleTailedE1GeqD1(), 0);
+			assertEquals(scan(emp, dist, false, true), kst.KSstatisticsSingleTailedD1GeqE1(), 0);
+			assertEquals(kst.KSstatisticsTwoTailed(), statistics[0], 0);
+			assertEquals(kst.KSstatisticsSingleTailedE1GeqD1(), statistics[1], 0);
+			assertEquals(kst.KSstatisticsSingleTailedD1GeqE1(), statistics[2], 0);
+			assertEquals(KolmogorovSmirnovTest.KSstatisticsTwoTailed(emp, dist), statistics[0], 0);
+			assertEquals(KolmogorovSmirnovTest.KSstatisticsSingleTailedE1GeqD1(emp, dist), statistics[1], 0);
+			assertEquals(KolmogorovSmirnovTest.KSstatisticsSingleTailedD1GeqE1(emp, dist), statistics[2], 0);
+		}
+	}
+	
+	/*
+	 * Discrepancies between the empirical and the target cdf at every observation and 
+	 * just before it
+	 */
+	private static double scan(EmpiricalDist emp, UniformDist dist, boolean above, boolean below){
+		double supDiscrepancy = 0;
+		for(int i = 0; i < emp.getN(); i++){
+			double observation = emp.getObs(i);
+			double previous = i == 0 ? 0 : emp.cdf(emp.getObs(i-1));
+			if(above)
+				supDiscrepancy = Math.max(supDiscrepancy, Math.max(emp.cdf(observation), previous) - dist.cdf(observation));
+			if(below)
+				supDiscrepancy = Math.max(supDiscrepancy, dist.cdf(observation) - Math.min(emp.cdf(observation), previous));
+		}
+		return supDiscrepancy;
+	}
 }
@@ -28,10 +28,13 @@ package org.syad.statistics.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.syat.statistics.KolmogorovSmirnovTestTwoSamples;
+import org.syat.statistics.KolmogorovSmirnovTwoSamplesDist;
 
 import umontreal.iro.lecuyer.probdist.EmpiricalDist;
 import umontreal.iro.lecuyer.randvar.UniformGen;
@@ -118,4 +121,66 @@ public class KolmogorovSmirnovTestTwoSamplesTest {
 		//System.out.println((successFrequency/replications));
 		assertEquals("K-S success frequency: "+(successFrequency/replications),0.90, (successFrequency/replications),0.01);
 	}
+	
+	@Test
+	public void sortedSamplesStatistics() throws Exception {
+		MRG31k3p lfsr = new MRG31k3p();
+		int[] seed = {5,2,3,4,5,6};
+		lfsr.setSeed(seed);
+		UniformGen rngUnif = new UniformGen(lfsr, 0, 1);
+		for(int i = 0; i < 10000; i++){
+			// few distinct values, so that samples share observations
+			double[] randomSample1 = new double[2 + i % 7];
+			double[] randomSample2 = new double[2 + i % 5];
+			for(int j = 0; j < randomSample1.length; j++) randomSample1[j] = Math.floor(rngUnif.nextDouble()*(2 + i % 9));
+			for(int j = 0; j < randomSample2.length; j++) randomSample2[j] = Math.floor(rngUnif.nextDouble()*(2 + i % 9));
+			EmpiricalDist emp1 = new EmpiricalDist(randomSample1);
+			EmpiricalDist emp2 = new EmpiricalDist(randomSample2);
+			Arrays.sort(randomSample1);
+			Arrays.sort(randomSample2);
+			assertEquals(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(emp1, emp2), 
+					KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE1GeqE2(randomSample1, randomSample2), 0);
+			assertEquals(KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(emp1, emp2), 
+					KolmogorovSmirnovTestTwoSamples.KSstatisticsSingleTailedE2GeqE1(randomSample1, randomSample2), 0);
+		}
+	}
+	
+	/* largest distance, in multiples of 1/(n*m), of every path to (n,m) from (i,j) */
+	private static void paths(int n, int m, int i, int j, int distance, int[] counts){
+		distance = Math.max(distance, Math.abs(i*m - j*n));
+		if(i == n && j == m){
+			counts[distance]++;
+			return;
+		}
+		if(i < n) paths(n, m, i + 1, j, distance, counts);
+		if(j < m) paths(n, m, i, j + 1, distance, counts);
+	}
+	
+	@Test
+	public void exactPValues() throws Exception {
+		for(int n = 1; n <= 6; n++){
+			for(int m = 1; m <= 6; m++){
+				int[] counts = new int[n*m + 1];
+				paths(n, m, 0, 0, 0, counts);
+				int total = Arrays.stream(counts).sum();
+				int atLeast = total;
+				for(int k = 0; k <= n*m; k++){
+					if(counts[k] > 0){
+						double pValue = KolmogorovSmirnovTwoSamplesDist.pValue(n, m, (double)k/(n*m));
+						assertEquals((double)atLeast/total, pValue, 1e-12);
+					}
+					atLeast -= counts[k];
+				}
+				for(double alpha : new double[]{0.05, 0.1, 0.2}){
+					double criticalValue = KolmogorovSmirnovTwoSamplesDist.criticalValue(n, m, alpha);
+					for(int k = 0; k <= n*m; k++){
+						if(counts[k] == 0) continue;
+						double statistic = (double)k/(n*m);
+						assertEquals(statistic >= criticalValue, 
+								KolmogorovSmirnovTwoSamplesDist.pValue(n, m, statistic) <= alpha);
+					}
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,88 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syad.statistics.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import umontreal.iro.lecuyer.randvar.UniformGen;
+import umontreal.iro.lecuyer.randvarmulti.MultinomialGen;
+import umontreal.iro.lecuyer.rng.MRG32k3a;
+
+public class MultinomialGenTest {
+	
+	/**
+	 * Checks sample means and variances of each category against N*p_i and N*p_i*(1-p_i).
+	 */
+	private static void checkMoments(double[] p, int N, int points){
+		MultinomialGen gen = new MultinomialGen(new UniformGen(new MRG32k3a()), p, N);
+		double[][] out = new double[points][p.length];
+		gen.nextPoints(out, points);
+		double[] sum = new double[p.length];
+		double[] sumSq = new double[p.length];
+		for(double[] point : out){
+			double total = 0;
+			for(int i = 0; i < p.length; i++){
+				assertTrue(point[i] >= 0 && point[i] == Math.rint(point[i]));
+				total += point[i];
+				sum[i] += point[i];
+				sumSq[i] += point[i]*point[i];
+			}
+			assertEquals(N, total, 0);
+		}
+		for(int i = 0; i < p.length; i++){
+			double mean = sum[i]/points;
+			double variance = sumSq[i]/points - mean*mean;
+			double expectedVariance = N*p[i]*(1-p[i]);
+			assertEquals("mean "+i, N*p[i], mean, 5*Math.sqrt(expectedVariance/points));
+			assertEquals("variance "+i, expectedVariance, variance, 0.05*expectedVariance);
+		}
+	}
+	
+	@Test
+	public void momentsSmallN() {
+		checkMoments(new double[]{0.2,0.3,0.1,0.4}, 3, 100000);
+	}
+	
+	@Test
+	public void momentsLargeN() {
+		checkMoments(new double[]{0.005,0.3,0.1,0.595}, 50, 100000);
+		checkMoments(new double[]{0.01,0.29,0.2,0.5}, 100000, 100000);
+	}
+	
+	@Test
+	public void overwritesPoint() {
+		double[] p = {0.5,0.5};
+		MultinomialGen gen = new MultinomialGen(new UniformGen(new MRG32k3a()), p, 1);
+		double[] point = {7, 7};
+		for(int j = 0; j < 100; j++){
+			gen.nextPoint(point);
+			assertEquals(1, point[0] + point[1], 0);
+		}
+	}
+}
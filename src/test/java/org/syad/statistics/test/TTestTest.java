@@ -28,6 +28,8 @@ package org.syad.statistics.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -110,5 +112,32 @@ public class TTestTest {
 		//System.out.println((successFrequency/replications));
 		assertEquals("K-S success frequency: "+(successFrequency/replications),0.95, (successFrequency/replications),0.01);
 	}
-
+	
+	@Test
+	public void batch() throws Exception {
+		MRG31k3p lfsr = new MRG31k3p();
+		int[] seed = {1,2,3,4,5,6};
+		lfsr.setSeed(seed);
+		UniformGen rngUnif = new UniformGen(lfsr, 0, 1);
+		int samples = 20;
+		int replications = 2000;
+		double[] randomSamples = new double[samples*replications];
+		rngUnif.nextArrayOfDouble(randomSamples, 0, randomSamples.length);
+		boolean[] neq = TTest.testE1NeqTM(randomSamples, samples, 0.5, 0.9);
+		boolean[] tmGeq = TTest.testTMGeqE1(randomSamples, samples, 0.5, 0.9);
+		boolean[] e1Geq = TTest.testE1GeqTM(randomSamples, samples, 0.5, 0.9);
+		double[] pNeq = TTest.pValueE1NeqTM(randomSamples, samples, 0.5);
+		double[] pTMGeq = TTest.pValueTMGeqE1(randomSamples, samples, 0.5);
+		double[] pE1Geq = TTest.pValueE1GeqTM(randomSamples, samples, 0.5);
+		for(int i = 0; i < replications; i++){
+			EmpiricalDist emp = new EmpiricalDist(Arrays.copyOfRange(randomSamples, i*samples, (i+1)*samples));
+			TTest tTest = new TTest(emp, 0.5, 0.9);
+			assertEquals(tTest.testE1NeqTM(), neq[i]);
+			assertEquals(tTest.testTMGeqE1(0.9), tmGeq[i]);
+			assertEquals(tTest.testE1GeqTM(0.9), e1Geq[i]);
+			assertEquals(neq[i], pNeq[i] > 0.1);
+			assertEquals(tmGeq[i], pTMGeq[i] > 0.1);
+			assertEquals(e1Geq[i], pE1Geq[i] > 0.1);
+		}
+	}
 }
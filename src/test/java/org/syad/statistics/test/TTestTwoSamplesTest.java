@@ -28,6 +28,8 @@ package org.syad.statistics.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -129,4 +131,36 @@ public class TTestTwoSamplesTest {
 		//System.out.println((successFrequency/replications));
 		assertEquals("t Test success frequency: "+(successFrequency/replications),0.90, (successFrequency/replications),0.01);
 	}
+	
+	@Test
+	public void batch() throws Exception {
+		MRG31k3p lfsr = new MRG31k3p();
+		int[] seed = {5,2,3,4,5,6};
+		lfsr.setSeed(seed);
+		UniformGen rngUnif = new UniformGen(lfsr, 0, 1);
+		int samples1 = 15;
+		int samples2 = 25;
+		int replications = 2000;
+		double[] randomSamples1 = new double[samples1*replications];
+		double[] randomSamples2 = new double[samples2*replications];
+		rngUnif.nextArrayOfDouble(randomSamples1, 0, randomSamples1.length);
+		rngUnif.nextArrayOfDouble(randomSamples2, 0, randomSamples2.length);
+		boolean[] neq = TTestTwoSamples.testE2NeqE1(randomSamples1, samples1, randomSamples2, samples2, 0.9);
+		boolean[] e2Geq = TTestTwoSamples.testE2GeqE1(randomSamples1, samples1, randomSamples2, samples2, 0.9);
+		boolean[] e1Geq = TTestTwoSamples.testE1GeqE2(randomSamples1, samples1, randomSamples2, samples2, 0.9);
+		double[] pNeq = TTestTwoSamples.pValueE2NeqE1(randomSamples1, samples1, randomSamples2, samples2);
+		double[] pE2Geq = TTestTwoSamples.pValueE2GeqE1(randomSamples1, samples1, randomSamples2, samples2);
+		double[] pE1Geq = TTestTwoSamples.pValueE1GeqE2(randomSamples1, samples1, randomSamples2, samples2);
+		for(int i = 0; i < replications; i++){
+			EmpiricalDist emp1 = new EmpiricalDist(Arrays.copyOfRange(randomSamples1, i*samples1, (i+1)*samples1));
+			EmpiricalDist emp2 = new EmpiricalDist(Arrays.copyOfRange(randomSamples2, i*samples2, (i+1)*samples2));
+			TTestTwoSamples tTest = new TTestTwoSamples(emp1, emp2, 0.9);
+			assertEquals(tTest.testE2NeqE1(), neq[i]);
+			assertEquals(tTest.testE2GeqE1(0.9), e2Geq[i]);
+			assertEquals(tTest.testE1GeqE2(0.9), e1Geq[i]);
+			assertEquals(neq[i], pNeq[i] > 0.1);
+			assertEquals(e2Geq[i], pE2Geq[i] > 0.1);
+			assertEquals(e1Geq[i], pE1Geq[i] > 0.1);
+		}
+	}
 }
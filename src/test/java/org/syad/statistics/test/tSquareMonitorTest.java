@@ -0,0 +1,93 @@
+/*
+ * syat-choco: a Choco extension for Declarative Statistics.
+ * 
+ * MIT License
+ * 
+ * Copyright (c) 2016 Roberto Rossi
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.syad.statistics.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.syat.statistics.tSquareMonitor;
+import org.syat.statistics.tSquareTest;
+
+import umontreal.iro.lecuyer.rng.MRG32k3a;
+
+public class tSquareMonitorTest {
+   
+   static double[][] sigma(int p){
+      double[][] sigma = new double[p][p];
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j < p; j++){
+            sigma[i][j] = i == j ? 1.0 : 0.1/(1 + Math.abs(i - j));
+         }
+      }
+      return sigma;
+   }
+   
+   @Test
+   public void estimatedSigma() {
+      int p = 20;
+      double[] mu = new double[p];
+      Arrays.fill(mu, 1);
+      double[][] sigma = sigma(p);
+      MRG32k3a rng = new MRG32k3a();
+      rng.setSeed(new long[]{1,2,3,4,5,6});
+      double[][] observations = tSquareTestTest.generateObservations(rng, mu, sigma, 200);
+      
+      tSquareMonitor monitor = new tSquareMonitor(mu);
+      for(int n = 1; n <= observations.length; n++){
+         double statistic = monitor.add(observations[n-1]);
+         if(n <= p){
+            assertTrue(Double.isNaN(statistic));
+         }else{
+            tSquareTest test = new tSquareTest(mu, Arrays.copyOf(observations, n));
+            assertEquals(test.tSquareStatistic(), statistic, 1e-9*test.tSquareStatistic());
+            assertEquals(test.tSquareTestPValue(), monitor.tSquareTestPValue(), 1e-9);
+         }
+      }
+   }
+   
+   @Test
+   public void knownSigma() {
+      int p = 20;
+      double[] mu = new double[p];
+      Arrays.fill(mu, 1);
+      double[][] sigma = sigma(p);
+      MRG32k3a rng = new MRG32k3a();
+      rng.setSeed(new long[]{1,2,3,4,5,6});
+      double[][] observations = tSquareTestTest.generateObservations(rng, mu, sigma, 200);
+      
+      tSquareMonitor monitor = new tSquareMonitor(mu, sigma);
+      for(int n = 1; n <= observations.length; n++){
+         double statistic = monitor.add(observations[n-1]);
+         tSquareTest test = new tSquareTest(mu, sigma, Arrays.copyOf(observations, n));
+         assertEquals(test.tSquareStatistic(), statistic, 1e-9*test.tSquareStatistic());
+         if(n > p)
+            assertEquals(test.tSquareTestPValue(), monitor.tSquareTestPValue(), 1e-9);
+      }
+   }
+}
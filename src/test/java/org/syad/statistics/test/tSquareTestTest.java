@@ -28,11 +28,17 @@ package org.syad.statistics.test;
 
 import static org.junit.Assert.*;
 
+import org.apache.commons.math3.stat.correlation.Covariance;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.la4j.Matrix;
+import org.la4j.inversion.GaussJordanInverter;
+import org.la4j.matrix.dense.Basic2DMatrix;
 import org.syat.statistics.tSquareTest;
 
+import umontreal.iro.lecuyer.probdist.ChiSquareDist;
+import umontreal.iro.lecuyer.probdist.FisherFDist;
 import umontreal.iro.lecuyer.randvar.NormalGen;
 import umontreal.iro.lecuyer.randvarmulti.MultinormalCholeskyGen;
 import umontreal.iro.lecuyer.rng.MRG32k3a;
@@ -117,4 +123,97 @@ public class tSquareTestTest {
       
       assertTrue("Success frequency: "+(counter/R), counter/R >= 0.94);
    }
+
+   /*
+    * Statistic as computed before the Cholesky factorisation, by Gauss-Jordan inversion of the scaled covariance matrix
+    */
+   static double gaussJordanStatistic(double[] mu, double[][] sigma, double[][] observations, boolean estimatedCovariance){
+      int p = mu.length;
+      double[] totals = new double[p];
+      for(int i = 0; i < observations.length; i++){
+         for(int j = 0; j < p; j++){
+            totals[j] += observations[i][j] - mu[j];
+         }
+      }
+      double[][] sigmaM = new double[p][p];
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j < p; j++){
+            sigmaM[i][j] = sigma[i][j] * (estimatedCovariance ? (observations.length-1) : observations.length);
+         }
+      }
+      Matrix inverse = new GaussJordanInverter(new Basic2DMatrix(sigmaM)).inverse();
+      double statistic = 0;
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j < p; j++){
+            statistic += totals[i]*inverse.get(i, j)*totals[j];
+         }
+      }
+      return statistic;
+   }
+   
+   static double[][] covarianceMatrix(double[][] observations){
+      int p = observations[0].length;
+      double[][] columns = new double[p][observations.length];
+      for(int i = 0; i < observations.length; i++){
+         for(int j = 0; j < p; j++){
+            columns[j][i] = observations[i][j];
+         }
+      }
+      double[][] matrix = new double[p][p];
+      for(int i = 0; i < p; i++){
+         for(int j = 0; j < p; j++){
+            matrix[i][j] = new Covariance().covariance(columns[i], columns[j]);
+         }
+      }
+      return matrix;
+   }
+   
+   @Test
+   public void testGaussJordanReference() {
+      
+      double[] mu = {1, 1, 1};
+      double[][] sigma = new double[][]{
+         { 1.0, 0.1, 0.2 },
+         { 0.1, 1.0, 0.1 },
+         { 0.2, 0.1, 1.0 }
+      };
+      
+      MRG32k3a rng = new MRG32k3a();
+      rng.setSeed(new long[]{1,2,3,4,5,6});
+      
+      for(int M : new int[]{5, 20, 50, 500}){
+         double[][] observations = generateObservations(rng, new double[]{1.2,0.9,1}, sigma, M);
+         
+         tSquareTest test = new tSquareTest(mu, sigma, observations);
+         double statistic = gaussJordanStatistic(mu, sigma, observations, false);
+         assertEquals(statistic, test.tSquareStatistic(), 1e-9*statistic);
+         double pValue = 1 - new FisherFDist(mu.length, M - mu.length).cdf(statistic*(M - mu.length)/((M - 1) * mu.length));
+         assertEquals(pValue, test.tSquareTestPValue(), 1e-9);
+         
+         test = new tSquareTest(mu, observations);
+         statistic = gaussJordanStatistic(mu, covarianceMatrix(observations), observations, true);
+         assertEquals(statistic, test.tSquareStatistic(), 1e-9*statistic);
+         pValue = 1 - new ChiSquareDist(mu.length).cdf(statistic);
+         assertEquals(pValue, test.tSquareTestPValue(), 1e-9);
+      }
+   }
+   
+   @Test(expected=IllegalArgumentException.class)
+   public void testSingularKnownSigma() {
+      double[] mu = {1, 1};
+      double[][] sigma = new double[][]{
+         { 1.0, 1.0 },
+         { 1.0, 1.0 }
+      };
+      double[][] observations = {{1.1, 0.8}, {0.7, 1.3}, {1.2, 1.0}};
+      new tSquareTest(mu, sigma, observations).tSquareStatistic();
+   }
+   
+   @Test(expected=IllegalArgumentException.class)
+   public void testSingularEstimatedSigma() {
+      double[] mu = {1, 1};
+      // the second component is constant, its sample variance is zero
+      double[][] observations = {{1.1, 2.0}, {0.7, 2.0}, {1.2, 2.0}, {0.9, 2.0}};
+      new tSquareTest(mu, observations).tSquareTestPValue();
+   }
 }